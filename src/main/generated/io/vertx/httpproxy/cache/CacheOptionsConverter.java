@@ -17,6 +17,16 @@ public class CacheOptionsConverter {
             obj.setMaxSize(((Number)member.getValue()).intValue());
           }
           break;
+        case "maxContentSize":
+          if (member.getValue() instanceof Number) {
+            obj.setMaxContentSize(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "maxResourceSize":
+          if (member.getValue() instanceof Number) {
+            obj.setMaxResourceSize(((Number)member.getValue()).longValue());
+          }
+          break;
         case "name":
           if (member.getValue() instanceof String) {
             obj.setName((String)member.getValue());
@@ -27,6 +37,131 @@ public class CacheOptionsConverter {
             obj.setShared((Boolean)member.getValue());
           }
           break;
+        case "collapsedForwarding":
+          if (member.getValue() instanceof Boolean) {
+            obj.setCollapsedForwarding((Boolean)member.getValue());
+          }
+          break;
+        case "collapsedForwardingTimeout":
+          if (member.getValue() instanceof Number) {
+            obj.setCollapsedForwardingTimeout(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "staleIfError":
+          if (member.getValue() instanceof Number) {
+            obj.setStaleIfError(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "offHeap":
+          if (member.getValue() instanceof Boolean) {
+            obj.setOffHeap((Boolean)member.getValue());
+          }
+          break;
+        case "diskDirectory":
+          if (member.getValue() instanceof String) {
+            obj.setDiskDirectory((String)member.getValue());
+          }
+          break;
+        case "maxDiskSize":
+          if (member.getValue() instanceof Number) {
+            obj.setMaxDiskSize(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "diskSegmentSize":
+          if (member.getValue() instanceof Number) {
+            obj.setDiskSegmentSize(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "snapshotFile":
+          if (member.getValue() instanceof String) {
+            obj.setSnapshotFile((String)member.getValue());
+          }
+          break;
+        case "snapshotInterval":
+          if (member.getValue() instanceof Number) {
+            obj.setSnapshotInterval(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "sliceSize":
+          if (member.getValue() instanceof Number) {
+            obj.setSliceSize(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "detachedFillMaxSize":
+          if (member.getValue() instanceof Number) {
+            obj.setDetachedFillMaxSize(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "detachedFillTimeout":
+          if (member.getValue() instanceof Number) {
+            obj.setDetachedFillTimeout(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "heuristicMaxAge":
+          if (member.getValue() instanceof Number) {
+            obj.setHeuristicMaxAge(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "clustered":
+          if (member.getValue() instanceof Boolean) {
+            obj.setClustered((Boolean)member.getValue());
+          }
+          break;
+        case "invalidationAddress":
+          if (member.getValue() instanceof String) {
+            obj.setInvalidationAddress((String)member.getValue());
+          }
+          break;
+        case "invalidationBatchDelay":
+          if (member.getValue() instanceof Number) {
+            obj.setInvalidationBatchDelay(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "sortQueryParameters":
+          if (member.getValue() instanceof Boolean) {
+            obj.setSortQueryParameters((Boolean)member.getValue());
+          }
+          break;
+        case "lowerCaseHost":
+          if (member.getValue() instanceof Boolean) {
+            obj.setLowerCaseHost((Boolean)member.getValue());
+          }
+          break;
+        case "ignoredQueryParameters":
+          if (member.getValue() instanceof JsonArray) {
+            java.util.ArrayList<java.lang.String> list =  new java.util.ArrayList<>();
+            ((Iterable<Object>)member.getValue()).forEach( item -> {
+              if (item instanceof String)
+                list.add((String)item);
+            });
+            obj.setIgnoredQueryParameters(list);
+          }
+          break;
+        case "keyHeaders":
+          if (member.getValue() instanceof JsonArray) {
+            java.util.ArrayList<java.lang.String> list =  new java.util.ArrayList<>();
+            ((Iterable<Object>)member.getValue()).forEach( item -> {
+              if (item instanceof String)
+                list.add((String)item);
+            });
+            obj.setKeyHeaders(list);
+          }
+          break;
+        case "negativeMaxAge":
+          if (member.getValue() instanceof Number) {
+            obj.setNegativeMaxAge(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "redirectMaxAge":
+          if (member.getValue() instanceof Number) {
+            obj.setRedirectMaxAge(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "negativeMaxContentSize":
+          if (member.getValue() instanceof Number) {
+            obj.setNegativeMaxContentSize(((Number)member.getValue()).longValue());
+          }
+          break;
       }
     }
   }
@@ -37,9 +172,48 @@ public class CacheOptionsConverter {
 
    static void toJson(CacheOptions obj, java.util.Map<String, Object> json) {
     json.put("maxSize", obj.getMaxSize());
+    json.put("maxContentSize", obj.getMaxContentSize());
+    json.put("maxResourceSize", obj.getMaxResourceSize());
     if (obj.getName() != null) {
       json.put("name", obj.getName());
     }
     json.put("shared", obj.isShared());
+    json.put("collapsedForwarding", obj.isCollapsedForwarding());
+    json.put("collapsedForwardingTimeout", obj.getCollapsedForwardingTimeout());
+    json.put("staleIfError", obj.getStaleIfError());
+    json.put("offHeap", obj.isOffHeap());
+    if (obj.getDiskDirectory() != null) {
+      json.put("diskDirectory", obj.getDiskDirectory());
+    }
+    json.put("maxDiskSize", obj.getMaxDiskSize());
+    json.put("diskSegmentSize", obj.getDiskSegmentSize());
+    if (obj.getSnapshotFile() != null) {
+      json.put("snapshotFile", obj.getSnapshotFile());
+    }
+    json.put("snapshotInterval", obj.getSnapshotInterval());
+    json.put("sliceSize", obj.getSliceSize());
+    json.put("detachedFillMaxSize", obj.getDetachedFillMaxSize());
+    json.put("detachedFillTimeout", obj.getDetachedFillTimeout());
+    json.put("heuristicMaxAge", obj.getHeuristicMaxAge());
+    json.put("clustered", obj.isClustered());
+    if (obj.getInvalidationAddress() != null) {
+      json.put("invalidationAddress", obj.getInvalidationAddress());
+    }
+    json.put("invalidationBatchDelay", obj.getInvalidationBatchDelay());
+    json.put("sortQueryParameters", obj.isSortQueryParameters());
+    json.put("lowerCaseHost", obj.isLowerCaseHost());
+    if (obj.getIgnoredQueryParameters() != null) {
+      JsonArray array = new JsonArray();
+      obj.getIgnoredQueryParameters().forEach(item -> array.add(item));
+      json.put("ignoredQueryParameters", array);
+    }
+    if (obj.getKeyHeaders() != null) {
+      JsonArray array = new JsonArray();
+      obj.getKeyHeaders().forEach(item -> array.add(item));
+      json.put("keyHeaders", array);
+    }
+    json.put("negativeMaxAge", obj.getNegativeMaxAge());
+    json.put("redirectMaxAge", obj.getRedirectMaxAge());
+    json.put("negativeMaxContentSize", obj.getNegativeMaxContentSize());
   }
 }
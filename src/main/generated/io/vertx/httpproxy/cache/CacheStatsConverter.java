@@ -0,0 +1,85 @@
+package io.vertx.httpproxy.cache;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Converter and mapper for {@link io.vertx.httpproxy.cache.CacheStats}.
+ * NOTE: This class has been automatically generated from the {@link io.vertx.httpproxy.cache.CacheStats} original class using Vert.x codegen.
+ */
+public class CacheStatsConverter {
+
+   static void fromJson(Iterable<java.util.Map.Entry<String, Object>> json, CacheStats obj) {
+    for (java.util.Map.Entry<String, Object> member : json) {
+      switch (member.getKey()) {
+        case "hitCount":
+          if (member.getValue() instanceof Number) {
+            obj.setHitCount(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "missCount":
+          if (member.getValue() instanceof Number) {
+            obj.setMissCount(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "revalidationCount":
+          if (member.getValue() instanceof Number) {
+            obj.setRevalidationCount(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "notModifiedCount":
+          if (member.getValue() instanceof Number) {
+            obj.setNotModifiedCount(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "lookupCount":
+          if (member.getValue() instanceof Number) {
+            obj.setLookupCount(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "lookupTime":
+          if (member.getValue() instanceof Number) {
+            obj.setLookupTime(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "evictionCount":
+          if (member.getValue() instanceof Number) {
+            obj.setEvictionCount(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "expirationCount":
+          if (member.getValue() instanceof Number) {
+            obj.setExpirationCount(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "size":
+          if (member.getValue() instanceof Number) {
+            obj.setSize(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "contentSize":
+          if (member.getValue() instanceof Number) {
+            obj.setContentSize(((Number)member.getValue()).longValue());
+          }
+          break;
+      }
+    }
+  }
+
+   static void toJson(CacheStats obj, JsonObject json) {
+    toJson(obj, json.getMap());
+  }
+
+   static void toJson(CacheStats obj, java.util.Map<String, Object> json) {
+    json.put("hitCount", obj.getHitCount());
+    json.put("missCount", obj.getMissCount());
+    json.put("revalidationCount", obj.getRevalidationCount());
+    json.put("notModifiedCount", obj.getNotModifiedCount());
+    json.put("lookupCount", obj.getLookupCount());
+    json.put("lookupTime", obj.getLookupTime());
+    json.put("evictionCount", obj.getEvictionCount());
+    json.put("expirationCount", obj.getExpirationCount());
+    json.put("size", obj.getSize());
+    json.put("contentSize", obj.getContentSize());
+  }
+}
@@ -12,12 +12,16 @@ package io.vertx.httpproxy;
 
 import io.vertx.codegen.annotations.Fluent;
 import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.net.SocketAddress;
+import io.vertx.httpproxy.cache.CacheStats;
 import io.vertx.httpproxy.impl.ReverseProxy;
 
+import java.util.List;
+
 /**
  * Handles the HTTP reverse proxy logic between the <i><b>user agent</b></i> and the <i><b>origin</b></i>.
  * <p>
@@ -104,6 +108,56 @@ public interface HttpProxy extends Handler<HttpServerRequest> {
   @Fluent
   HttpProxy addInterceptor(ProxyInterceptor interceptor, boolean supportsWebSocketUpgrade);
 
+  /**
+   * Get a snapshot of the cache statistics: hits, misses, revalidations, evictions, stored size and lookup
+   * latency. The counters are cumulative, the snapshot can be exported with {@link CacheStats#toJson()}.
+   *
+   * @return the statistics, or {@code null} when the proxy does not cache
+   */
+  CacheStats cacheStats();
+
+  /**
+   * Purge the cached resources tagged with a surrogate key by the {@code Surrogate-Key} or {@code Cache-Tag}
+   * headers of the <i><b>origin</b></i> responses.
+   *
+   * @param tag the surrogate key
+   * @return a future completed with the number of purged resources, failed when the proxy does not cache
+   */
+  Future<Integer> purgeCacheTag(String tag);
+
+  /**
+   * Purge the cached resources which keys start with a prefix, the keys are the absolute URIs of the resources,
+   * e.g. {@code http://example.com/api/catalog/} purges the catalog.
+   * <p>
+   * Large purges are performed in batches, they do not block the event loop.
+   *
+   * @param prefix the key prefix
+   * @return a future completed with the number of purged resources, failed when the proxy does not cache
+   */
+  Future<Integer> purgeCachePrefix(String prefix);
+
+  /**
+   * List the keys of the cached resources in lexicographic order.
+   *
+   * @param prefix the key prefix
+   * @param limit the max number of keys
+   * @return a future completed with the keys, failed when the proxy does not cache
+   */
+  Future<List<String>> cacheKeys(String prefix, int limit);
+
+  /**
+   * Create an admin handler purging the cache, it should be mounted on a server that is not exposed to the
+   * <i><b>user agents</b></i>.
+   * <p>
+   * The handler accepts {@code PURGE} and {@code POST} requests, the surrogate keys are given by {@code tag} query
+   * parameters or by a {@code Surrogate-Key} header and the key prefixes by {@code prefix} query parameters, a
+   * trailing {@code *} wildcard is accepted. It responds with a JSON object holding the number of purged resources.
+   * {@code GET} requests list the keys matching the {@code prefix} query parameter, up to {@code limit} keys.
+   *
+   * @return the handler
+   */
+  Handler<HttpServerRequest> cachePurgeHandler();
+
   /**
    * Handle the <i><b>outbound</b></i> {@code HttpServerRequest}.
    *
@@ -112,6 +112,11 @@ public interface ProxyResponse {
 
   boolean publicCacheControl();
 
+  /**
+   * @return the explicit freshness lifetime in milliseconds of the <i><b>origin</b></i> response, from the
+   *         {@code s-maxage} or {@code max-age} directives or from the {@code Expires} header, {@code -1} when
+   *         the response has none
+   */
   long maxAge();
 
   /**
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.cache;
+
+import io.vertx.core.MultiMap;
+
+/**
+ * Build the key of the cache entry of a request, requests with the same key share the cached response.
+ *
+ * <p> The key is built for each {@code GET} and {@code HEAD} request and for the URIs invalidated by unsafe
+ * requests. Keys of equivalent URIs should be equal, the variants and the slices of a resource are stored under
+ * keys starting with the key of the resource followed by {@code \n}.
+ */
+@FunctionalInterface
+public interface CacheKeyBuilder {
+
+  /**
+   * Build a cache key.
+   *
+   * @param absoluteUri the absolute URI of the resource
+   * @param headers the request headers
+   * @return the cache key
+   */
+  String build(String absoluteUri, MultiMap headers);
+
+  /**
+   * Build the part of the cache keys identifying a URI. The keys built for the URI with any request headers should
+   * be equal to this part or start with it followed by {@code \n}, the entries of a URI invalidated by an unsafe
+   * request are removed by this prefix.
+   *
+   * @param absoluteUri the absolute URI of the resource
+   * @return the URI part of the cache keys, the default implementation builds the key without request headers
+   */
+  default String uriKey(String absoluteUri) {
+    return build(absoluteUri, MultiMap.caseInsensitiveMultiMap());
+  }
+}
@@ -12,9 +12,12 @@
 package io.vertx.httpproxy.cache;
 
 import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.json.annotations.JsonGen;
 import io.vertx.core.json.JsonObject;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -29,6 +32,16 @@ public class CacheOptions {
    */
   public static final int DEFAULT_MAX_SIZE = 1000;
 
+  /**
+   * Default max content size of the cache = {@code -1} (unbounded)
+   */
+  public static final long DEFAULT_MAX_CONTENT_SIZE = -1L;
+
+  /**
+   * Default max size of a single cached resource = {@code -1} (unbounded)
+   */
+  public static final long DEFAULT_MAX_RESOURCE_SIZE = -1L;
+
   /**
    * Actual name of anonymous shared cache = {@code __vertx.DEFAULT}
    */
@@ -39,9 +52,140 @@ public class CacheOptions {
    */
   public static final boolean DEFAULT_SHARED = false;
 
+  /**
+   * Default collapsed forwarding = {@code false}
+   */
+  public static final boolean DEFAULT_COLLAPSED_FORWARDING = false;
+
+  /**
+   * Default collapsed forwarding timeout = {@code 5000} ms
+   */
+  public static final long DEFAULT_COLLAPSED_FORWARDING_TIMEOUT = 5000L;
+
+  /**
+   * Default stale if error window = {@code -1}, the origin {@code stale-if-error} directive is used
+   */
+  public static final long DEFAULT_STALE_IF_ERROR = -1L;
+
+  /**
+   * Default off-heap storage = {@code false}
+   */
+  public static final boolean DEFAULT_OFF_HEAP = false;
+
+  /**
+   * Default disk directory = {@code null}, resources are only cached in memory
+   */
+  public static final String DEFAULT_DISK_DIRECTORY = null;
+
+  /**
+   * Default max size of the disk cache tier = {@code 1} GiB
+   */
+  public static final long DEFAULT_MAX_DISK_SIZE = 1024L * 1024 * 1024;
+
+  /**
+   * Default size of a disk cache segment file = {@code 64} MiB
+   */
+  public static final int DEFAULT_DISK_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Default snapshot file = {@code null}, the cache is not persisted across restarts
+   */
+  public static final String DEFAULT_SNAPSHOT_FILE = null;
+
+  /**
+   * Default snapshot interval = {@code -1}, the cache is only saved when Vert.x is closed
+   */
+  public static final long DEFAULT_SNAPSHOT_INTERVAL = -1L;
+
+  /**
+   * Default slice size = {@code -1}, responses are not sliced
+   */
+  public static final int DEFAULT_SLICE_SIZE = -1;
+
+  /**
+   * Default detached fill max size = {@code -1}, the origin response is reset when the client leaves
+   */
+  public static final long DEFAULT_DETACHED_FILL_MAX_SIZE = -1L;
+
+  /**
+   * Default detached fill timeout = 30 seconds
+   */
+  public static final long DEFAULT_DETACHED_FILL_TIMEOUT = 30_000L;
+
+  /**
+   * Default heuristic max age = 1 day
+   */
+  public static final long DEFAULT_HEURISTIC_MAX_AGE = 86_400_000L;
+
+  /**
+   * Default clustered = {@code false}
+   */
+  public static final boolean DEFAULT_CLUSTERED = false;
+
+  /**
+   * Default invalidation address = {@code null}, removals are not broadcast
+   */
+  public static final String DEFAULT_INVALIDATION_ADDRESS = null;
+
+  /**
+   * Default invalidation batch delay = {@code 10} milliseconds
+   */
+  public static final long DEFAULT_INVALIDATION_BATCH_DELAY = 10L;
+
+  /**
+   * Default sort query parameters = {@code false}
+   */
+  public static final boolean DEFAULT_SORT_QUERY_PARAMETERS = false;
+
+  /**
+   * Default lower case host = {@code false}
+   */
+  public static final boolean DEFAULT_LOWER_CASE_HOST = false;
+
+  /**
+   * Default negative max age = {@code 0}, {@code 404} and {@code 410} responses are not negatively cached
+   */
+  public static final long DEFAULT_NEGATIVE_MAX_AGE = 0L;
+
+  /**
+   * Default redirect max age = {@code 0}, permanent redirects are not negatively cached
+   */
+  public static final long DEFAULT_REDIRECT_MAX_AGE = 0L;
+
+  /**
+   * Default max content size of the negative responses = {@code 1} MiB
+   */
+  public static final long DEFAULT_NEGATIVE_MAX_CONTENT_SIZE = 1024L * 1024;
+
   private int maxSize = DEFAULT_MAX_SIZE;
+  private long maxContentSize = DEFAULT_MAX_CONTENT_SIZE;
+  private long maxResourceSize = DEFAULT_MAX_RESOURCE_SIZE;
   private String name = DEFAULT_NAME;
   private boolean shared = DEFAULT_SHARED;
+  private boolean collapsedForwarding = DEFAULT_COLLAPSED_FORWARDING;
+  private long collapsedForwardingTimeout = DEFAULT_COLLAPSED_FORWARDING_TIMEOUT;
+  private long staleIfError = DEFAULT_STALE_IF_ERROR;
+  private boolean offHeap = DEFAULT_OFF_HEAP;
+  private String diskDirectory = DEFAULT_DISK_DIRECTORY;
+  private long maxDiskSize = DEFAULT_MAX_DISK_SIZE;
+  private int diskSegmentSize = DEFAULT_DISK_SEGMENT_SIZE;
+  private String snapshotFile = DEFAULT_SNAPSHOT_FILE;
+  private long snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+  private int sliceSize = DEFAULT_SLICE_SIZE;
+  private long detachedFillMaxSize = DEFAULT_DETACHED_FILL_MAX_SIZE;
+  private long detachedFillTimeout = DEFAULT_DETACHED_FILL_TIMEOUT;
+  private long heuristicMaxAge = DEFAULT_HEURISTIC_MAX_AGE;
+  private boolean clustered = DEFAULT_CLUSTERED;
+  private String invalidationAddress = DEFAULT_INVALIDATION_ADDRESS;
+  private long invalidationBatchDelay = DEFAULT_INVALIDATION_BATCH_DELAY;
+  private boolean sortQueryParameters = DEFAULT_SORT_QUERY_PARAMETERS;
+  private boolean lowerCaseHost = DEFAULT_LOWER_CASE_HOST;
+  private List<String> ignoredQueryParameters = new ArrayList<>();
+  private List<String> keyHeaders = new ArrayList<>();
+  private CacheKeyBuilder keyBuilder;
+  private long negativeMaxAge = DEFAULT_NEGATIVE_MAX_AGE;
+  private long redirectMaxAge = DEFAULT_REDIRECT_MAX_AGE;
+  private long negativeMaxContentSize = DEFAULT_NEGATIVE_MAX_CONTENT_SIZE;
 
   /**
    * Default constructor.
@@ -56,8 +200,34 @@ public class CacheOptions {
    */
   public CacheOptions(CacheOptions other) {
     this.maxSize = other.getMaxSize();
+    this.maxContentSize = other.getMaxContentSize();
+    this.maxResourceSize = other.getMaxResourceSize();
     this.name = other.getName();
     this.shared = other.isShared();
+    this.collapsedForwarding = other.isCollapsedForwarding();
+    this.collapsedForwardingTimeout = other.getCollapsedForwardingTimeout();
+    this.staleIfError = other.getStaleIfError();
+    this.offHeap = other.isOffHeap();
+    this.diskDirectory = other.getDiskDirectory();
+    this.maxDiskSize = other.getMaxDiskSize();
+    this.diskSegmentSize = other.getDiskSegmentSize();
+    this.snapshotFile = other.getSnapshotFile();
+    this.snapshotInterval = other.getSnapshotInterval();
+    this.sliceSize = other.getSliceSize();
+    this.detachedFillMaxSize = other.getDetachedFillMaxSize();
+    this.detachedFillTimeout = other.getDetachedFillTimeout();
+    this.heuristicMaxAge = other.getHeuristicMaxAge();
+    this.clustered = other.isClustered();
+    this.invalidationAddress = other.getInvalidationAddress();
+    this.invalidationBatchDelay = other.getInvalidationBatchDelay();
+    this.sortQueryParameters = other.isSortQueryParameters();
+    this.lowerCaseHost = other.isLowerCaseHost();
+    this.ignoredQueryParameters = new ArrayList<>(other.getIgnoredQueryParameters());
+    this.keyHeaders = new ArrayList<>(other.getKeyHeaders());
+    this.keyBuilder = other.getKeyBuilder();
+    this.negativeMaxAge = other.getNegativeMaxAge();
+    this.redirectMaxAge = other.getRedirectMaxAge();
+    this.negativeMaxContentSize = other.getNegativeMaxContentSize();
   }
 
   /**
@@ -90,6 +260,56 @@ public class CacheOptions {
     return this;
   }
 
+  /**
+   * @return the max number of bytes the cache can hold, {@code -1} when unbounded
+   */
+  public long getMaxContentSize() {
+    return maxContentSize;
+  }
+
+  /**
+   * Set the max number of bytes the cache can hold, the size of a cached resource accounts for its
+   * content and its headers.
+   *
+   * <p> When the cache exceeds this size, resources are evicted until it fits again. This limit applies
+   * in addition to {@link #getMaxSize()}, {@code -1} means unbounded.
+   *
+   * @param maxContentSize the max content size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setMaxContentSize(long maxContentSize) {
+    if (maxContentSize <= 0 && maxContentSize != -1L) {
+      throw new IllegalArgumentException("Max content size must be > 0 or -1");
+    }
+    this.maxContentSize = maxContentSize;
+    return this;
+  }
+
+  /**
+   * @return the max number of bytes of a single cached resource, {@code -1} when unbounded
+   */
+  public long getMaxResourceSize() {
+    return maxResourceSize;
+  }
+
+  /**
+   * Set the max number of bytes of a single cached resource.
+   *
+   * <p> Responses larger than this size are not cached, when the response declares its content length
+   * the proxy does not even buffer its content. With a {@link #setDiskDirectory(String) disk tier}, such responses
+   * are streamed to the disk tier instead when they do not vary. {@code -1} means unbounded.
+   *
+   * @param maxResourceSize the max resource size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setMaxResourceSize(long maxResourceSize) {
+    if (maxResourceSize <= 0 && maxResourceSize != -1L) {
+      throw new IllegalArgumentException("Max resource size must be > 0 or -1");
+    }
+    this.maxResourceSize = maxResourceSize;
+    return this;
+  }
+
   /**
    * @return the cache name used for sharing
    */
@@ -129,6 +349,555 @@ public class CacheOptions {
     return this;
   }
 
+  /**
+   * @return whether concurrent cache misses for the same resource are collapsed into a single origin request
+   */
+  public boolean isCollapsedForwarding() {
+    return collapsedForwarding;
+  }
+
+  /**
+   * Set to {@code true} to collapse concurrent cache misses for the same resource into a single origin request.
+   *
+   * <p> The first miss is forwarded to the origin, the misses that happen while this request is in progress wait
+   * for its response and are served from the cache when it becomes available. When the response cannot be cached
+   * or takes longer than {@link #getCollapsedForwardingTimeout()}, the waiting requests are forwarded to the origin.
+   *
+   * @param collapsedForwarding {@code true} to collapse concurrent misses
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setCollapsedForwarding(boolean collapsedForwarding) {
+    this.collapsedForwarding = collapsedForwarding;
+    return this;
+  }
+
+  /**
+   * @return the max time in milliseconds a collapsed request waits before being forwarded to the origin
+   */
+  public long getCollapsedForwardingTimeout() {
+    return collapsedForwardingTimeout;
+  }
+
+  /**
+   * Set the max time in milliseconds a collapsed request waits for the response of the request in progress before
+   * being forwarded to the origin.
+   *
+   * @param collapsedForwardingTimeout the timeout in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setCollapsedForwardingTimeout(long collapsedForwardingTimeout) {
+    if (collapsedForwardingTimeout <= 0) {
+      throw new IllegalArgumentException("Collapsed forwarding timeout must be > 0");
+    }
+    this.collapsedForwardingTimeout = collapsedForwardingTimeout;
+    return this;
+  }
+
+  /**
+   * @return the window in milliseconds after expiration during which a resource is served when the origin fails,
+   *         {@code -1} when the origin {@code stale-if-error} directive is used
+   */
+  public long getStaleIfError() {
+    return staleIfError;
+  }
+
+  /**
+   * Set the window in milliseconds after expiration during which a cached resource is served when the origin
+   * cannot be reached or responds with a server error.
+   *
+   * <p> This overrides the {@code stale-if-error} directive of the origin responses, {@code -1} means the
+   * directive is used and {@code 0} disables serving stale resources on errors.
+   *
+   * @param staleIfError the window in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setStaleIfError(long staleIfError) {
+    if (staleIfError < -1L) {
+      throw new IllegalArgumentException("Stale if error must be >= 0 or -1");
+    }
+    this.staleIfError = staleIfError;
+    return this;
+  }
+
+  /**
+   * @return whether the cached contents are stored in off-heap memory
+   */
+  public boolean isOffHeap() {
+    return offHeap;
+  }
+
+  /**
+   * Set whether the cached contents are stored in pooled off-heap memory instead of the Java heap, the memory of
+   * a resource is released when it is evicted and no response is using it anymore.
+   *
+   * @param offHeap whether to store contents off-heap
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setOffHeap(boolean offHeap) {
+    this.offHeap = offHeap;
+    return this;
+  }
+
+  /**
+   * @return the directory of the disk cache tier, {@code null} when resources are only cached in memory
+   */
+  public String getDiskDirectory() {
+    return diskDirectory;
+  }
+
+  /**
+   * Set the directory of the disk cache tier, resources are written through to memory-mapped segment files of
+   * this directory and looked up there when they are not cached in memory. The content of the directory is
+   * reloaded when the proxy starts.
+   *
+   * <p> Responses exceeding {@link #getMaxResourceSize()} which declare their content length are streamed to the
+   * segment files as they are sent, up to {@link #getDiskSegmentSize()} bytes, and their hits are streamed from
+   * the segment files.
+   *
+   * @param diskDirectory the directory path or {@code null} to only cache resources in memory
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setDiskDirectory(String diskDirectory) {
+    this.diskDirectory = diskDirectory;
+    return this;
+  }
+
+  /**
+   * @return the max size in bytes of the segment files of the disk cache tier
+   */
+  public long getMaxDiskSize() {
+    return maxDiskSize;
+  }
+
+  /**
+   * Set the max size in bytes of the segment files of the disk cache tier, the oldest segment is evicted when
+   * a new segment would exceed it.
+   *
+   * @param maxDiskSize the max size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setMaxDiskSize(long maxDiskSize) {
+    if (maxDiskSize <= 0) {
+      throw new IllegalArgumentException("Max disk size must be > 0");
+    }
+    this.maxDiskSize = maxDiskSize;
+    return this;
+  }
+
+  /**
+   * @return the size in bytes of a segment file of the disk cache tier
+   */
+  public int getDiskSegmentSize() {
+    return diskSegmentSize;
+  }
+
+  /**
+   * Set the size in bytes of a segment file of the disk cache tier, a resource larger than a segment is not
+   * cached on disk.
+   *
+   * @param diskSegmentSize the segment size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setDiskSegmentSize(int diskSegmentSize) {
+    if (diskSegmentSize <= 0) {
+      throw new IllegalArgumentException("Disk segment size must be > 0");
+    }
+    this.diskSegmentSize = diskSegmentSize;
+    return this;
+  }
+
+  /**
+   * @return the file the in-memory cache is saved to and restored from, {@code null} when snapshots are disabled
+   */
+  public String getSnapshotFile() {
+    return snapshotFile;
+  }
+
+  /**
+   * Set the file the in-memory cache is saved to when Vert.x is closed, the file is loaded in the background
+   * when the cache is created so that the proxy serves requests while the cache is restored. Expired resources
+   * are dropped while loading.
+   *
+   * @param snapshotFile the snapshot file path or {@code null} to disable snapshots
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setSnapshotFile(String snapshotFile) {
+    this.snapshotFile = snapshotFile;
+    return this;
+  }
+
+  /**
+   * @return the interval in milliseconds between periodic snapshots, {@code -1} when the cache is only saved on close
+   */
+  public long getSnapshotInterval() {
+    return snapshotInterval;
+  }
+
+  /**
+   * Set the interval in milliseconds between periodic snapshots of the cache to the {@link #getSnapshotFile() snapshot file}.
+   *
+   * @param snapshotInterval the interval in milliseconds, or {@code -1} to only save the cache on close
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setSnapshotInterval(long snapshotInterval) {
+    if (snapshotInterval <= 0 && snapshotInterval != -1L) {
+      throw new IllegalArgumentException("Snapshot interval must be > 0 or -1");
+    }
+    this.snapshotInterval = snapshotInterval;
+    return this;
+  }
+
+  /**
+   * @return the size in bytes of the slices fetched from the origin, {@code -1} when slicing is disabled
+   */
+  public int getSliceSize() {
+    return sliceSize;
+  }
+
+  /**
+   * Set the size of the slices of a resource, when set the proxy fetches {@code GET} resources from the origin as
+   * byte ranges of this size and caches each slice on its own, responses are assembled from the slices.
+   *
+   * <p> The origin must support range requests, resources it does not serve as partial responses are cached as usual.
+   *
+   * @param sliceSize the slice size in bytes, or {@code -1} to disable slicing
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setSliceSize(int sliceSize) {
+    if (sliceSize <= 0 && sliceSize != -1) {
+      throw new IllegalArgumentException("Slice size must be > 0 or -1");
+    }
+    this.sliceSize = sliceSize;
+    return this;
+  }
+
+  /**
+   * @return the max size of a resource whose cache fill continues after the client leaves, {@code -1} when disabled
+   */
+  public long getDetachedFillMaxSize() {
+    return detachedFillMaxSize;
+  }
+
+  /**
+   * Set the max size of a resource whose cache fill continues when the client disconnects before the end of the
+   * response, the proxy keeps reading the origin response and caches the resource. Fills of larger resources are
+   * aborted.
+   *
+   * @param detachedFillMaxSize the max size in bytes, or {@code -1} to reset the origin response when the client leaves
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setDetachedFillMaxSize(long detachedFillMaxSize) {
+    if (detachedFillMaxSize <= 0 && detachedFillMaxSize != -1L) {
+      throw new IllegalArgumentException("Detached fill max size must be > 0 or -1");
+    }
+    this.detachedFillMaxSize = detachedFillMaxSize;
+    return this;
+  }
+
+  /**
+   * @return the time in milliseconds a cache fill can continue after the client leaves
+   */
+  public long getDetachedFillTimeout() {
+    return detachedFillTimeout;
+  }
+
+  /**
+   * Set the time a cache fill can continue after the client leaves, the origin response is reset when the fill
+   * does not complete in time.
+   *
+   * @param detachedFillTimeout the timeout in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setDetachedFillTimeout(long detachedFillTimeout) {
+    if (detachedFillTimeout <= 0) {
+      throw new IllegalArgumentException("Detached fill timeout must be > 0");
+    }
+    this.detachedFillTimeout = detachedFillTimeout;
+    return this;
+  }
+
+  /**
+   * @return the cap in milliseconds of the freshness lifetime computed from the {@code Last-Modified} header
+   */
+  public long getHeuristicMaxAge() {
+    return heuristicMaxAge;
+  }
+
+  /**
+   * Set the cap of the heuristic freshness lifetime. A response without explicit expiration time but with a
+   * {@code Last-Modified} header is considered fresh for 10% of the time elapsed since its last modification, up to
+   * this value.
+   *
+   * @param heuristicMaxAge the cap in milliseconds, or {@code 0} to disable the heuristic
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setHeuristicMaxAge(long heuristicMaxAge) {
+    if (heuristicMaxAge < 0) {
+      throw new IllegalArgumentException("Heuristic max age must be >= 0");
+    }
+    this.heuristicMaxAge = heuristicMaxAge;
+    return this;
+  }
+
+  /**
+   * @return whether the resources are stored in the cluster wide map of the cache
+   */
+  public boolean isClustered() {
+    return clustered;
+  }
+
+  /**
+   * Set to {@code true} to store the resources in a Vert.x cluster wide map named after {@link #getName()}, so that
+   * the nodes of a cluster share their cached resources.
+   *
+   * <p> The local cache becomes a near cache bounded by {@link #getMaxSize()} and {@link #getMaxContentSize()}
+   * in front of the cluster wide map. A node storing or removing a resource publishes an event bus message so that
+   * the other nodes drop their near copy.
+   *
+   * @param clustered {@code true} to share the resources in the cluster
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setClustered(boolean clustered) {
+    this.clustered = clustered;
+    return this;
+  }
+
+  /**
+   * @return the event bus address on which the removals of resources are broadcast to the other proxies
+   */
+  public String getInvalidationAddress() {
+    return invalidationAddress;
+  }
+
+  /**
+   * Set the event bus address on which the removals of resources are broadcast to the other proxies, such as the
+   * other nodes of a cluster. The resources invalidated by a proxy, for example after an unsafe request, a failed
+   * revalidation or a purge, are also removed from the caches of the proxies listening on the same address.
+   *
+   * <p> When the cache is {@link #isClustered() clustered}, the removals are always broadcast to drop the near
+   * copies, on an address derived from {@link #getName()} unless this address is set.
+   *
+   * @param invalidationAddress the event bus address or {@code null} to not broadcast removals
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setInvalidationAddress(String invalidationAddress) {
+    this.invalidationAddress = invalidationAddress;
+    return this;
+  }
+
+  /**
+   * @return the delay in milliseconds during which the removals are collected before being broadcast
+   */
+  public long getInvalidationBatchDelay() {
+    return invalidationBatchDelay;
+  }
+
+  /**
+   * Set the delay in milliseconds during which the removals are collected before being broadcast in a single
+   * message, duplicate removals are coalesced so that bursts of invalidations do not flood the event bus.
+   *
+   * @param invalidationBatchDelay the delay in milliseconds or {@code 0} to broadcast each removal immediately
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setInvalidationBatchDelay(long invalidationBatchDelay) {
+    if (invalidationBatchDelay < 0) {
+      throw new IllegalArgumentException("Invalidation batch delay must be >= 0");
+    }
+    this.invalidationBatchDelay = invalidationBatchDelay;
+    return this;
+  }
+
+  /**
+   * @return whether the query parameters are sorted in the cache key
+   */
+  public boolean isSortQueryParameters() {
+    return sortQueryParameters;
+  }
+
+  /**
+   * Set to {@code true} to sort the query parameters by name in the cache key, so that {@code ?a=1&b=2} and
+   * {@code ?b=2&a=1} share a cache entry. The order of the parameters with the same name is preserved.
+   *
+   * @param sortQueryParameters {@code true} to sort the query parameters
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setSortQueryParameters(boolean sortQueryParameters) {
+    this.sortQueryParameters = sortQueryParameters;
+    return this;
+  }
+
+  /**
+   * @return whether the scheme and the host are lower cased in the cache key
+   */
+  public boolean isLowerCaseHost() {
+    return lowerCaseHost;
+  }
+
+  /**
+   * Set to {@code true} to lower case the scheme and the host in the cache key, they are case insensitive.
+   *
+   * @param lowerCaseHost {@code true} to lower case the host
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setLowerCaseHost(boolean lowerCaseHost) {
+    this.lowerCaseHost = lowerCaseHost;
+    return this;
+  }
+
+  /**
+   * @return the names of the query parameters removed from the cache key
+   */
+  public List<String> getIgnoredQueryParameters() {
+    return ignoredQueryParameters;
+  }
+
+  /**
+   * Set the names of the query parameters removed from the cache key, such as tracking parameters that do not
+   * change the response. A name ending with {@code *} matches the parameters starting with the name, e.g.
+   * {@code utm_*}.
+   *
+   * @param ignoredQueryParameters the parameter names
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setIgnoredQueryParameters(List<String> ignoredQueryParameters) {
+    this.ignoredQueryParameters = Objects.requireNonNull(ignoredQueryParameters);
+    return this;
+  }
+
+  /**
+   * Add the name of a query parameter removed from the cache key, see {@link #setIgnoredQueryParameters(List)}.
+   *
+   * @param name the parameter name
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions addIgnoredQueryParameter(String name) {
+    ignoredQueryParameters.add(Objects.requireNonNull(name));
+    return this;
+  }
+
+  /**
+   * @return the names of the request headers included in the cache key
+   */
+  public List<String> getKeyHeaders() {
+    return keyHeaders;
+  }
+
+  /**
+   * Set the names of the request headers included in the cache key, requests with different values of these
+   * headers never share a cache entry. Unlike {@code Vary}, the headers are selected by the proxy rather than by
+   * the origin.
+   *
+   * @param keyHeaders the header names
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setKeyHeaders(List<String> keyHeaders) {
+    this.keyHeaders = Objects.requireNonNull(keyHeaders);
+    return this;
+  }
+
+  /**
+   * Add the name of a request header included in the cache key, see {@link #setKeyHeaders(List)}.
+   *
+   * @param name the header name
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions addKeyHeader(String name) {
+    keyHeaders.add(Objects.requireNonNull(name));
+    return this;
+  }
+
+  /**
+   * @return the builder of the cache keys replacing the key normalization options
+   */
+  @GenIgnore
+  public CacheKeyBuilder getKeyBuilder() {
+    return keyBuilder;
+  }
+
+  /**
+   * Set the builder of the cache keys, it replaces {@link #setSortQueryParameters(boolean)},
+   * {@link #setIgnoredQueryParameters(List)}, {@link #setLowerCaseHost(boolean)} and {@link #setKeyHeaders(List)}.
+   *
+   * @param keyBuilder the builder or {@code null} to use the key normalization options
+   * @return a reference to this, so the API can be used fluently
+   */
+  @GenIgnore
+  public CacheOptions setKeyBuilder(CacheKeyBuilder keyBuilder) {
+    this.keyBuilder = keyBuilder;
+    return this;
+  }
+
+  /**
+   * @return the max freshness lifetime in milliseconds of the cached {@code 404} and {@code 410} responses
+   */
+  public long getNegativeMaxAge() {
+    return negativeMaxAge;
+  }
+
+  /**
+   * Set the max freshness lifetime in milliseconds of the cached {@code 404 Not Found} and {@code 410 Gone}
+   * responses, so that requests for missing resources are not all forwarded to the origin.
+   *
+   * <p> The responses are cached for this lifetime, or for their explicit lifetime when it is shorter, unless
+   * the origin forbids storing them. They are stored apart from the other resources, within
+   * {@link #getNegativeMaxContentSize()}, so that they cannot evict them.
+   *
+   * @param negativeMaxAge the lifetime in milliseconds or {@code 0} to disable negative caching
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setNegativeMaxAge(long negativeMaxAge) {
+    if (negativeMaxAge < 0) {
+      throw new IllegalArgumentException("Negative max age must be >= 0");
+    }
+    this.negativeMaxAge = negativeMaxAge;
+    return this;
+  }
+
+  /**
+   * @return the max freshness lifetime in milliseconds of the cached {@code 301} and {@code 308} responses
+   */
+  public long getRedirectMaxAge() {
+    return redirectMaxAge;
+  }
+
+  /**
+   * Set the max freshness lifetime in milliseconds of the cached {@code 301 Moved Permanently} and
+   * {@code 308 Permanent Redirect} responses, they are cached like the negative responses, see
+   * {@link #setNegativeMaxAge(long)}.
+   *
+   * @param redirectMaxAge the lifetime in milliseconds or {@code 0} to not cache them apart
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setRedirectMaxAge(long redirectMaxAge) {
+    if (redirectMaxAge < 0) {
+      throw new IllegalArgumentException("Redirect max age must be >= 0");
+    }
+    this.redirectMaxAge = redirectMaxAge;
+    return this;
+  }
+
+  /**
+   * @return the max size in bytes of the cached negative responses and permanent redirects
+   */
+  public long getNegativeMaxContentSize() {
+    return negativeMaxContentSize;
+  }
+
+  /**
+   * Set the max size in bytes of the cached negative responses and permanent redirects, this budget is separate
+   * from {@link #getMaxContentSize()}.
+   *
+   * @param negativeMaxContentSize the max size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheOptions setNegativeMaxContentSize(long negativeMaxContentSize) {
+    if (negativeMaxContentSize <= 0) {
+      throw new IllegalArgumentException("Negative max content size must be > 0");
+    }
+    this.negativeMaxContentSize = negativeMaxContentSize;
+    return this;
+  }
+
   @Override
   public String toString() {
     return toJson().toString();
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+
+package io.vertx.httpproxy.cache;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.json.annotations.JsonGen;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A snapshot of the cache statistics, counters are cumulative since the cache was created.
+ */
+@DataObject
+@JsonGen(publicConverter = false)
+public class CacheStats {
+  private long hitCount;
+  private long missCount;
+  private long revalidationCount;
+  private long notModifiedCount;
+  private long lookupCount;
+  private long lookupTime;
+  private long evictionCount;
+  private long expirationCount;
+  private long size;
+  private long contentSize;
+
+  /**
+   * Default constructor.
+   */
+  public CacheStats() {
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other the stats to copy
+   */
+  public CacheStats(CacheStats other) {
+    this.hitCount = other.getHitCount();
+    this.missCount = other.getMissCount();
+    this.revalidationCount = other.getRevalidationCount();
+    this.notModifiedCount = other.getNotModifiedCount();
+    this.lookupCount = other.getLookupCount();
+    this.lookupTime = other.getLookupTime();
+    this.evictionCount = other.getEvictionCount();
+    this.expirationCount = other.getExpirationCount();
+    this.size = other.getSize();
+    this.contentSize = other.getContentSize();
+  }
+
+  /**
+   * Constructor to create a stats from JSON.
+   *
+   * @param json the JSON
+   */
+  public CacheStats(JsonObject json) {
+    CacheStatsConverter.fromJson(json, this);
+  }
+
+  /**
+   * @return the number of requests served from the cache without contacting the origin
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Set the number of requests served from the cache without contacting the origin.
+   *
+   * @param hitCount the number of hits
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setHitCount(long hitCount) {
+    this.hitCount = hitCount;
+    return this;
+  }
+
+  /**
+   * @return the number of requests forwarded to the origin because the cache had no usable resource
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Set the number of requests forwarded to the origin because the cache had no usable resource.
+   *
+   * @param missCount the number of misses
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setMissCount(long missCount) {
+    this.missCount = missCount;
+    return this;
+  }
+
+  /**
+   * @return the number of requests that revalidated a cached resource with the origin
+   */
+  public long getRevalidationCount() {
+    return revalidationCount;
+  }
+
+  /**
+   * Set the number of requests that revalidated a cached resource with the origin.
+   *
+   * @param revalidationCount the number of revalidations
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setRevalidationCount(long revalidationCount) {
+    this.revalidationCount = revalidationCount;
+    return this;
+  }
+
+  /**
+   * @return the number of revalidations the origin answered with {@code 304}, refreshing the cached resource
+   */
+  public long getNotModifiedCount() {
+    return notModifiedCount;
+  }
+
+  /**
+   * Set the number of revalidations the origin answered with {@code 304}, refreshing the cached resource.
+   *
+   * @param notModifiedCount the number of {@code 304} refreshes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setNotModifiedCount(long notModifiedCount) {
+    this.notModifiedCount = notModifiedCount;
+    return this;
+  }
+
+  /**
+   * @return the number of cache lookups
+   */
+  public long getLookupCount() {
+    return lookupCount;
+  }
+
+  /**
+   * Set the number of cache lookups.
+   *
+   * @param lookupCount the number of lookups
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setLookupCount(long lookupCount) {
+    this.lookupCount = lookupCount;
+    return this;
+  }
+
+  /**
+   * @return the total time in nanoseconds spent in cache lookups
+   */
+  public long getLookupTime() {
+    return lookupTime;
+  }
+
+  /**
+   * Set the total time in nanoseconds spent in cache lookups.
+   *
+   * @param lookupTime the lookup time in nanoseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setLookupTime(long lookupTime) {
+    this.lookupTime = lookupTime;
+    return this;
+  }
+
+  /**
+   * @return the number of resources evicted to keep the cache within its size limits
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Set the number of resources evicted to keep the cache within its size limits.
+   *
+   * @param evictionCount the number of evictions
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setEvictionCount(long evictionCount) {
+    this.evictionCount = evictionCount;
+    return this;
+  }
+
+  /**
+   * @return the number of expired resources removed by the cache
+   */
+  public long getExpirationCount() {
+    return expirationCount;
+  }
+
+  /**
+   * Set the number of expired resources removed by the cache.
+   *
+   * @param expirationCount the number of expirations
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setExpirationCount(long expirationCount) {
+    this.expirationCount = expirationCount;
+    return this;
+  }
+
+  /**
+   * @return the number of resources in the cache
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Set the number of resources in the cache.
+   *
+   * @param size the number of resources
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setSize(long size) {
+    this.size = size;
+    return this;
+  }
+
+  /**
+   * @return the size in bytes of the resources stored in the cache
+   */
+  public long getContentSize() {
+    return contentSize;
+  }
+
+  /**
+   * Set the size in bytes of the resources stored in the cache.
+   *
+   * @param contentSize the size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CacheStats setContentSize(long contentSize) {
+    this.contentSize = contentSize;
+    return this;
+  }
+
+  /**
+   * @return the ratio of the requests served from the cache, between {@code 0} and {@code 1}
+   */
+  public double hitRatio() {
+    long requests = hitCount + missCount + revalidationCount;
+    return requests == 0 ? 0D : (double) hitCount / requests;
+  }
+
+  /**
+   * @return the average time in nanoseconds of a cache lookup
+   */
+  public double averageLookupTime() {
+    return lookupCount == 0 ? 0D : (double) lookupTime / lookupCount;
+  }
+
+  @Override
+  public String toString() {
+    return toJson().toString();
+  }
+
+  /**
+   * Convert to JSON.
+   *
+   * @return the JSON
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    CacheStatsConverter.toJson(this, json);
+    return json;
+  }
+}
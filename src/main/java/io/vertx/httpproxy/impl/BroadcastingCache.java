@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Closeable;
+import io.vertx.core.Completable;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.cache.CacheStats;
+import io.vertx.httpproxy.spi.cache.Cache;
+import io.vertx.httpproxy.spi.cache.Resource;
+import io.vertx.httpproxy.spi.cache.StreamedResource;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A cache broadcasting its removals on the event bus to the caches of the other proxies, see
+ * {@link CacheOptions#getInvalidationAddress()}.
+ *
+ * <p> Lookups and stores wait until the removals of the other proxies are received, removals are broadcast once
+ * applied to the cache.
+ */
+public class BroadcastingCache implements Cache, Closeable {
+
+  private final Cache cache;
+  private final CacheInvalidator invalidator;
+
+  public BroadcastingCache(Vertx vertx, Cache cache, CacheOptions options) {
+    this.cache = cache;
+    this.invalidator = new CacheInvalidator(vertx, options.getInvalidationAddress(), options.getInvalidationBatchDelay(), cache);
+  }
+
+  /**
+   * @return the future completed when the removals of the other proxies are received
+   */
+  public Future<Void> ready() {
+    return invalidator.ready();
+  }
+
+  @Override
+  public void close(Completable<Void> completion) {
+    invalidator.close(completion);
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource value) {
+    return ready().compose(v -> cache.put(key, value));
+  }
+
+  @Override
+  public Future<Resource> get(String key) {
+    return ready().compose(v -> cache.get(key));
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource metadata, ReadStream<Buffer> body, long length) {
+    return ready().compose(v -> cache.put(key, metadata, body, length));
+  }
+
+  @Override
+  public Future<StreamedResource> getStream(String key) {
+    return ready().compose(v -> cache.getStream(key));
+  }
+
+  @Override
+  public Future<Map<String, Resource>> getAll(Collection<String> keys) {
+    return ready().compose(v -> cache.getAll(keys));
+  }
+
+  @Override
+  public Future<Void> remove(String key) {
+    return cache.remove(key).andThen(ar -> invalidator.invalidateKey(key));
+  }
+
+  @Override
+  public Future<Void> removeAll(Collection<String> keys) {
+    return cache.removeAll(keys).andThen(ar -> {
+      for (String key : keys) {
+        invalidator.invalidateKey(key);
+      }
+    });
+  }
+
+  @Override
+  public Future<Set<String>> removeByTag(String tag) {
+    return cache.removeByTag(tag).andThen(ar -> invalidator.invalidateTag(tag));
+  }
+
+  @Override
+  public Future<Integer> removeByPrefix(String prefix) {
+    return cache.removeByPrefix(prefix).andThen(ar -> invalidator.invalidatePrefix(prefix));
+  }
+
+  @Override
+  public Future<List<String>> keys(String prefix, int limit) {
+    return cache.keys(prefix, limit);
+  }
+
+  @Override
+  public CacheStats stats() {
+    return cache.stats();
+  }
+}
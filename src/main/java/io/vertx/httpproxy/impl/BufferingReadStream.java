@@ -17,12 +17,29 @@ import io.vertx.core.streams.ReadStream;
 class BufferingReadStream implements ReadStream<Buffer> {
 
   private final ReadStream<Buffer> stream;
-  private final Buffer content;
+  private final long maxLength;
+  private Buffer content;
   private Handler<Void> endHandler;
 
   public BufferingReadStream(ReadStream<Buffer> stream, Buffer content) {
+    this(stream, content, -1L);
+  }
+
+  /**
+   * @param maxLength the max number of bytes to buffer, when the stream exceeds it buffering stops and
+   *                  the buffered content is discarded, {@code -1} means unbounded
+   */
+  public BufferingReadStream(ReadStream<Buffer> stream, Buffer content, long maxLength) {
     this.stream = stream;
     this.content = content;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * @return whether the stream exceeded the max length, in which case the content is incomplete
+   */
+  public boolean overflow() {
+    return content == null;
   }
 
   @Override
@@ -35,7 +52,13 @@ class BufferingReadStream implements ReadStream<Buffer> {
   public ReadStream<Buffer> handler(Handler<Buffer> handler) {
     if (handler != null) {
       stream.handler(buff -> {
-        content.appendBuffer(buff);
+        if (content != null) {
+          if (maxLength >= 0 && content.length() + buff.length() > maxLength) {
+            content = null;
+          } else {
+            content.appendBuffer(buff);
+          }
+        }
         handler.handle(buff);
       });
     } else {
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import java.util.Arrays;
+
+/**
+ * Parse the byte ranges of a {@code Range} header and the {@code Content-Range} header of a partial response.
+ *
+ * <p> See <a href="https://www.rfc-editor.org/rfc/rfc9110#name-range-requests">RFC 9110</a>.
+ */
+public final class ByteRanges {
+
+  /**
+   * Max number of ranges of a request, requests with more ranges are served the full representation.
+   */
+  static final int MAX_RANGES = 16;
+
+  private static final long[] UNSATISFIABLE = new long[0];
+
+  private ByteRanges() {
+  }
+
+  /**
+   * Parse the ranges of a {@code Range} header against a representation of {@code length} bytes.
+   *
+   * @return the satisfiable ranges as consecutive pairs of first and last byte positions (inclusive),
+   *         an empty array when no range is satisfiable or {@code null} when the header is invalid
+   *         and must be ignored
+   */
+  public static long[] parse(String header, long length) {
+    if (header.length() < 6 || !header.regionMatches(true, 0, "bytes=", 0, 6)) {
+      return null;
+    }
+    long[] ranges = new long[4];
+    int count = 0;
+    int specs = 0;
+    int from = 6;
+    int len = header.length();
+    while (from <= len) {
+      int to = header.indexOf(',', from);
+      if (to == -1) {
+        to = len;
+      }
+      String spec = header.substring(from, to).trim();
+      from = to + 1;
+      if (spec.isEmpty()) {
+        continue;
+      }
+      if (++specs > MAX_RANGES) {
+        return null;
+      }
+      int dash = spec.indexOf('-');
+      if (dash == -1) {
+        return null;
+      }
+      long first;
+      long last;
+      try {
+        if (dash == 0) {
+          long suffix = Long.parseLong(spec.substring(1));
+          if (suffix < 0) {
+            return null;
+          }
+          if (suffix == 0 || length == 0) {
+            continue;
+          }
+          first = Math.max(0, length - suffix);
+          last = length - 1;
+        } else {
+          first = Long.parseLong(spec.substring(0, dash));
+          last = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+          if (first < 0 || last < first) {
+            return null;
+          }
+          if (first >= length) {
+            continue;
+          }
+          last = Math.min(last, length - 1);
+        }
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      if (count == ranges.length) {
+        ranges = Arrays.copyOf(ranges, count * 2);
+      }
+      ranges[count++] = first;
+      ranges[count++] = last;
+    }
+    if (specs == 0) {
+      return null;
+    }
+    return count == 0 ? UNSATISFIABLE : Arrays.copyOf(ranges, count);
+  }
+
+  /**
+   * Parse the {@code Content-Range} header of a partial response.
+   *
+   * @return the first and last byte positions (inclusive) and the complete length, {@code -1} when it is unknown,
+   *         or {@code null} when the header is missing or invalid
+   */
+  public static long[] parseContentRange(String header) {
+    if (header == null || header.length() < 6 || !header.regionMatches(true, 0, "bytes ", 0, 6)) {
+      return null;
+    }
+    int dash = header.indexOf('-', 6);
+    int slash = header.indexOf('/', 6);
+    if (dash == -1 || slash == -1 || dash > slash) {
+      return null;
+    }
+    try {
+      long first = Long.parseLong(header.substring(6, dash).trim());
+      long last = Long.parseLong(header.substring(dash + 1, slash).trim());
+      String length = header.substring(slash + 1).trim();
+      long total = length.equals("*") ? -1L : Long.parseLong(length);
+      if (first < 0 || last < first || (total >= 0 && last >= total)) {
+        return null;
+      }
+      return new long[] { first, last, total };
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -11,40 +11,264 @@
 package io.vertx.httpproxy.impl;
 
 /**
+ * The directives of a {@code Cache-Control} header, see <a href="https://www.rfc-editor.org/rfc/rfc9111#section-5.2">RFC 9111</a>.
+ *
+ * <p> The header is parsed in a single pass without allocating, directive names are case-insensitive, arguments
+ * can be quoted and invalid delta-seconds are ignored. Directives with a field-name list such as
+ * {@code private="set-cookie"} apply to the whole response.
+ *
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
 public class CacheControl {
 
-  private int maxAge;
+  private int maxAge = -1;
+  private int sMaxAge = -1;
+  private int staleWhileRevalidate = -1;
+  private int staleIfError = -1;
+  private int maxStale = -1;
+  private int minFresh = -1;
   private boolean _public;
+  private boolean _private;
+  private boolean noStore;
+  private boolean noCache;
+  private boolean mustRevalidate;
+  private boolean proxyRevalidate;
+  private boolean immutable;
+  private boolean onlyIfCached;
 
-  public CacheControl parse(String header) {
+  public CacheControl parse(CharSequence header) {
     maxAge = -1;
+    sMaxAge = -1;
+    staleWhileRevalidate = -1;
+    staleIfError = -1;
+    maxStale = -1;
+    minFresh = -1;
     _public = false;
-    String[] parts = header.split(","); // No regex
-    for (String part : parts) {
-      part = part.trim().toLowerCase();
-      switch (part) {
-        case "public":
-          _public = true;
-          break;
-        default:
-          if (part.startsWith("max-age=")) {
-            maxAge = Integer.parseInt(part.substring(8));
-
+    _private = false;
+    noStore = false;
+    noCache = false;
+    mustRevalidate = false;
+    proxyRevalidate = false;
+    immutable = false;
+    onlyIfCached = false;
+    int len = header.length();
+    int i = 0;
+    while (i < len) {
+      char c = header.charAt(i);
+      if (c == ',' || c == ' ' || c == '\t') {
+        i++;
+        continue;
+      }
+      int nameStart = i;
+      while (i < len && (c = header.charAt(i)) != '=' && c != ',' && c != ' ' && c != '\t') {
+        i++;
+      }
+      int nameEnd = i;
+      i = skipWhitespace(header, i);
+      int valueStart = -1;
+      int valueEnd = -1;
+      if (i < len && header.charAt(i) == '=') {
+        i = skipWhitespace(header, i + 1);
+        if (i < len && header.charAt(i) == '"') {
+          valueStart = ++i;
+          while (i < len && (c = header.charAt(i)) != '"') {
+            i += c == '\\' ? 2 : 1;
+          }
+          valueEnd = Math.min(i, len);
+        } else {
+          valueStart = i;
+          while (i < len && (c = header.charAt(i)) != ',' && c != ' ' && c != '\t') {
+            i++;
           }
-          break;
+          valueEnd = i;
+        }
       }
+      while (i < len && header.charAt(i) != ',') {
+        i++;
+      }
+      directive(header, nameStart, nameEnd, valueStart, valueEnd);
     }
     return this;
   }
 
+  private void directive(CharSequence header, int start, int end, int valueStart, int valueEnd) {
+    switch (end - start) {
+      case 6:
+        if (is(header, start, "public")) {
+          _public = true;
+        }
+        break;
+      case 7:
+        if (is(header, start, "max-age")) {
+          maxAge = seconds(header, valueStart, valueEnd);
+        } else if (is(header, start, "private")) {
+          _private = true;
+        }
+        break;
+      case 8:
+        if (is(header, start, "s-maxage")) {
+          sMaxAge = seconds(header, valueStart, valueEnd);
+        } else if (is(header, start, "no-store")) {
+          noStore = true;
+        } else if (is(header, start, "no-cache")) {
+          noCache = true;
+        }
+        break;
+      case 9:
+        if (is(header, start, "immutable")) {
+          immutable = true;
+        } else if (is(header, start, "max-stale")) {
+          // Without argument any staleness is accepted
+          maxStale = valueStart == -1 ? Integer.MAX_VALUE : seconds(header, valueStart, valueEnd);
+        } else if (is(header, start, "min-fresh")) {
+          minFresh = seconds(header, valueStart, valueEnd);
+        }
+        break;
+      case 14:
+        if (is(header, start, "stale-if-error")) {
+          staleIfError = seconds(header, valueStart, valueEnd);
+        } else if (is(header, start, "only-if-cached")) {
+          onlyIfCached = true;
+        }
+        break;
+      case 15:
+        if (is(header, start, "must-revalidate")) {
+          mustRevalidate = true;
+        }
+        break;
+      case 16:
+        if (is(header, start, "proxy-revalidate")) {
+          proxyRevalidate = true;
+        }
+        break;
+      case 22:
+        if (is(header, start, "stale-while-revalidate")) {
+          staleWhileRevalidate = seconds(header, valueStart, valueEnd);
+        }
+        break;
+    }
+  }
+
+  private static int skipWhitespace(CharSequence header, int i) {
+    int len = header.length();
+    char c;
+    while (i < len && ((c = header.charAt(i)) == ' ' || c == '\t')) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Case-insensitive match of a lower case directive name.
+   */
+  private static boolean is(CharSequence header, int start, String name) {
+    for (int i = 0; i < name.length(); i++) {
+      char c = header.charAt(start + i);
+      if (c >= 'A' && c <= 'Z') {
+        c += 'a' - 'A';
+      }
+      if (c != name.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parse delta-seconds, values that do not fit an int are capped to {@link Integer#MAX_VALUE}.
+   *
+   * @return the value or {@code -1} when invalid
+   */
+  private static int seconds(CharSequence header, int start, int end) {
+    if (start < 0 || start == end) {
+      return -1;
+    }
+    long value = 0;
+    for (int i = start; i < end; i++) {
+      char c = header.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = Math.min(value * 10 + (c - '0'), Integer.MAX_VALUE);
+    }
+    return (int) value;
+  }
+
   public int maxAge() {
     return maxAge;
   }
 
+  public int sMaxAge() {
+    return sMaxAge;
+  }
+
+  public int staleWhileRevalidate() {
+    return staleWhileRevalidate;
+  }
+
+  public int staleIfError() {
+    return staleIfError;
+  }
+
+  public int maxStale() {
+    return maxStale;
+  }
+
+  public int minFresh() {
+    return minFresh;
+  }
+
   public boolean isPublic() {
     return _public;
   }
 
+  public boolean isPrivate() {
+    return _private;
+  }
+
+  public boolean isNoStore() {
+    return noStore;
+  }
+
+  public boolean isNoCache() {
+    return noCache;
+  }
+
+  public boolean isMustRevalidate() {
+    return mustRevalidate;
+  }
+
+  public boolean isProxyRevalidate() {
+    return proxyRevalidate;
+  }
+
+  public boolean isImmutable() {
+    return immutable;
+  }
+
+  public boolean isOnlyIfCached() {
+    return onlyIfCached;
+  }
+
+  /**
+   * @return the freshness lifetime in seconds for a shared cache, {@code s-maxage} takes precedence over
+   *         {@code max-age}, {@code -1} when none is present
+   */
+  public int sharedMaxAge() {
+    return sMaxAge >= 0 ? sMaxAge : maxAge;
+  }
+
+  /**
+   * @return whether a shared cache can store the response
+   */
+  public boolean isStorable() {
+    return !noStore && !noCache && !_private;
+  }
+
+  /**
+   * @return whether a shared cache must not serve the response when it is stale
+   */
+  public boolean isRevalidationRequired() {
+    return mustRevalidate || proxyRevalidate || sMaxAge >= 0;
+  }
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.httpproxy.spi.cache.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A resource being filled from an origin response, requests arriving during the fill attach a {@link #reader} and
+ * stream the content as it arrives instead of going to the origin.
+ *
+ * <p> The chunks of the origin response are retained until the fill completes, each reader emits them on its own
+ * context at the pace of its client.
+ */
+class CacheFill {
+
+  private final Resource resource;
+  private final long length;
+  private final List<Buffer> chunks = new ArrayList<>();
+  private final List<Reader> readers = new ArrayList<>();
+  private boolean completed;
+  private Throwable failure;
+
+  /**
+   * @param resource the resource being filled
+   * @param length the length of the content, or {@code -1} when unknown
+   */
+  CacheFill(Resource resource, long length) {
+    this.resource = resource;
+    this.length = length;
+  }
+
+  Resource resource() {
+    return resource;
+  }
+
+  long length() {
+    return length;
+  }
+
+  /**
+   * @return a stream that retains the chunks of {@code stream} for the readers and completes the fill when it ends
+   */
+  ReadStream<Buffer> tee(ReadStream<Buffer> stream) {
+    return new ReadStream<>() {
+      @Override
+      public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+        stream.exceptionHandler(err -> {
+          fail(err);
+          if (handler != null) {
+            handler.handle(err);
+          }
+        });
+        return this;
+      }
+      @Override
+      public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+        if (handler != null) {
+          stream.handler(chunk -> {
+            append(chunk);
+            handler.handle(chunk);
+          });
+        } else {
+          stream.handler(null);
+        }
+        return this;
+      }
+      @Override
+      public ReadStream<Buffer> pause() {
+        stream.pause();
+        return this;
+      }
+      @Override
+      public ReadStream<Buffer> resume() {
+        stream.resume();
+        return this;
+      }
+      @Override
+      public ReadStream<Buffer> fetch(long amount) {
+        stream.fetch(amount);
+        return this;
+      }
+      @Override
+      public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+        stream.endHandler(v -> {
+          complete();
+          if (endHandler != null) {
+            endHandler.handle(null);
+          }
+        });
+        return this;
+      }
+    };
+  }
+
+  /**
+   * Create a reader of the content, the reader emits on the given context.
+   */
+  synchronized ReadStream<Buffer> reader(ContextInternal context) {
+    Reader reader = new Reader(context);
+    if (!completed && failure == null) {
+      readers.add(reader);
+    }
+    return reader;
+  }
+
+  private void append(Buffer chunk) {
+    List<Reader> toSignal;
+    synchronized (this) {
+      if (completed || failure != null) {
+        return;
+      }
+      chunks.add(chunk);
+      toSignal = new ArrayList<>(readers);
+    }
+    signal(toSignal);
+  }
+
+  void complete() {
+    List<Reader> toSignal;
+    synchronized (this) {
+      if (completed || failure != null) {
+        return;
+      }
+      completed = true;
+      toSignal = new ArrayList<>(readers);
+      readers.clear();
+    }
+    signal(toSignal);
+  }
+
+  void fail(Throwable cause) {
+    List<Reader> toSignal;
+    synchronized (this) {
+      if (completed || failure != null) {
+        return;
+      }
+      failure = cause;
+      toSignal = new ArrayList<>(readers);
+      readers.clear();
+    }
+    signal(toSignal);
+  }
+
+  private static void signal(List<Reader> readers) {
+    for (Reader reader : readers) {
+      reader.context.runOnContext(v -> reader.drain());
+    }
+  }
+
+  private class Reader implements ReadStream<Buffer> {
+
+    private final ContextInternal context;
+    private int index;
+    private long demand = Long.MAX_VALUE;
+    private boolean ended;
+    private Handler<Buffer> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+
+    Reader(ContextInternal context) {
+      this.context = context;
+    }
+
+    @Override
+    public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+      exceptionHandler = handler;
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+      this.handler = handler;
+      drain();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> pause() {
+      demand = 0L;
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> resume() {
+      return fetch(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ReadStream<Buffer> fetch(long amount) {
+      demand += amount;
+      if (demand < 0L) {
+        demand = Long.MAX_VALUE;
+      }
+      drain();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      return this;
+    }
+
+    private void drain() {
+      while (!ended && handler != null && demand > 0L) {
+        Buffer chunk = null;
+        boolean end;
+        Throwable err;
+        synchronized (CacheFill.this) {
+          if (index < chunks.size()) {
+            chunk = chunks.get(index++);
+          }
+          end = completed;
+          err = failure;
+        }
+        if (chunk != null) {
+          if (demand != Long.MAX_VALUE) {
+            demand--;
+          }
+          handler.handle(chunk);
+        } else if (end) {
+          ended = true;
+          Handler<Void> h = endHandler;
+          if (h != null) {
+            h.handle(null);
+          }
+        } else {
+          if (err != null) {
+            ended = true;
+            Handler<Throwable> h = exceptionHandler;
+            if (h != null) {
+              h.handle(err);
+            }
+          }
+          return;
+        }
+      }
+    }
+  }
+}
@@ -1,46 +1,815 @@
 package io.vertx.httpproxy.impl;
 
+import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.cache.CacheStats;
 import io.vertx.httpproxy.spi.cache.Cache;
 import io.vertx.httpproxy.spi.cache.Resource;
+import io.vertx.httpproxy.spi.cache.StreamedResource;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
- * Simplistic implementation.
+ * Local cache implementation using a W-TinyLFU policy.
+ *
+ * <ul>
+ *   <li>new resources enter a small LRU admission window</li>
+ *   <li>resources leaving the window compete with the least recently used resource of the main segmented LRU,
+ *   the resource with the highest estimated frequency is retained</li>
+ *   <li>the main region is split in a probation segment and a protected segment for resources accessed more than once</li>
+ * </ul>
+ *
+ * <p> Lookups do not take locks, accesses are recorded in striped lossy buffers and replayed on the policy
+ * by the thread that holds the eviction lock. Mutations acquire the eviction lock.
+ *
+ * <p> Resources are also scheduled on a hierarchical timing wheel at the end of their stale windows,
+ * {@link #expire(long, int)} reclaims them in bounded batches even when they are not looked up anymore.
+ *
+ * <p> The surrogate keys of the resources are indexed, {@link #removeByTag(String)} visits only the tagged resources.
+ * The keys are also kept in order so that {@link #removeByPrefix(String)} visits only the matching resources, the
+ * removal is performed in batches yielding to the event loop.
+ *
+ * <p> When {@link CacheOptions#isOffHeap()} is set, contents are copied to pooled direct memory and lookups
+ * return leases that must be released with {@link OffHeapResource#release(Resource)} once the response is sent.
  */
 public class CacheImpl implements Cache {
 
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+  private static final int DEAD = 3;
+
+  /**
+   * Interval in milliseconds between two expiration sweeps.
+   */
+  static final long SWEEP_INTERVAL = 1000L;
+
+  /**
+   * Max number of resources visited by a sweep batch.
+   */
+  static final int SWEEP_BATCH_SIZE = 1024;
+
+  /**
+   * Max number of resources removed by a prefix purge batch.
+   */
+  static final int PURGE_BATCH_SIZE = 1024;
+
+  private static final int READ_BUFFER_SIZE = 16;
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+  private static final int READ_BUFFER_STRIPES = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 1) * 2 - 1) << 1;
+
   private final int maxSize;
-  private final Map<String, Resource> data;
+  private final long maxContentSize;
+  private final long maxResourceSize;
+  private final long maximum;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+  private final boolean offHeap;
+  private final long staleIfError;
+
+  private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+  // Updated under evictionLock, read without lock
+  private final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<>();
+  private final ReadBuffer[] readBuffers;
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  // Guarded by evictionLock
+  private final FrequencySketch sketch;
+  private final AccessOrderDeque window = new AccessOrderDeque();
+  private final AccessOrderDeque probation = new AccessOrderDeque();
+  private final AccessOrderDeque protectedSegment = new AccessOrderDeque();
+  private final TimerWheel timerWheel = new TimerWheel(System.currentTimeMillis());
+  private final HashMap<String, Set<Node>> tagIndex = new HashMap<>();
+  private long windowWeight;
+  private long protectedWeight;
+  private long weightedSize;
+  private long contentSize;
+  private int size;
+  private long evictionCount;
+  private long expirationCount;
 
   public CacheImpl(CacheOptions options) {
     this.maxSize = options.getMaxSize();
-    this.data = Collections.synchronizedMap(new LinkedHashMap<>() {
-      @Override
-      protected boolean removeEldestEntry(Map.Entry<String, Resource> eldest) {
-        return size() > maxSize;
-      }
-    });
+    this.maxContentSize = options.getMaxContentSize();
+    this.maxResourceSize = options.getMaxResourceSize();
+    this.maximum = maxContentSize >= 0 ? maxContentSize : maxSize;
+    this.windowMaximum = Math.max(1L, maximum / 100);
+    this.protectedMaximum = (long) ((maximum - windowMaximum) * 0.8);
+    this.offHeap = options.isOffHeap();
+    this.staleIfError = options.getStaleIfError();
+    this.sketch = new FrequencySketch(maxSize);
+    this.readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    for (int i = 0; i < readBuffers.length; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
   }
 
-
   @Override
   public Future<Void> put(String key, Resource value) {
-    data.put(key, value);
+    long resourceSize = value.size();
+    long expiresAt = expiresAt(value);
+    boolean tooLarge = (maxResourceSize >= 0 && resourceSize > maxResourceSize) || (maxContentSize >= 0 && resourceSize > maxContentSize);
+    if (offHeap && !tooLarge) {
+      // Copy outside of the lock
+      value = OffHeapResource.copyOf(value);
+    }
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      if (tooLarge) {
+        Node previous = data.remove(key);
+        if (previous != null) {
+          unlink(previous);
+        }
+        return Future.succeededFuture();
+      }
+      long weight = maxContentSize >= 0 ? resourceSize : 1L;
+      Node node = data.get(key);
+      if (node != null) {
+        OffHeapResource.release(node.value);
+        node.value = value;
+        untag(node);
+        tag(node, value.getTags());
+        timerWheel.reschedule(node, expiresAt);
+        long delta = weight - node.weight;
+        node.weight = weight;
+        weightedSize += delta;
+        contentSize += resourceSize - node.size;
+        node.size = resourceSize;
+        if (node.queue == WINDOW) {
+          windowWeight += delta;
+        } else if (node.queue == PROTECTED) {
+          protectedWeight += delta;
+        }
+        onAccess(node);
+      } else {
+        node = new Node(key, value, weight, resourceSize);
+        data.put(key, node);
+        keys.add(key);
+        tag(node, value.getTags());
+        timerWheel.reschedule(node, expiresAt);
+        window.addLast(node);
+        windowWeight += weight;
+        weightedSize += weight;
+        contentSize += resourceSize;
+        size++;
+        sketch.increment(node.hash);
+      }
+      evict();
+    } finally {
+      evictionLock.unlock();
+    }
     return Future.succeededFuture();
   }
 
   @Override
   public Future<Resource> get(String key) {
-    return Future.succeededFuture(data.get(key));
+    Node node = data.get(key);
+    if (node == null) {
+      return Future.succeededFuture();
+    }
+    Resource value = node.value;
+    if (offHeap) {
+      value = OffHeapResource.lease(value);
+      if (value == null) {
+        // Replaced or evicted concurrently
+        return Future.succeededFuture();
+      }
+    }
+    ReadBuffer buffer = readBuffers[Thread.currentThread().hashCode() & (readBuffers.length - 1)];
+    if (!buffer.offer(node)) {
+      tryDrainReadBuffers();
+    }
+    return Future.succeededFuture(value);
+  }
+
+  @Override
+  public Future<StreamedResource> getStream(String key) {
+    if (!offHeap) {
+      return Cache.super.getStream(key);
+    }
+    return get(key).map(resource -> {
+      if (resource == null) {
+        return null;
+      }
+      // The content is copied to the heap, the lease ends before the stream is read
+      Buffer content = resource.getContent().copy();
+      OffHeapResource.release(resource);
+      resource.setContent(content);
+      return new StreamedResource(resource, content.length(), () -> Future.succeededFuture(new BufferedReadStream(content)));
+    });
   }
 
   @Override
   public Future<Void> remove(String key) {
-    data.remove(key);
+    evictionLock.lock();
+    try {
+      Node node = data.remove(key);
+      if (node != null) {
+        unlink(node);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+    return Future.succeededFuture();
+  }
+
+  @Override
+  public Future<Void> removeAll(Collection<String> keys) {
+    evictionLock.lock();
+    try {
+      for (String key : keys) {
+        Node node = data.remove(key);
+        if (node != null) {
+          unlink(node);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
     return Future.succeededFuture();
   }
 
+  @Override
+  public Future<Set<String>> removeByTag(String tag) {
+    Set<String> removed = new LinkedHashSet<>();
+    evictionLock.lock();
+    try {
+      Set<Node> nodes = tagIndex.get(tag);
+      if (nodes != null) {
+        for (Node node : new ArrayList<>(nodes)) {
+          removed.add(node.key);
+          evictNode(node);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+    return Future.succeededFuture(removed);
+  }
+
+  @Override
+  public Future<Integer> removeByPrefix(String prefix) {
+    Promise<Integer> promise = Promise.promise();
+    removeByPrefix(prefix, Vertx.currentContext(), 0, promise);
+    return promise.future();
+  }
+
+  private void removeByPrefix(String prefix, Context context, int removed, Promise<Integer> promise) {
+    while (true) {
+      int batch = removeByPrefix(prefix, PURGE_BATCH_SIZE);
+      removed += batch;
+      if (batch < PURGE_BATCH_SIZE) {
+        promise.complete(removed);
+        return;
+      }
+      if (context != null) {
+        // More resources may match, yield to the event loop before the next batch
+        int total = removed;
+        context.runOnContext(v -> removeByPrefix(prefix, context, total, promise));
+        return;
+      }
+    }
+  }
+
+  /**
+   * Remove at most {@code max} resources which keys start with {@code prefix}.
+   *
+   * @return the number of removed resources, when it is {@code max} more resources may match
+   */
+  int removeByPrefix(String prefix, int max) {
+    evictionLock.lock();
+    try {
+      int removed = 0;
+      for (String key : keys.tailSet(prefix)) {
+        if (removed == max || !key.startsWith(prefix)) {
+          break;
+        }
+        Node node = data.remove(key);
+        if (node != null) {
+          unlink(node);
+          removed++;
+        }
+      }
+      return removed;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Future<List<String>> keys(String prefix, int limit) {
+    List<String> list = new ArrayList<>();
+    for (String key : keys.tailSet(prefix)) {
+      if (list.size() == limit || !key.startsWith(prefix)) {
+        break;
+      }
+      list.add(key);
+    }
+    return Future.succeededFuture(list);
+  }
+
+  @Override
+  public CacheStats stats() {
+    evictionLock.lock();
+    try {
+      return new CacheStats()
+        .setEvictionCount(evictionCount)
+        .setExpirationCount(expirationCount)
+        .setSize(size)
+        .setContentSize(contentSize);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Expire the resources which stale windows ended before {@code now}, at most {@code max} scheduled resources
+   * are visited so that a sweep does not stall the calling thread, the following sweep resumes the work.
+   *
+   * @return the number of visited resources, when it is {@code max} more resources may be due
+   */
+  public int expire(long now, int max) {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      return timerWheel.advance(now, max, this::expireNode);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * @return the time after which the resource cannot be served anymore, even stale
+   */
+  long expiresAt(Resource resource) {
+    if (CachingFilter.isVariantIndex(resource)) {
+      return Long.MAX_VALUE;
+    }
+    long staleIfError = this.staleIfError >= 0 ? this.staleIfError : resource.getStaleIfError();
+    return resource.getTimestamp() + resource.getMaxAge() + Math.max(resource.getStaleWhileRevalidate(), staleIfError);
+  }
+
+  /**
+   * Apply the action to the cached resources, without recording accesses. Resources stored off-heap are leased
+   * for the duration of the action.
+   */
+  void forEach(BiConsumer<String, Resource> action) {
+    for (Node node : data.values()) {
+      Resource value = node.value;
+      if (offHeap) {
+        value = OffHeapResource.lease(value);
+        if (value == null) {
+          continue;
+        }
+      }
+      try {
+        action.accept(node.key, value);
+      } finally {
+        if (offHeap) {
+          OffHeapResource.release(value);
+        }
+      }
+    }
+  }
+
+  private void tryDrainReadBuffers() {
+    if (evictionLock.tryLock()) {
+      try {
+        drainReadBuffers();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  private void drainReadBuffers() {
+    for (ReadBuffer buffer : readBuffers) {
+      buffer.drainTo(this);
+    }
+  }
+
+  private void onAccess(Node node) {
+    sketch.increment(node.hash);
+    switch (node.queue) {
+      case WINDOW:
+        window.moveToBack(node);
+        break;
+      case PROBATION:
+        probation.remove(node);
+        protectedSegment.addLast(node);
+        node.queue = PROTECTED;
+        protectedWeight += node.weight;
+        demoteFromProtected();
+        break;
+      case PROTECTED:
+        protectedSegment.moveToBack(node);
+        break;
+      default:
+        // Evicted or removed concurrently
+        break;
+    }
+  }
+
+  private void demoteFromProtected() {
+    while (protectedWeight > protectedMaximum) {
+      Node demoted = protectedSegment.peekFirst();
+      if (demoted == null) {
+        break;
+      }
+      protectedSegment.remove(demoted);
+      protectedWeight -= demoted.weight;
+      probation.addLast(demoted);
+      demoted.queue = PROBATION;
+    }
+  }
+
+  private void evict() {
+    Node candidate = evictFromWindow();
+    while (weightedSize > maximum || size > maxSize) {
+      Node victim = probation.peekFirst();
+      if (victim == null) {
+        victim = protectedSegment.peekFirst();
+        if (victim == null) {
+          victim = window.peekFirst();
+        }
+        if (victim == null) {
+          break;
+        }
+      }
+      if (candidate == null || candidate == victim) {
+        if (candidate == victim) {
+          candidate = candidate.next;
+        }
+        evictNode(victim);
+      } else if (admit(candidate, victim)) {
+        evictNode(victim);
+      } else {
+        Node evicted = candidate;
+        candidate = candidate.next;
+        evictNode(evicted);
+      }
+      evictionCount++;
+    }
+  }
+
+  /**
+   * Move the resources exceeding the window capacity to the probation segment.
+   *
+   * @return the first resource moved, the resources following it in the probation segment are candidates for admission
+   */
+  private Node evictFromWindow() {
+    Node first = null;
+    while (windowWeight > windowMaximum) {
+      Node node = window.peekFirst();
+      if (node == null) {
+        break;
+      }
+      window.remove(node);
+      windowWeight -= node.weight;
+      probation.addLast(node);
+      node.queue = PROBATION;
+      if (first == null) {
+        first = node;
+      }
+    }
+    return first;
+  }
+
+  private boolean admit(Node candidate, Node victim) {
+    int candidateFrequency = sketch.frequency(candidate.hash);
+    int victimFrequency = sketch.frequency(victim.hash);
+    if (candidateFrequency > victimFrequency) {
+      return true;
+    } else if (candidateFrequency <= 5) {
+      return false;
+    }
+    // Randomly admit warm candidates, so an attacker cannot pin the victim by raising its frequency
+    return (ThreadLocalRandom.current().nextInt() & 127) == 0;
+  }
+
+  private void expireNode(Node node) {
+    expirationCount++;
+    evictNode(node);
+  }
+
+  private void evictNode(Node node) {
+    data.remove(node.key, node);
+    unlink(node);
+  }
+
+  private void unlink(Node node) {
+    switch (node.queue) {
+      case WINDOW:
+        window.remove(node);
+        windowWeight -= node.weight;
+        break;
+      case PROBATION:
+        probation.remove(node);
+        break;
+      case PROTECTED:
+        protectedSegment.remove(node);
+        protectedWeight -= node.weight;
+        break;
+      default:
+        return;
+    }
+    node.queue = DEAD;
+    keys.remove(node.key);
+    untag(node);
+    timerWheel.deschedule(node);
+    weightedSize -= node.weight;
+    contentSize -= node.size;
+    size--;
+    OffHeapResource.release(node.value);
+  }
+
+  private void tag(Node node, String tags) {
+    if (tags == null) {
+      return;
+    }
+    node.tags = tags.split(" ");
+    for (String tag : node.tags) {
+      tagIndex.computeIfAbsent(tag, t -> new HashSet<>()).add(node);
+    }
+  }
+
+  private void untag(Node node) {
+    if (node.tags == null) {
+      return;
+    }
+    for (String tag : node.tags) {
+      Set<Node> nodes = tagIndex.get(tag);
+      if (nodes != null && nodes.remove(node) && nodes.isEmpty()) {
+        tagIndex.remove(tag);
+      }
+    }
+    node.tags = null;
+  }
+
+  private static class Node {
+
+    final String key;
+    final int hash;
+    volatile Resource value;
+    long weight;
+    long size;
+    int queue;
+    Node prev;
+    Node next;
+    long expiresAt;
+    String[] tags;
+    Node wheelPrev;
+    Node wheelNext;
+
+    // Timing wheel bucket sentinel
+    Node() {
+      this.key = null;
+      this.hash = 0;
+      this.wheelPrev = this;
+      this.wheelNext = this;
+    }
+
+    Node(String key, Resource value, long weight, long size) {
+      this.key = key;
+      this.hash = key.hashCode();
+      this.value = value;
+      this.weight = weight;
+      this.size = size;
+      this.queue = WINDOW;
+    }
+  }
+
+  /**
+   * A hierarchical timing wheel of nodes ordered by expiration time.
+   *
+   * <p> Each level is a ring of buckets covering a span of time, a node is placed in the finest level whose span
+   * covers its remaining time. When time advances the elapsed buckets are visited, nodes that are due are expired
+   * and the other nodes cascade to a finer level.
+   */
+  private static class TimerWheel {
+
+    // ~1s, ~1m, ~1h, ~1.5d, ~6d
+    private static final int[] SHIFTS = { 10, 16, 22, 27, 29 };
+    private static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+
+    private final Node[][] wheel;
+    private final long[] cursors;
+    private long time;
+    private boolean partial;
+
+    TimerWheel(long now) {
+      wheel = new Node[BUCKETS.length][];
+      cursors = new long[BUCKETS.length];
+      for (int i = 0; i < BUCKETS.length; i++) {
+        wheel[i] = new Node[BUCKETS[i]];
+        for (int j = 0; j < BUCKETS[i]; j++) {
+          wheel[i][j] = new Node();
+        }
+        cursors[i] = now >>> SHIFTS[i];
+      }
+      time = now;
+    }
+
+    void reschedule(Node node, long expiresAt) {
+      deschedule(node);
+      node.expiresAt = expiresAt;
+      if (expiresAt != Long.MAX_VALUE) {
+        schedule(node);
+      }
+    }
+
+    void deschedule(Node node) {
+      if (node.wheelNext != null) {
+        node.wheelPrev.wheelNext = node.wheelNext;
+        node.wheelNext.wheelPrev = node.wheelPrev;
+        node.wheelPrev = null;
+        node.wheelNext = null;
+      }
+    }
+
+    private void schedule(Node node) {
+      long duration = node.expiresAt - time;
+      Node sentinel = wheel[BUCKETS.length - 1][0];
+      for (int i = 0; i < BUCKETS.length - 1; i++) {
+        if (duration < (1L << SHIFTS[i + 1])) {
+          // A bucket already visited is only visited again after a full turn
+          long ticks = Math.max(node.expiresAt >>> SHIFTS[i], cursors[i] + 1);
+          sentinel = wheel[i][(int) (ticks & (BUCKETS[i] - 1))];
+          break;
+        }
+      }
+      node.wheelNext = sentinel;
+      node.wheelPrev = sentinel.wheelPrev;
+      sentinel.wheelPrev.wheelNext = node;
+      sentinel.wheelPrev = node;
+    }
+
+    /**
+     * Visit the buckets elapsed since the last advance, at most {@code budget} nodes are visited, the next advance
+     * resumes from the first node that was not visited.
+     *
+     * @return the number of visited nodes
+     */
+    int advance(long now, int budget, Consumer<Node> expire) {
+      time = now;
+      int visited = 0;
+      for (int i = 0; i < BUCKETS.length && visited < budget; i++) {
+        long ticks = now >>> SHIFTS[i];
+        if (ticks - cursors[i] > BUCKETS[i]) {
+          // Each bucket is visited at most once per turn
+          cursors[i] = ticks - BUCKETS[i];
+        }
+        while (cursors[i] < ticks && visited < budget) {
+          // Advance the cursor first, so nodes that are not due are scheduled after it
+          long cursor = ++cursors[i];
+          visited += visit(wheel[i][(int) (cursor & (BUCKETS[i] - 1))], now, budget - visited, expire);
+          if (partial) {
+            cursors[i] = cursor - 1;
+          }
+        }
+      }
+      return visited;
+    }
+
+    private int visit(Node sentinel, long now, int limit, Consumer<Node> expire) {
+      Node node = sentinel.wheelNext;
+      Node last = sentinel.wheelPrev;
+      sentinel.wheelNext = sentinel;
+      sentinel.wheelPrev = sentinel;
+      int visited = 0;
+      partial = false;
+      while (node != sentinel) {
+        if (visited == limit) {
+          // Put back the nodes that were not visited in front of the bucket
+          Node first = sentinel.wheelNext;
+          node.wheelPrev = sentinel;
+          last.wheelNext = first;
+          first.wheelPrev = last;
+          sentinel.wheelNext = node;
+          if (first == sentinel) {
+            sentinel.wheelPrev = last;
+          }
+          partial = true;
+          break;
+        }
+        Node next = node == last ? sentinel : node.wheelNext;
+        node.wheelPrev = null;
+        node.wheelNext = null;
+        if (node.expiresAt <= now) {
+          expire.accept(node);
+        } else {
+          schedule(node);
+        }
+        visited++;
+        node = next;
+      }
+      return visited;
+    }
+  }
+
+  /**
+   * Intrusive doubly linked list of nodes, from the least recently used to the most recently used.
+   */
+  private static class AccessOrderDeque {
+
+    private Node head;
+    private Node tail;
+
+    Node peekFirst() {
+      return head;
+    }
+
+    void addLast(Node node) {
+      node.prev = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+    }
+
+    void remove(Node node) {
+      if (node.prev == null) {
+        head = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+    }
+
+    void moveToBack(Node node) {
+      if (node != tail) {
+        remove(node);
+        addLast(node);
+      }
+    }
+  }
+
+  /**
+   * A bounded ring buffer recording accesses, accesses are dropped when the buffer is full or contended.
+   */
+  private static class ReadBuffer {
+
+    private final AtomicReferenceArray<Node> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong writeCounter = new AtomicLong();
+    private volatile long readCounter;
+
+    /**
+     * @return {@code false} when the buffer is full and should be drained
+     */
+    boolean offer(Node node) {
+      long tail = writeCounter.get();
+      if (tail - readCounter >= READ_BUFFER_SIZE) {
+        return false;
+      }
+      if (writeCounter.compareAndSet(tail, tail + 1)) {
+        buffer.lazySet((int) (tail & READ_BUFFER_MASK), node);
+      }
+      return true;
+    }
+
+    void drainTo(CacheImpl cache) {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      while (head < tail) {
+        int index = (int) (head & READ_BUFFER_MASK);
+        Node node = buffer.get(index);
+        if (node == null) {
+          // Not yet published
+          break;
+        }
+        buffer.lazySet(index, null);
+        cache.onAccess(node);
+        head++;
+      }
+      readCounter = head;
+    }
+  }
 }
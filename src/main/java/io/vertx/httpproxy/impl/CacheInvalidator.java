@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Closeable;
+import io.vertx.core.Completable;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.httpproxy.spi.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Broadcast the removals of a cache to the caches of the other nodes listening on the same event bus address.
+ *
+ * <p> Removals are queued and published in a single message after a short delay, duplicates are coalesced so that
+ * a burst of invalidations results in a few messages. The removals received from the other nodes are applied to the
+ * target cache and are not broadcast again.
+ *
+ * <p> Closing the invalidator publishes the queued removals and unregisters the event bus consumer.
+ */
+class CacheInvalidator implements Closeable {
+
+  /**
+   * Max number of removals published in a message.
+   */
+  static final int MAX_BATCH_SIZE = 512;
+
+  private final Vertx vertx;
+  private final String address;
+  private final long batchDelay;
+  private final Cache target;
+  private final String nodeId = UUID.randomUUID().toString();
+  private final MessageConsumer<JsonObject> consumer;
+
+  // Guarded by this
+  private Set<String> keys = new LinkedHashSet<>();
+  private Set<String> tags = new LinkedHashSet<>();
+  private Set<String> prefixes = new LinkedHashSet<>();
+  private boolean scheduled;
+  private boolean closed;
+
+  /**
+   * @param address the event bus address
+   * @param batchDelay the delay in milliseconds before publishing the queued removals, {@code 0} to publish them
+   *                   immediately
+   * @param target the cache on which the removals of the other nodes are applied
+   */
+  CacheInvalidator(Vertx vertx, String address, long batchDelay, Cache target) {
+    this.vertx = vertx;
+    this.address = address;
+    this.batchDelay = batchDelay;
+    this.target = target;
+    this.consumer = vertx.eventBus().consumer(address, this::handle);
+  }
+
+  /**
+   * @return the future completed when the removals of the other nodes are received
+   */
+  Future<Void> ready() {
+    return consumer.completion();
+  }
+
+  @Override
+  public void close(Completable<Void> completion) {
+    flush();
+    synchronized (this) {
+      closed = true;
+    }
+    consumer.unregister().onComplete(completion);
+  }
+
+  void invalidateKey(String key) {
+    synchronized (this) {
+      keys.add(key);
+    }
+    schedule();
+  }
+
+  void invalidateTag(String tag) {
+    synchronized (this) {
+      tags.add(tag);
+    }
+    schedule();
+  }
+
+  void invalidatePrefix(String prefix) {
+    synchronized (this) {
+      prefixes.add(prefix);
+    }
+    schedule();
+  }
+
+  private void schedule() {
+    boolean flush;
+    synchronized (this) {
+      flush = keys.size() + tags.size() + prefixes.size() >= MAX_BATCH_SIZE || batchDelay == 0L;
+      if (!flush) {
+        if (scheduled) {
+          return;
+        }
+        scheduled = true;
+      }
+    }
+    if (flush) {
+      flush();
+    } else {
+      vertx.setTimer(batchDelay, id -> {
+        synchronized (this) {
+          scheduled = false;
+        }
+        flush();
+      });
+    }
+  }
+
+  private void flush() {
+    Set<String> keys;
+    Set<String> tags;
+    Set<String> prefixes;
+    synchronized (this) {
+      keys = this.keys;
+      tags = this.tags;
+      prefixes = this.prefixes;
+      if (closed || keys.isEmpty() && tags.isEmpty() && prefixes.isEmpty()) {
+        return;
+      }
+      this.keys = new LinkedHashSet<>();
+      this.tags = new LinkedHashSet<>();
+      this.prefixes = new LinkedHashSet<>();
+    }
+    JsonObject message = new JsonObject().put("node", nodeId);
+    if (!keys.isEmpty()) {
+      message.put("keys", new JsonArray(new ArrayList<>(keys)));
+    }
+    if (!tags.isEmpty()) {
+      message.put("tags", new JsonArray(new ArrayList<>(tags)));
+    }
+    if (!prefixes.isEmpty()) {
+      message.put("prefixes", new JsonArray(new ArrayList<>(prefixes)));
+    }
+    vertx.eventBus().publish(address, message);
+  }
+
+  private void handle(Message<JsonObject> message) {
+    JsonObject invalidation = message.body();
+    if (nodeId.equals(invalidation.getString("node"))) {
+      return;
+    }
+    JsonArray keys = invalidation.getJsonArray("keys");
+    if (keys != null) {
+      for (int i = 0; i < keys.size(); i++) {
+        target.remove(keys.getString(i));
+      }
+    }
+    JsonArray tags = invalidation.getJsonArray("tags");
+    if (tags != null) {
+      for (int i = 0; i < tags.size(); i++) {
+        target.removeByTag(tags.getString(i));
+      }
+    }
+    JsonArray prefixes = invalidation.getJsonArray("prefixes");
+    if (prefixes != null) {
+      for (int i = 0; i < prefixes.size(); i++) {
+        target.removeByPrefix(prefixes.getString(i));
+      }
+    }
+  }
+}
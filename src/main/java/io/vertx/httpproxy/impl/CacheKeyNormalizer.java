@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.MultiMap;
+import io.vertx.httpproxy.cache.CacheKeyBuilder;
+import io.vertx.httpproxy.cache.CacheOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The cache key builder of the key normalization options of {@link CacheOptions}.
+ *
+ * <p> The key is built on every lookup, the URI is scanned once and returned as is when it is already normalized.
+ * Otherwise, the query parameters are tracked by their offsets in the URI and the key is written in a single
+ * builder, no intermediate strings are created.
+ */
+public class CacheKeyNormalizer implements CacheKeyBuilder {
+
+  /**
+   * @return the key builder of the options
+   */
+  public static CacheKeyBuilder create(CacheOptions options) {
+    return options.getKeyBuilder() != null ? options.getKeyBuilder() : new CacheKeyNormalizer(options);
+  }
+
+  private final boolean sortQueryParameters;
+  private final boolean lowerCaseHost;
+  private final String[] ignoredNames;
+  private final String[] ignoredPrefixes;
+  private final String[] keyHeaders;
+
+  public CacheKeyNormalizer(CacheOptions options) {
+    List<String> names = new ArrayList<>();
+    List<String> prefixes = new ArrayList<>();
+    for (String name : options.getIgnoredQueryParameters()) {
+      if (name.endsWith("*")) {
+        prefixes.add(name.substring(0, name.length() - 1));
+      } else {
+        names.add(name);
+      }
+    }
+    String[] keyHeaders = new String[options.getKeyHeaders().size()];
+    for (int i = 0; i < keyHeaders.length; i++) {
+      keyHeaders[i] = options.getKeyHeaders().get(i).toLowerCase(Locale.ROOT);
+    }
+    this.sortQueryParameters = options.isSortQueryParameters();
+    this.lowerCaseHost = options.isLowerCaseHost();
+    this.ignoredNames = names.toArray(new String[0]);
+    this.ignoredPrefixes = prefixes.toArray(new String[0]);
+    this.keyHeaders = keyHeaders;
+  }
+
+  @Override
+  public String build(String absoluteUri, MultiMap headers) {
+    String key = normalize(absoluteUri);
+    if (keyHeaders.length == 0) {
+      return key;
+    }
+    StringBuilder sb = new StringBuilder(key);
+    for (String name : keyHeaders) {
+      sb.append("\nheader:").append(name).append('=');
+      List<String> values = headers.getAll(name);
+      for (int i = 0; i < values.size(); i++) {
+        if (i > 0) {
+          sb.append(',');
+        }
+        sb.append(values.get(i));
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String uriKey(String absoluteUri) {
+    // The key headers follow the normalized URI
+    return normalize(absoluteUri);
+  }
+
+  /**
+   * @return the normalized URI, the same instance when the URI is already normalized
+   */
+  String normalize(String uri) {
+    int len = uri.length();
+    int schemeEnd = uri.indexOf("://");
+    int authorityStart = schemeEnd >= 0 ? schemeEnd + 3 : 0;
+    int authorityEnd = authorityStart;
+    while (authorityEnd < len) {
+      char c = uri.charAt(authorityEnd);
+      if (c == '/' || c == '?' || c == '#') {
+        break;
+      }
+      authorityEnd++;
+    }
+    boolean lowerCase = false;
+    if (lowerCaseHost) {
+      for (int i = 0; i < authorityEnd; i++) {
+        char c = uri.charAt(i);
+        if (c >= 'A' && c <= 'Z') {
+          lowerCase = true;
+          break;
+        }
+      }
+    }
+    int queryStart = uri.indexOf('?', authorityEnd);
+    int fragmentStart = uri.indexOf('#', authorityEnd);
+    if (fragmentStart < 0) {
+      fragmentStart = len;
+    } else if (queryStart > fragmentStart) {
+      queryStart = -1;
+    }
+    if (queryStart < 0 || (!sortQueryParameters && ignoredNames.length == 0 && ignoredPrefixes.length == 0)) {
+      return lowerCase ? rewrite(uri, authorityEnd, fragmentStart, null, 0, fragmentStart) : uri;
+    }
+
+    // Offsets of the parameters, start at even indexes and end at odd indexes
+    int count = 1;
+    for (int i = queryStart + 1; i < fragmentStart; i++) {
+      if (uri.charAt(i) == '&') {
+        count++;
+      }
+    }
+    int[] params = new int[count * 2];
+    int kept = 0;
+    boolean changed = false;
+    int start = queryStart + 1;
+    while (start <= fragmentStart) {
+      int end = uri.indexOf('&', start);
+      if (end < 0 || end > fragmentStart) {
+        end = fragmentStart;
+      }
+      if (end == start || isIgnored(uri, start, nameEnd(uri, start, end))) {
+        changed = true;
+      } else {
+        params[kept * 2] = start;
+        params[kept * 2 + 1] = end;
+        kept++;
+      }
+      start = end + 1;
+    }
+    if (sortQueryParameters) {
+      // Stable insertion sort, the order of parameters with the same name is preserved
+      for (int i = 1; i < kept; i++) {
+        int s = params[i * 2];
+        int e = params[i * 2 + 1];
+        int j = i - 1;
+        while (j >= 0 && compareNames(uri, params[j * 2], params[j * 2 + 1], s, e) > 0) {
+          params[(j + 1) * 2] = params[j * 2];
+          params[(j + 1) * 2 + 1] = params[j * 2 + 1];
+          j--;
+          changed = true;
+        }
+        params[(j + 1) * 2] = s;
+        params[(j + 1) * 2 + 1] = e;
+      }
+    }
+    if (!changed && !lowerCase) {
+      return uri;
+    }
+    return rewrite(uri, authorityEnd, queryStart, params, kept, fragmentStart);
+  }
+
+  private String rewrite(String uri, int authorityEnd, int pathEnd, int[] params, int count, int fragmentStart) {
+    StringBuilder sb = new StringBuilder(uri.length());
+    if (lowerCaseHost) {
+      for (int i = 0; i < authorityEnd; i++) {
+        char c = uri.charAt(i);
+        sb.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+      }
+    } else {
+      sb.append(uri, 0, authorityEnd);
+    }
+    sb.append(uri, authorityEnd, pathEnd);
+    for (int i = 0; i < count; i++) {
+      sb.append(i == 0 ? '?' : '&').append(uri, params[i * 2], params[i * 2 + 1]);
+    }
+    sb.append(uri, fragmentStart, uri.length());
+    return sb.toString();
+  }
+
+  private static int nameEnd(String uri, int start, int end) {
+    int idx = uri.indexOf('=', start);
+    return idx >= 0 && idx < end ? idx : end;
+  }
+
+  private boolean isIgnored(String uri, int start, int nameEnd) {
+    int len = nameEnd - start;
+    for (String name : ignoredNames) {
+      if (name.length() == len && uri.regionMatches(start, name, 0, len)) {
+        return true;
+      }
+    }
+    for (String prefix : ignoredPrefixes) {
+      if (prefix.length() <= len && uri.regionMatches(start, prefix, 0, prefix.length())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int compareNames(String uri, int start1, int end1, int start2, int end2) {
+    int nameEnd1 = nameEnd(uri, start1, end1);
+    int nameEnd2 = nameEnd(uri, start2, end2);
+    int len1 = nameEnd1 - start1;
+    int len2 = nameEnd2 - start2;
+    int len = Math.min(len1, len2);
+    for (int i = 0; i < len; i++) {
+      int diff = uri.charAt(start1 + i) - uri.charAt(start2 + i);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return len1 - len2;
+  }
+}
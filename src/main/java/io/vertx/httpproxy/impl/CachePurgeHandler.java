@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.httpproxy.HttpProxy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Admin handler purging the cache with {@code PURGE} or {@code POST} requests.
+ *
+ * <p> The surrogate keys are given by {@code tag} query parameters or by a {@code Surrogate-Key} request header,
+ * the key prefixes by {@code prefix} query parameters with an optional trailing {@code *}. The response is a JSON
+ * object with the number of purged resources.
+ *
+ * <p> {@code GET} requests list the keys starting with the {@code prefix} query parameter as a JSON array, at most
+ * {@code limit} keys are listed.
+ */
+class CachePurgeHandler implements Handler<HttpServerRequest> {
+
+  private static final int DEFAULT_LIMIT = 1000;
+
+  private final HttpProxy proxy;
+
+  CachePurgeHandler(HttpProxy proxy) {
+    this.proxy = proxy;
+  }
+
+  @Override
+  public void handle(HttpServerRequest request) {
+    String method = request.method().name();
+    if (method.equals("GET")) {
+      list(request);
+      return;
+    }
+    if (!method.equals("PURGE") && !method.equals("POST")) {
+      request.response()
+        .setStatusCode(405)
+        .putHeader("allow", "GET, PURGE, POST")
+        .end();
+      return;
+    }
+    Set<String> tags = new LinkedHashSet<>(request.params().getAll("tag"));
+    for (String value : request.headers().getAll("surrogate-key")) {
+      for (String tag : value.trim().split("\\s+")) {
+        if (!tag.isEmpty()) {
+          tags.add(tag);
+        }
+      }
+    }
+    List<String> prefixes = request.params().getAll("prefix");
+    if (tags.isEmpty() && prefixes.isEmpty()) {
+      request.response().setStatusCode(400).end();
+      return;
+    }
+    List<Future<Integer>> purges = new ArrayList<>(tags.size() + prefixes.size());
+    for (String tag : tags) {
+      purges.add(proxy.purgeCacheTag(tag));
+    }
+    for (String prefix : prefixes) {
+      purges.add(proxy.purgeCachePrefix(prefix(prefix)));
+    }
+    Future.all(purges).onComplete(ar -> {
+      if (ar.succeeded()) {
+        int purged = 0;
+        for (int i = 0; i < purges.size(); i++) {
+          purged += ar.result().<Integer>resultAt(i);
+        }
+        request.response()
+          .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+          .end(new JsonObject().put("purged", purged).encode());
+      } else {
+        fail(request, ar.cause());
+      }
+    });
+  }
+
+  private void list(HttpServerRequest request) {
+    String prefix = request.getParam("prefix", "");
+    int limit;
+    try {
+      limit = Integer.parseInt(request.getParam("limit", String.valueOf(DEFAULT_LIMIT)));
+    } catch (NumberFormatException e) {
+      limit = -1;
+    }
+    if (limit < 0) {
+      request.response().setStatusCode(400).end();
+      return;
+    }
+    proxy.cacheKeys(prefix(prefix), limit).onComplete(ar -> {
+      if (ar.succeeded()) {
+        request.response()
+          .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+          .end(new JsonArray(ar.result()).encode());
+      } else {
+        fail(request, ar.cause());
+      }
+    });
+  }
+
+  private static String prefix(String pattern) {
+    return pattern.endsWith("*") ? pattern.substring(0, pattern.length() - 1) : pattern;
+  }
+
+  private static void fail(HttpServerRequest request, Throwable cause) {
+    request.response()
+      .setStatusCode(cause instanceof UnsupportedOperationException ? 501 : 500)
+      .end();
+  }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.internal.VertxInternal;
+import io.vertx.httpproxy.Body;
+import io.vertx.httpproxy.ProxyContext;
+import io.vertx.httpproxy.ProxyRequest;
+import io.vertx.httpproxy.ProxyResponse;
+import io.vertx.httpproxy.spi.cache.Cache;
+import io.vertx.httpproxy.spi.cache.Resource;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Serve {@code GET} requests from fixed size slices of the resource, like the nginx slice module.
+ *
+ * <p> A cache miss is sent to the origin with a range request of the first slice. The origin response tells
+ * whether the resource is sliced:
+ * <ul>
+ *   <li>a complete response is cached as usual, the origin does not serve ranges of the resource</li>
+ *   <li>a partial response of a resource fitting in a slice is turned into a complete response</li>
+ *   <li>a partial response of a larger resource with a strong {@code ETag} is cached as the first slice and the
+ *   client response is assembled from the slices</li>
+ *   <li>otherwise the request sent by the client is forwarded</li>
+ * </ul>
+ *
+ * <p> The following slices are fetched with range requests going through the interceptors following the caching
+ * filter, each slice is cached on its own entry so a partial download only fills the slices it reads and concurrent
+ * clients share the slices. Fetches of the same slice are collapsed. A cached slice with another {@code ETag} than
+ * the first slice is fetched again, the response fails only when the origin serves another version.
+ */
+class CacheSlicer {
+
+  private final Vertx vertx;
+  private final Cache cache;
+  private final CachingFilter filter;
+  private final Function<ProxyRequest, Future<ProxyResponse>> forwarder;
+  private final int sliceSize;
+  private final ConcurrentHashMap<String, Future<Resource>> fetches = new ConcurrentHashMap<>();
+
+  CacheSlicer(Vertx vertx, Cache cache, CachingFilter filter, Function<ProxyRequest, Future<ProxyResponse>> forwarder, int sliceSize) {
+    this.vertx = vertx;
+    this.cache = cache;
+    this.filter = filter;
+    this.forwarder = forwarder;
+    this.sliceSize = sliceSize;
+  }
+
+  /**
+   * @return the fresh first slice of the resource, or {@code null} when the resource is not sliced in the cache
+   */
+  Future<Resource> lookup(String key) {
+    return cache.get(sliceKey(key, 0)).map(first -> {
+      if (first != null && !isFresh(first)) {
+        OffHeapResource.release(first);
+        return null;
+      }
+      return first;
+    });
+  }
+
+  /**
+   * Send the request to the origin as a range request of the first slice.
+   *
+   * @return the origin response, to be handled by {@link #handleProbeResponse(ProxyContext, String, ProxiedRequest)}
+   */
+  Future<ProxyResponse> probe(ProxyContext context) {
+    ProxiedRequest request = (ProxiedRequest) context.request();
+    ProxiedRequest template = new ProxiedRequest(request);
+    MultiMap headers = template.headers();
+    headers.remove(HttpHeaderNames.RANGE);
+    headers.remove(HttpHeaderNames.IF_RANGE);
+    headers.remove(HttpHeaders.IF_NONE_MATCH);
+    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+    context.set("cache_slice_template", template);
+    request.headers().remove(HttpHeaderNames.IF_RANGE);
+    request.headers().set(HttpHeaderNames.RANGE, "bytes=0-" + (sliceSize - 1));
+    return context.sendRequest();
+  }
+
+  /**
+   * Handle the origin response of a probe.
+   *
+   * @param template the request of the slices
+   * @return {@code true} when the response is ready to be sent, {@code false} when the response is complete and
+   *         can be cached as a whole
+   */
+  Future<Boolean> handleProbeResponse(ProxyContext context, String key, ProxiedRequest template) {
+    ProxyResponse response = context.response();
+    int statusCode = response.getStatusCode();
+    if (statusCode != 206 && statusCode != 416) {
+      // The origin does not serve ranges of the resource, or the status does not depend on the range
+      return Future.succeededFuture(false);
+    }
+    long[] range = statusCode == 206 ? ByteRanges.parseContentRange(response.headers().get(HttpHeaderNames.CONTENT_RANGE)) : null;
+    if (range == null || range[0] != 0L || range[2] < 0L) {
+      // Empty resource or unknown length
+      return refetch(context, template);
+    }
+    long total = range[2];
+    if (total <= sliceSize) {
+      if (range[1] != total - 1) {
+        return refetch(context, template);
+      }
+      // The resource fits in the slice, it is cached as a whole
+      response.setStatusCode(200);
+      response.setStatusMessage("OK");
+      response.headers().remove(HttpHeaderNames.CONTENT_RANGE);
+      return Future.succeededFuture(false);
+    }
+    String etag = response.etag();
+    if (range[1] != sliceSize - 1 || !filter.isStorable(response) || etag == null || etag.startsWith("W/")) {
+      // Slices of different versions could only be told apart with a strong validator
+      return refetch(context, template);
+    }
+    Resource first = filter.newResource(response);
+    // The response is reused for the client
+    first.setHeaders(MultiMap.caseInsensitiveMultiMap().addAll(response.headers()));
+    return readContent(response).compose(content -> {
+      if (content.length() != sliceSize) {
+        // Transformed by an interceptor
+        return refetch(context, template);
+      }
+      first.setContent(content);
+      return cache.put(sliceKey(key, 0), first).transform(ar -> {
+        response.release();
+        serve(context, response, key, template, first);
+        return Future.succeededFuture(true);
+      });
+    });
+  }
+
+  /**
+   * Serve the request from the slices of the resource.
+   *
+   * @param first the fresh first slice of the resource
+   * @return the response assembled from the slices
+   */
+  ProxyResponse serve(ProxyContext context, String key, Resource first) {
+    ProxyRequest proxyRequest = context.request();
+    ProxiedRequest template = new ProxiedRequest((ProxiedRequest) proxyRequest);
+    MultiMap headers = template.headers();
+    headers.remove(HttpHeaderNames.RANGE);
+    headers.remove(HttpHeaderNames.IF_RANGE);
+    headers.remove(HttpHeaders.IF_NONE_MATCH);
+    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+    proxyRequest.release();
+    ProxyResponse response = proxyRequest.response();
+    serve(context, response, key, template, first);
+    return response;
+  }
+
+  /**
+   * Fill the response with the range of the resource requested by the client.
+   */
+  private void serve(ProxyContext context, ProxyResponse response, String key, ProxiedRequest template, Resource first) {
+    long total = totalLength(first);
+    HttpServerRequest request = context.request().proxiedRequest();
+    String range = request.getHeader(HttpHeaderNames.RANGE);
+    long[] ranges = range != null && CachingFilter.ifRange(request.getHeader(HttpHeaderNames.IF_RANGE), first) ? ByteRanges.parse(range, total) : null;
+
+    MultiMap headers = response.headers();
+    headers.addAll(first.getHeaders());
+    headers.remove(HttpHeaderNames.CONTENT_RANGE);
+    headers.remove(HttpHeaders.CONTENT_LENGTH);
+    String etag = first.getEtag();
+
+    if (ranges != null && ranges.length == 0) {
+      OffHeapResource.release(first);
+      response.setStatusCode(416);
+      response.setStatusMessage("Range Not Satisfiable");
+      headers.set(HttpHeaderNames.CONTENT_RANGE, "bytes */" + total);
+      response.setBody(Body.body(Buffer.buffer()));
+      return;
+    }
+    long start;
+    long end;
+    if (ranges != null && ranges.length == 2) {
+      start = ranges[0];
+      end = ranges[1];
+      response.setStatusCode(206);
+      response.setStatusMessage("Partial Content");
+      headers.set(HttpHeaderNames.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + total);
+    } else {
+      // Several ranges are served the full resource
+      start = 0;
+      end = total - 1;
+      response.setStatusCode(200);
+      response.setStatusMessage("OK");
+    }
+    long firstSlice = start / sliceSize;
+    // The first slice is read from memory, its lease ends before the response is written
+    Buffer firstContent = null;
+    if (firstSlice == 0) {
+      firstContent = first instanceof OffHeapResource ? first.getContent().copy() : first.getContent();
+    }
+    OffHeapResource.release(first);
+    Buffer content = firstContent;
+    int count = (int) (end / sliceSize - firstSlice + 1);
+    SliceReadStream stream = new SliceReadStream(i -> {
+      long index = firstSlice + i;
+      if (index == 0) {
+        return Future.succeededFuture(part(content, 0, start, end, total));
+      }
+      return part(template, key, index, start, end, total, etag);
+    }, count);
+    response.setBody(Body.body(stream, end - start + 1, headers.get(HttpHeaders.CONTENT_TYPE)));
+  }
+
+  /**
+   * Replace the response of the probe with the response of the request sent by the client, when the resource
+   * cannot be sliced.
+   */
+  private Future<Boolean> refetch(ProxyContext context, ProxiedRequest template) {
+    ProxyResponse response = context.response();
+    HttpClientResponse probe = response.proxiedResponse();
+    if (probe != null) {
+      // Do not read the content of the probe
+      probe.request().reset();
+    }
+    response.release();
+    ProxiedRequest request = new ProxiedRequest(template);
+    HttpServerRequest client = context.request().proxiedRequest();
+    copyHeader(client, request, HttpHeaderNames.RANGE);
+    copyHeader(client, request, HttpHeaderNames.IF_RANGE);
+    copyHeader(client, request, HttpHeaders.IF_NONE_MATCH);
+    copyHeader(client, request, HttpHeaders.IF_MODIFIED_SINCE);
+    return forwarder.apply(request).map(full -> {
+      response.setStatusCode(full.getStatusCode());
+      response.setStatusMessage(full.getStatusMessage());
+      response.headers().addAll(full.headers());
+      response.setBody(full.getBody());
+      if (full.proxiedResponse() != null) {
+        // Reset when the client response fails
+        ((ProxiedRequest) context.request()).request = full.proxiedResponse().request();
+      }
+      return true;
+    });
+  }
+
+  private static void copyHeader(HttpServerRequest from, ProxyRequest to, CharSequence name) {
+    String value = from.getHeader(name);
+    if (value != null) {
+      to.headers().set(name, value);
+    }
+  }
+
+  /**
+   * @return the bytes of the slice content between {@code start} and {@code end}
+   */
+  private Buffer part(Buffer content, long offset, long start, long end, long total) {
+    int expected = (int) Math.min(sliceSize, total - offset);
+    int from = (int) (Math.max(start, offset) - offset);
+    int to = (int) (Math.min(end, offset + expected - 1) - offset + 1);
+    return content.slice(from, to);
+  }
+
+  /**
+   * @return the bytes of the slice between {@code start} and {@code end}
+   */
+  private Future<Buffer> part(ProxiedRequest template, String key, long index, long start, long end, long total, String etag) {
+    long offset = index * sliceSize;
+    int expected = (int) Math.min(sliceSize, total - offset);
+    return slice(template, key, index).compose(resource -> {
+      if (matches(resource, total, expected, etag)) {
+        return Future.succeededFuture(resource);
+      }
+      // A slice cached from a previous version of the resource, the origin may still serve the same version
+      OffHeapResource.release(resource);
+      return fetchSlice(template, sliceKey(key, index), index).compose(fetched -> {
+        if (matches(fetched, total, expected, etag)) {
+          return Future.succeededFuture(fetched);
+        }
+        // The resource changed on the origin while it was served, the next request probes it again
+        OffHeapResource.release(fetched);
+        return cache.remove(sliceKey(key, 0)).transform(ar -> Future.failedFuture("Slice " + index + " of " + key + " does not match"));
+      });
+    }).map(resource -> {
+      Buffer part = part(resource.getContent(), offset, start, end, total);
+      if (resource instanceof OffHeapResource) {
+        // The lease ends before the response is written
+        part = part.copy();
+        OffHeapResource.release(resource);
+      }
+      return part;
+    });
+  }
+
+  /**
+   * @return whether the slice belongs to the same version of the resource as the first slice
+   */
+  private static boolean matches(Resource slice, long total, int expected, String etag) {
+    return slice != null && totalLength(slice) == total && slice.getContent().length() == expected && etag != null && etag.equals(slice.getEtag());
+  }
+
+  /**
+   * Get a slice from the cache or from the origin, concurrent fetches of a slice share the origin response.
+   */
+  private Future<Resource> slice(ProxiedRequest template, String key, long index) {
+    String sliceKey = sliceKey(key, index);
+    return cache.get(sliceKey).compose(cached -> {
+      if (cached != null) {
+        if (isFresh(cached)) {
+          return Future.succeededFuture(cached);
+        }
+        OffHeapResource.release(cached);
+      }
+      Future<Resource> fetch = fetches.get(sliceKey);
+      if (fetch == null) {
+        Promise<Resource> promise = Promise.promise();
+        fetch = fetches.putIfAbsent(sliceKey, promise.future());
+        if (fetch == null) {
+          fetch = promise.future();
+          fetchSlice(template, sliceKey, index).onComplete(ar -> {
+            fetches.remove(sliceKey, promise.future());
+            promise.handle(ar);
+          });
+        }
+      }
+      // The fetch may complete on the context of another request
+      ContextInternal ctx = ((VertxInternal) vertx).getOrCreateContext();
+      Promise<Resource> promise = ctx.promise();
+      fetch.onComplete(promise);
+      return promise.future();
+    });
+  }
+
+  private Future<Resource> fetchSlice(ProxiedRequest template, String sliceKey, long index) {
+    long first = index * sliceSize;
+    long last = first + sliceSize - 1;
+    ProxiedRequest request = new ProxiedRequest(template);
+    request.headers().set(HttpHeaderNames.RANGE, "bytes=" + first + "-" + last);
+    return forwarder.apply(request).compose(response -> {
+      if (response.getStatusCode() != 206) {
+        // The resource changed on the origin
+        response.release();
+        return Future.succeededFuture();
+      }
+      Resource resource = filter.newResource(response);
+      boolean storable = filter.isStorable(response);
+      return readContent(response).compose(content -> {
+        resource.setContent(content);
+        if (storable) {
+          return cache.put(sliceKey, resource).map(resource);
+        }
+        return Future.succeededFuture(resource);
+      });
+    });
+  }
+
+  private static Future<Buffer> readContent(ProxyResponse response) {
+    Body body = response.getBody();
+    if (body == null) {
+      return Future.succeededFuture(Buffer.buffer());
+    }
+    BufferingWriteStream buffer = new BufferingWriteStream();
+    return body.stream().pipeTo(buffer).map(v -> buffer.content());
+  }
+
+  private static boolean isFresh(Resource slice) {
+    return slice.getTimestamp() + slice.getMaxAge() >= System.currentTimeMillis();
+  }
+
+  /**
+   * @return the complete length of the resource from the {@code Content-Range} header of a slice, or {@code -1}
+   */
+  private static long totalLength(Resource slice) {
+    long[] range = ByteRanges.parseContentRange(slice.getHeaders().get(HttpHeaderNames.CONTENT_RANGE));
+    return range != null ? range[2] : -1L;
+  }
+
+  private static String sliceKey(String key, long index) {
+    return key + "\nslice:" + index;
+  }
+}
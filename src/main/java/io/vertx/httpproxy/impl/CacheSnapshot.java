@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Closeable;
+import io.vertx.core.Completable;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.spi.cache.Resource;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Save the resources of a local cache to a file and restore them, so a restarted proxy does not start with an
+ * empty cache.
+ *
+ * <p> The file starts with a magic number followed by a sequence of entries, each entry is the length of the key,
+ * the key, the length of the resource and the resource in its {@link Resource#writeToBuffer(Buffer) serialized}
+ * form. Snapshots of another version are ignored, entries which resource cannot be read are skipped.
+ *
+ * <p> A snapshot file has a single owner in the JVM, the first cache opening it. The other caches configured with
+ * the same file restore it but do not save it.
+ */
+class CacheSnapshot implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheSnapshot.class);
+
+  private static final int MAGIC = 0x56585032; // VXP2, version 2
+
+  private static final ConcurrentHashMap<File, CacheSnapshot> OWNERS = new ConcurrentHashMap<>();
+
+  private final Vertx vertx;
+  private final CacheImpl cache;
+  private final File file;
+  private final boolean owner;
+  private final long timerId;
+
+  CacheSnapshot(Vertx vertx, CacheImpl cache, CacheOptions options) {
+    this.vertx = vertx;
+    this.cache = cache;
+    this.file = new File(options.getSnapshotFile()).getAbsoluteFile();
+    this.owner = OWNERS.putIfAbsent(file, this) == null;
+    if (!owner) {
+      log.warn("Cache snapshot " + file + " is saved by another cache");
+    }
+    long interval = options.getSnapshotInterval();
+    this.timerId = owner && interval > 0 ? vertx.setPeriodic(interval, interval, id -> save()) : -1L;
+  }
+
+  /**
+   * Restore the resources of the snapshot file, the entries are streamed to the cache while the proxy serves
+   * requests. A resource cached meanwhile is not replaced by its snapshot.
+   */
+  Future<Void> load() {
+    return vertx.fileSystem().exists(file.getPath()).compose(exists -> {
+      if (!exists) {
+        return Future.succeededFuture();
+      }
+      return vertx.fileSystem().open(file.getPath(), new OpenOptions().setRead(true).setWrite(false).setCreate(false)).compose(asyncFile -> {
+        Promise<Void> promise = Promise.promise();
+        RecordParser parser = RecordParser.newFixed(4, asyncFile);
+        parser.handler(new Handler<Buffer>() {
+          // 0: magic, 1: key length, 2: key, 3: resource length, 4: resource
+          int state;
+          String key;
+          final long now = System.currentTimeMillis();
+          @Override
+          public void handle(Buffer buffer) {
+            switch (state) {
+              case 0:
+                if (buffer.getInt(0) != MAGIC) {
+                  // Written by another version or not a snapshot
+                  log.warn("Ignoring cache snapshot " + file + " of another version");
+                  parser.handler(null);
+                  promise.tryComplete();
+                  return;
+                }
+                state = 1;
+                break;
+              case 1:
+                parser.fixedSizeMode(buffer.getInt(0));
+                state = 2;
+                break;
+              case 2:
+                key = buffer.toString(StandardCharsets.UTF_8);
+                parser.fixedSizeMode(4);
+                state = 3;
+                break;
+              case 3:
+                parser.fixedSizeMode(buffer.getInt(0));
+                state = 4;
+                break;
+              case 4:
+                Resource resource = new Resource();
+                try {
+                  resource.readFromBuffer(0, buffer);
+                  if (cache.expiresAt(resource) >= now) {
+                    restore(key, resource);
+                  }
+                } catch (Exception e) {
+                  log.debug("Skipping cached resource " + key + " of snapshot " + file, e);
+                }
+                parser.fixedSizeMode(4);
+                state = 1;
+                break;
+            }
+          }
+        });
+        parser.exceptionHandler(promise::tryFail);
+        parser.endHandler(v -> promise.tryComplete());
+        return promise.future().andThen(ar -> asyncFile.close());
+      });
+    }).onFailure(err -> log.warn("Cannot restore cache snapshot " + file, err));
+  }
+
+  private void restore(String key, Resource resource) {
+    cache.get(key).onSuccess(existing -> {
+      if (existing == null) {
+        cache.put(key, resource);
+      } else {
+        OffHeapResource.release(existing);
+      }
+    });
+  }
+
+  /**
+   * Save the cache to a temporary file and then move it atomically to the snapshot file, only the owner of the
+   * file saves it.
+   */
+  Future<Void> save() {
+    if (!owner) {
+      return Future.succeededFuture();
+    }
+    return vertx.<Void>executeBlocking(() -> {
+      File parent = file.getParentFile();
+      if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+        throw new IOException("Cannot create snapshot directory " + parent);
+      }
+      // Overlapping saves write distinct files
+      File tmp = File.createTempFile(file.getName() + ".", ".tmp", parent);
+      try {
+        write(tmp);
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tmp.toPath());
+      }
+      return null;
+    }, false).onFailure(err -> log.warn("Cannot save cache snapshot " + file, err));
+  }
+
+  private void write(File tmp) throws IOException {
+    long now = System.currentTimeMillis();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+      out.writeInt(MAGIC);
+      IOException[] failure = new IOException[1];
+      cache.forEach((key, resource) -> {
+        if (failure[0] != null || cache.expiresAt(resource) < now) {
+          return;
+        }
+        try {
+          byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+          Buffer buffer = Buffer.buffer();
+          resource.writeToBuffer(buffer);
+          out.writeInt(keyBytes.length);
+          out.write(keyBytes);
+          out.writeInt(buffer.length());
+          out.write(buffer.getBytes());
+        } catch (IOException e) {
+          failure[0] = e;
+        }
+      });
+      if (failure[0] != null) {
+        throw failure[0];
+      }
+    }
+  }
+
+  @Override
+  public void close(Completable<Void> completion) {
+    if (timerId >= 0) {
+      vertx.cancelTimer(timerId);
+    }
+    save().onComplete(ar -> {
+      OWNERS.remove(file, this);
+      completion.succeed();
+    });
+  }
+}
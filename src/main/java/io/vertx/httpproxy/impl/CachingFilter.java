@@ -1,25 +1,96 @@
 package io.vertx.httpproxy.impl;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.internal.VertxInternal;
+import io.vertx.core.internal.buffer.BufferInternal;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.httpproxy.Body;
 import io.vertx.httpproxy.ProxyContext;
 import io.vertx.httpproxy.ProxyInterceptor;
 import io.vertx.httpproxy.ProxyRequest;
 import io.vertx.httpproxy.ProxyResponse;
+import io.vertx.httpproxy.cache.CacheKeyBuilder;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.cache.CacheStats;
 import io.vertx.httpproxy.spi.cache.Cache;
 import io.vertx.httpproxy.spi.cache.Resource;
 
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 class CachingFilter implements ProxyInterceptor {
 
+  private final Vertx vertx;
   private final Cache cache;
+  private final long maxResourceSize;
+  private final boolean streamedFill;
+  private final boolean collapsedForwarding;
+  private final long collapsedForwardingTimeout;
+  private final long staleIfError;
+  private final long detachedFillMaxSize;
+  private final long detachedFillTimeout;
+  private final long heuristicMaxAge;
+  private final long negativeMaxAge;
+  private final long redirectMaxAge;
+  private final ConcurrentHashMap<String, Promise<Resource>> fills = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CacheFill> filling = new ConcurrentHashMap<>();
+  private final Set<String> revalidations = ConcurrentHashMap.newKeySet();
+  private final CacheSlicer slicer;
+  private final CacheKeyBuilder keyBuilder;
+  private final Function<ProxyRequest, Future<ProxyResponse>> forwarder;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder revalidationCount = new LongAdder();
+  private final LongAdder notModifiedCount = new LongAdder();
+  private final LongAdder lookupCount = new LongAdder();
+  private final LongAdder lookupTime = new LongAdder();
 
-  public CachingFilter(Cache cache) {
+  /**
+   * @param forwarder sends the requests issued by the filter through the following interceptors to the origin
+   */
+  public CachingFilter(Vertx vertx, Cache cache, CacheOptions options, Function<ProxyRequest, Future<ProxyResponse>> forwarder) {
+    this.vertx = vertx;
     this.cache = cache;
+    this.maxResourceSize = options.getMaxResourceSize();
+    this.streamedFill = options.getDiskDirectory() != null;
+    this.collapsedForwarding = options.isCollapsedForwarding();
+    this.collapsedForwardingTimeout = options.getCollapsedForwardingTimeout();
+    this.staleIfError = options.getStaleIfError();
+    this.detachedFillMaxSize = options.getDetachedFillMaxSize();
+    this.detachedFillTimeout = options.getDetachedFillTimeout();
+    this.heuristicMaxAge = options.getHeuristicMaxAge();
+    this.negativeMaxAge = options.getNegativeMaxAge();
+    this.redirectMaxAge = options.getRedirectMaxAge();
+    this.slicer = options.getSliceSize() > 0 ? new CacheSlicer(vertx, cache, this, forwarder, options.getSliceSize()) : null;
+    this.keyBuilder = CacheKeyNormalizer.create(options);
+    this.forwarder = forwarder;
   }
 
   @Override
@@ -29,13 +100,114 @@ class CachingFilter implements ProxyInterceptor {
 
   @Override
   public Future<Void> handleProxyResponse(ProxyContext context) {
-    return sendAndTryCacheProxyResponse(context);
+    recordResponse(context);
+    return sendAndTryCacheProxyResponse(context).andThen(ar -> {
+      // The response has been sent, the cached content can be released
+      OffHeapResource.release(context.get("cache_lease", Resource.class));
+    });
+  }
+
+  /**
+   * @return the statistics of the filter combined with the statistics of the cache storage
+   */
+  CacheStats stats() {
+    return new CacheStats(cache.stats())
+      .setHitCount(hitCount.sum())
+      .setMissCount(missCount.sum())
+      .setRevalidationCount(revalidationCount.sum())
+      .setNotModifiedCount(notModifiedCount.sum())
+      .setLookupCount(lookupCount.sum())
+      .setLookupTime(lookupTime.sum());
+  }
+
+  /**
+   * @return the number of resources tagged with the surrogate key removed from the cache
+   */
+  Future<Integer> purgeTag(String tag) {
+    return cache.removeByTag(tag).map(Set::size);
+  }
+
+  /**
+   * @return the number of resources which keys start with the prefix removed from the cache
+   */
+  Future<Integer> purgePrefix(String prefix) {
+    return cache.removeByPrefix(prefix);
+  }
+
+  /**
+   * @return the keys of the cached resources starting with the prefix
+   */
+  Future<List<String>> keys(String prefix, int limit) {
+    return cache.keys(prefix, limit);
+  }
+
+  private void recordResponse(ProxyContext context) {
+    if (context.get("cache_primary_key", String.class) == null) {
+      // The request was not looked up in the cache
+      return;
+    }
+    if (context.get("cache_hit", Boolean.class) != null) {
+      hitCount.increment();
+    } else if (context.get("cached_resource", Resource.class) != null) {
+      revalidationCount.increment();
+      if (context.response().getStatusCode() == 304) {
+        notModifiedCount.increment();
+      }
+    } else {
+      missCount.increment();
+    }
+  }
+
+  private Future<Resource> lookup(String key) {
+    long start = System.nanoTime();
+    return cache.get(key).andThen(ar -> {
+      lookupTime.add(System.nanoTime() - start);
+      lookupCount.increment();
+    });
   }
 
   private Future<Void> sendAndTryCacheProxyResponse(ProxyContext context) {
 
     ProxyResponse response = context.response();
+    if (context.get("cache_hit", Boolean.class) != null || context.get("cache_unsatisfied", Boolean.class) != null) {
+      return context.sendResponse();
+    }
+
+    ProxiedRequest template = context.get("cache_slice_template", ProxiedRequest.class);
+    if (template != null) {
+      context.set("cache_slice_template", null);
+      return slicer.handleProbeResponse(context, cacheKey(context), template).compose(ready -> {
+        if (ready) {
+          return context.sendResponse();
+        }
+        // A complete response
+        return sendAndTryCacheProxyResponse(context);
+      });
+    }
+
+    if (isUnsafe(response.request().getMethod())) {
+      int statusCode = response.getStatusCode();
+      if (statusCode >= 200 && statusCode < 400) {
+        // The state of the resource changed on the origin
+        return invalidate(response).compose(v -> context.sendResponse());
+      }
+      return context.sendResponse();
+    }
+
+    Resource stale = context.get("stale_resource", Resource.class);
+    if (stale != null) {
+      if (response.getStatusCode() >= 500) {
+        response.release();
+        fillResponseFromResource(response, stale);
+        return context.sendResponse();
+      }
+      // The origin recovered, the response replaces the stale resource when it is cacheable
+      cache.remove(cacheKey(context));
+    }
+
     Resource cached = context.get("cached_resource", Resource.class);
+    @SuppressWarnings("unchecked")
+    Promise<Resource> fill = context.get("cache_fill", Promise.class);
 
     if (cached != null && response.getStatusCode() == 304) {
       // Warning: this relies on the fact that HttpServerRequest will not send a body for HEAD
@@ -45,41 +217,492 @@ class CachingFilter implements ProxyInterceptor {
     }
 
     ProxyRequest request = response.request();
-    if (response.publicCacheControl() && response.maxAge() > 0) {
+    CacheControl directives = requestCacheControl(request);
+    // A partial response is never cached, the cache serves ranges of complete resources
+    if (response.getStatusCode() != 206 && isStorable(response) && (directives == null || !directives.isNoStore())) {
       if (request.getMethod() == HttpMethod.GET) {
-        String absoluteUri = request.absoluteURI();
-        Resource res = new Resource(
-          absoluteUri,
-          response.getStatusCode(),
-          response.getStatusMessage(),
-          response.headers(),
-          System.currentTimeMillis(),
-          response.maxAge());
+        String cacheKey = cacheKey(context);
+        Resource res = newResource(response);
         Body body = response.getBody();
-        response.setBody(Body.body(new BufferingReadStream(body.stream(), res.getContent()), body.length()));
+        if (streamedFill && maxResourceSize >= 0 && body.length() > maxResourceSize && res.getVary() == null && cacheKey.equals(primaryKey(context))) {
+          // Too large to be buffered, the disk tier stores the body as it is sent
+          completeFill(cacheKey, fill, null);
+          TeeReadStream stream = new TeeReadStream(body.stream());
+          cache.put(cacheKey, res, stream.copy(), body.length()).onFailure(stream::detach);
+          response.setBody(Body.body(stream, body.length(), body.mediaType()));
+          return context.sendResponse().andThen(ar -> {
+            if (ar.failed()) {
+              stream.detach(ar.cause());
+            }
+          });
+        }
+        if ((maxResourceSize >= 0 && body.length() > maxResourceSize) || "*".equals(res.getVary())) {
+          // Too large to be cached or varies on something else than request headers, do not buffer it
+          completeFill(cacheKey, fill, null);
+          return context.sendResponse();
+        }
+        String variantKey = res.getVary() != null ? variantKey(primaryKey(context), res.getVary(), request.proxiedRequest().headers()) : cacheKey;
+        if (!variantKey.equals(cacheKey)) {
+          // The waiting requests may select another variant
+          completeFill(cacheKey, fill, null);
+        }
+        BufferingReadStream stream = new BufferingReadStream(body.stream(), res.getContent(), maxResourceSize);
+        CacheFill cacheFill = null;
+        if (res.getVary() == null && cacheKey.equals(primaryKey(context)) && (maxResourceSize < 0 || body.length() >= 0)) {
+          // The content cannot overflow, requests arriving meanwhile stream it from the fill
+          cacheFill = new CacheFill(res, body.length());
+          if (filling.putIfAbsent(cacheKey, cacheFill) != null) {
+            cacheFill = null;
+          } else {
+            completeFill(cacheKey, fill, null);
+          }
+        }
+        CacheFill tee = cacheFill;
+        ReadStream<Buffer> source = tee != null ? tee.tee(stream) : stream;
+        // Completed when the content has been read to the end, even by a detached fill
+        Promise<Void> filled = Promise.promise();
+        DetachableReadStream detachable = null;
+        if (detachedFillMaxSize > 0 && body.length() <= detachedFillMaxSize) {
+          detachable = new DetachableReadStream(source, origin -> detachFill(response, origin, res, stream, filled));
+          source = detachable;
+        }
+        DetachableReadStream detached = detachable;
+        response.setBody(Body.body(source, body.length(), body.mediaType()));
         Future<Void> fut = context.sendResponse();
-        fut.onSuccess(v -> {
-          cache.put(absoluteUri, res);
+        fut.onComplete(ar -> {
+          if (detached == null || !detached.isDetached()) {
+            filled.handle(ar);
+          }
+        });
+        filled.future().onComplete(ar -> {
+          if (tee != null && ar.failed()) {
+            tee.fail(ar.cause());
+            filling.remove(cacheKey, tee);
+          }
+          if (ar.succeeded() && !stream.overflow()) {
+            Future<Void> stored;
+            if (res.getVary() != null) {
+              Resource index = new Resource();
+              index.setAbsoluteUri(res.getAbsoluteUri());
+              index.setTimestamp(res.getTimestamp());
+              index.setVary(res.getVary());
+              stored = cache.put(primaryKey(context), index).compose(v -> cache.put(variantKey, res));
+            } else {
+              // Replaces the variant index when the origin does not vary anymore
+              stored = cache.put(primaryKey(context), res);
+            }
+            stored.onComplete(v -> {
+              if (tee != null) {
+                filling.remove(cacheKey, tee);
+              }
+              completeFill(cacheKey, fill, res);
+            });
+          } else {
+            completeFill(cacheKey, fill, null);
+          }
         });
         return fut;
       } else if (request.getMethod() != HttpMethod.HEAD) {
         return context.sendResponse();
       } else {
-        return cache.get(request.absoluteURI()).compose(resource -> {
+        String cacheKey = cacheKey(context);
+        return cache.get(cacheKey).compose(resource -> {
           if (resource != null) {
             if (!revalidateResource(response, resource)) {
               // Invalidate cache
-              cache.remove(request.absoluteURI());
+              cache.remove(cacheKey);
             }
+            OffHeapResource.release(resource);
           }
           return context.sendResponse();
         });
       }
     } else {
+      completeFill(cacheKey(context), fill, null);
       return context.sendResponse();
     }
   }
 
+  /**
+   * @return whether the request method may change the state of the target resource
+   */
+  private static boolean isUnsafe(HttpMethod method) {
+    return method != HttpMethod.GET && method != HttpMethod.HEAD && method != HttpMethod.OPTIONS && method != HttpMethod.TRACE;
+  }
+
+  /**
+   * Invalidate the target URI of a successful unsafe request and the {@code Location} and {@code Content-Location}
+   * URIs of the response, see <a href="https://www.rfc-editor.org/rfc/rfc9111#section-4.4">RFC 9111</a>. The
+   * response URIs are only invalidated when they have the same origin as the target URI. The entries of a URI keyed
+   * by other values of the key headers are invalidated as well.
+   */
+  private Future<Void> invalidate(ProxyResponse response) {
+    ProxyRequest request = response.request();
+    String target = request.absoluteURI();
+    // The headers the lookups build their keys with
+    MultiMap requestHeaders = request.proxiedRequest().headers();
+    Set<String> uris = new LinkedHashSet<>();
+    uris.add(target);
+    addSameOriginUri(uris, target, response.headers().get(HttpHeaderNames.LOCATION));
+    addSameOriginUri(uris, target, response.headers().get(HttpHeaderNames.CONTENT_LOCATION));
+    Set<String> primaryKeys = new LinkedHashSet<>();
+    Set<String> prefixes = new LinkedHashSet<>();
+    for (String uri : uris) {
+      String primaryKey = keyBuilder.build(uri, requestHeaders);
+      primaryKeys.add(primaryKey);
+      prefixes.add(primaryKey + "\n");
+      // The entries keyed by other values of the request headers
+      String uriKey = keyBuilder.uriKey(uri);
+      primaryKeys.add(uriKey);
+      prefixes.add(uriKey + "\n");
+    }
+    return cache.getAll(primaryKeys).compose(resources -> {
+      List<String> keys = new ArrayList<>(primaryKeys);
+      for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+        Resource resource = entry.getValue();
+        if (isVariantIndex(resource)) {
+          // The variant selected by the request, the other variants are not reachable without the index
+          keys.add(variantKey(entry.getKey(), resource.getVary(), requestHeaders));
+        }
+        OffHeapResource.release(resource);
+      }
+      return cache.removeAll(keys);
+    }).compose(v -> {
+      List<Future<Integer>> futures = new ArrayList<>(prefixes.size());
+      for (String prefix : prefixes) {
+        // The variants and the slices of the resource when the cache indexes its keys
+        futures.add(cache.removeByPrefix(prefix));
+      }
+      return Future.join(futures);
+    }).transform(ar -> Future.succeededFuture());
+  }
+
+  private static void addSameOriginUri(Set<String> uris, String target, String reference) {
+    if (reference == null) {
+      return;
+    }
+    try {
+      URI base = new URI(target);
+      URI uri = base.resolve(reference.trim());
+      if (Objects.equals(base.getScheme(), uri.getScheme()) && Objects.equals(base.getRawAuthority(), uri.getRawAuthority())) {
+        uris.add(uri.toString());
+      }
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      // Ignore
+    }
+  }
+
+  Resource newResource(ProxyResponse response) {
+    Resource resource = new Resource(
+      response.request().absoluteURI(),
+      response.getStatusCode(),
+      response.getStatusMessage(),
+      response.headers(),
+      responseTime(response),
+      freshnessLifetime(response));
+    CacheControl cacheControl = cacheControl(response);
+    if (cacheControl.staleWhileRevalidate() > 0) {
+      resource.setStaleWhileRevalidate(cacheControl.staleWhileRevalidate() * 1000L);
+    }
+    if (cacheControl.staleIfError() > 0) {
+      resource.setStaleIfError(cacheControl.staleIfError() * 1000L);
+    }
+    List<String> varyHeaders = response.headers().getAll(HttpHeaders.VARY);
+    if (!varyHeaders.isEmpty()) {
+      resource.setVary(normalizeVary(varyHeaders));
+    }
+    return resource;
+  }
+
+  /**
+   * Keep reading the origin response after the client left so that the resource is cached anyway, the fill is
+   * aborted when the resource exceeds the detached fill max size or the fill does not complete in time.
+   */
+  private void detachFill(ProxyResponse response, ReadStream<Buffer> stream, Resource resource, BufferingReadStream buffering, Promise<Void> filled) {
+    HttpClientRequest origin = response.proxiedResponse().request();
+    long timerId = vertx.setTimer(detachedFillTimeout, id -> {
+      if (filled.tryFail("Detached fill timed out")) {
+        origin.reset();
+      }
+    });
+    stream.exceptionHandler(err -> {
+      vertx.cancelTimer(timerId);
+      filled.tryFail(err);
+    });
+    stream.endHandler(v -> {
+      vertx.cancelTimer(timerId);
+      filled.tryComplete();
+    });
+    stream.handler(chunk -> {
+      if (buffering.overflow() || resource.getContent().length() > detachedFillMaxSize) {
+        vertx.cancelTimer(timerId);
+        if (filled.tryFail("Detached fill exceeds " + detachedFillMaxSize + " bytes")) {
+          origin.reset();
+        }
+      }
+    });
+    stream.resume();
+  }
+
+  /**
+   * Update the cache with the response of a background revalidation, the client has already been served
+   * with the stale resource.
+   */
+  private Future<Void> updateRevalidatedResource(String cacheKey, Resource resource, ProxyResponse response) {
+    int statusCode = response.getStatusCode();
+    if (statusCode == 304) {
+      long timestamp = responseTime(response);
+      long freshnessLifetime = freshnessLifetime(response);
+      response.release();
+      // Other requests may be reading the cached resource, it is replaced instead of being updated
+      Resource updated = copyOf(resource);
+      updated.setTimestamp(timestamp);
+      if (freshnessLifetime > 0) {
+        updated.setMaxAge(freshnessLifetime);
+      }
+      return cache.put(cacheKey, updated);
+    } else if ((statusCode == 200 || negativeMaxAge(statusCode) > 0) && isStorable(response)) {
+      Resource res = newResource(response);
+      Body body = response.getBody();
+      if (maxResourceSize >= 0 && body.length() > maxResourceSize) {
+        response.release();
+        return cache.remove(cacheKey);
+      }
+      // A chunked response is buffered up to the max resource size
+      BufferingReadStream stream = new BufferingReadStream(body.stream(), res.getContent(), maxResourceSize);
+      Promise<Void> read = Promise.promise();
+      stream.exceptionHandler(read::tryFail);
+      stream.endHandler(read::tryComplete);
+      stream.handler(chunk -> {
+        if (stream.overflow() && read.tryComplete()) {
+          // Too large to be cached, the rest of the response is not read
+          response.proxiedResponse().request().reset();
+        }
+      });
+      stream.resume();
+      return read.future().compose(v -> stream.overflow() ? cache.remove(cacheKey) : cache.put(cacheKey, res));
+    } else if (statusCode >= 500) {
+      // Keep the stale resource until the origin recovers
+      response.release();
+      return Future.succeededFuture();
+    } else {
+      response.release();
+      return cache.remove(cacheKey);
+    }
+  }
+
+  private static Resource copyOf(Resource resource) {
+    Resource copy = new Resource(
+      resource.getAbsoluteUri(),
+      resource.getStatusCode(),
+      resource.getStatusMessage(),
+      resource.getHeaders(),
+      resource.getTimestamp(),
+      resource.getMaxAge());
+    copy.setStaleWhileRevalidate(resource.getStaleWhileRevalidate());
+    copy.setStaleIfError(resource.getStaleIfError());
+    copy.setLastModified(resource.getLastModified());
+    copy.setEtag(resource.getEtag());
+    copy.setVary(resource.getVary());
+    copy.setTags(resource.getTags());
+    copy.setContent(resource.getContent());
+    return copy;
+  }
+
+  private long staleIfError(Resource resource) {
+    if (staleIfError >= 0 && !resourceCacheControl(resource).isRevalidationRequired()) {
+      return staleIfError;
+    }
+    return resource.getStaleIfError();
+  }
+
+  /**
+   * @return the directives of the response, parsed once by the origin response
+   */
+  private static CacheControl cacheControl(ProxyResponse response) {
+    if (response instanceof ProxiedResponse) {
+      CacheControl cacheControl = ((ProxiedResponse) response).cacheControl();
+      if (cacheControl != null) {
+        return cacheControl;
+      }
+    }
+    CacheControl cacheControl = new CacheControl();
+    String cacheControlHeader = response.headers().get(HttpHeaders.CACHE_CONTROL);
+    return cacheControlHeader != null ? cacheControl.parse(cacheControlHeader) : cacheControl;
+  }
+
+  /**
+   * @return the directives of the client request, {@code null} when it has none
+   */
+  private static CacheControl requestCacheControl(ProxyRequest request) {
+    String cacheControlHeader = request.proxiedRequest().getHeader(HttpHeaders.CACHE_CONTROL);
+    return cacheControlHeader != null ? new CacheControl().parse(cacheControlHeader) : null;
+  }
+
+  private static CacheControl resourceCacheControl(Resource resource) {
+    CacheControl cacheControl = new CacheControl();
+    String cacheControlHeader = resource.getHeaders() != null ? resource.getHeaders().get(HttpHeaders.CACHE_CONTROL) : null;
+    return cacheControlHeader != null ? cacheControl.parse(cacheControlHeader) : cacheControl;
+  }
+
+  /**
+   * @return whether the response can be stored by a shared cache
+   */
+  boolean isStorable(ProxyResponse response) {
+    CacheControl cacheControl = cacheControl(response);
+    if (!cacheControl.isStorable() || freshnessLifetime(response) <= 0) {
+      return false;
+    }
+    // A shared cache stores the response of an authenticated request only when the origin allows it
+    return !response.request().headers().contains(HttpHeaders.AUTHORIZATION)
+      || cacheControl.isPublic() || cacheControl.isMustRevalidate() || cacheControl.sMaxAge() >= 0;
+  }
+
+  /**
+   * @return the freshness lifetime of the response in milliseconds, the explicit lifetime or else 10% of the time
+   *         since the {@code Last-Modified} date up to the heuristic max age, {@code -1} when the response has none.
+   *         The negative responses have their negative max age, or their explicit lifetime when it is shorter
+   */
+  private long freshnessLifetime(ProxyResponse response) {
+    long maxAge = response.maxAge();
+    long limit = negativeMaxAge(response.getStatusCode());
+    if (limit > 0) {
+      // Negative responses are cached for a short time, even without explicit lifetime
+      return maxAge >= 0 ? Math.min(maxAge, limit) : limit;
+    }
+    if (maxAge >= 0) {
+      return maxAge;
+    }
+    if (heuristicMaxAge == 0 || (!isHeuristicallyCacheable(response.getStatusCode()) && !response.publicCacheControl())) {
+      return -1L;
+    }
+    String lastModifiedHeader = response.headers().get(HttpHeaders.LAST_MODIFIED);
+    Instant lastModified = lastModifiedHeader != null ? ParseUtils.parseHeaderDate(lastModifiedHeader) : null;
+    if (lastModified == null) {
+      return -1L;
+    }
+    Instant date = HttpUtils.dateHeader(response.headers());
+    long now = date != null ? date.toEpochMilli() : System.currentTimeMillis();
+    return Math.min((now - lastModified.toEpochMilli()) / 10, heuristicMaxAge);
+  }
+
+  /**
+   * @return the max freshness lifetime of a negative response or a permanent redirect, {@code -1} for the other
+   *         responses or when they are not negatively cached
+   */
+  private long negativeMaxAge(int statusCode) {
+    switch (statusCode) {
+      case 404:
+      case 410:
+        return negativeMaxAge > 0 ? negativeMaxAge : -1L;
+      case 301:
+      case 308:
+        return redirectMaxAge > 0 ? redirectMaxAge : -1L;
+      default:
+        return -1L;
+    }
+  }
+
+  /**
+   * @return whether responses with the status code can be cached with a heuristic freshness lifetime,
+   *         see <a href="https://www.rfc-editor.org/rfc/rfc9110#section-15.1">RFC 9110</a>
+   */
+  private static boolean isHeuristicallyCacheable(int statusCode) {
+    switch (statusCode) {
+      case 200:
+      case 203:
+      case 204:
+      case 300:
+      case 301:
+      case 308:
+      case 404:
+      case 405:
+      case 410:
+      case 414:
+      case 501:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return the time the response was generated by the origin, the {@code Age} set by upstream caches is
+   *         accounted as the initial age of the resource
+   */
+  private static long responseTime(ProxyResponse response) {
+    long now = System.currentTimeMillis();
+    return response instanceof ProxiedResponse ? now - ((ProxiedResponse) response).age() : now;
+  }
+
+
+  private static String cacheKey(ProxyContext context) {
+    String cacheKey = context.get("cache_key", String.class);
+    return cacheKey != null ? cacheKey : context.request().absoluteURI();
+  }
+
+  /**
+   * @return whether the resource is the index of the variants of a URI, an index has no headers
+   */
+  static boolean isVariantIndex(Resource resource) {
+    return resource.getVary() != null && resource.getHeaders() == null;
+  }
+
+  private static String primaryKey(ProxyContext context) {
+    String primaryKey = context.get("cache_primary_key", String.class);
+    return primaryKey != null ? primaryKey : context.request().absoluteURI();
+  }
+
+  /**
+   * @return the sorted lower case header names of a {@code Vary} header, separated by commas, or {@code *}
+   */
+  static String normalizeVary(List<String> values) {
+    TreeSet<String> names = new TreeSet<>();
+    for (String value : values) {
+      for (String name : value.split(",")) {
+        name = name.trim().toLowerCase(Locale.ROOT);
+        if (name.equals("*")) {
+          return "*";
+        }
+        if (!name.isEmpty()) {
+          names.add(name);
+        }
+      }
+    }
+    return names.isEmpty() ? null : String.join(",", names);
+  }
+
+  /**
+   * Build the key of the variant selected by the request headers, the values are normalized so that equivalent
+   * requests select the same variant.
+   */
+  static String variantKey(String primaryKey, String vary, MultiMap requestHeaders) {
+    StringBuilder sb = new StringBuilder(primaryKey);
+    for (String name : vary.split(",")) {
+      sb.append('\n').append(name).append(':');
+      List<String> values = requestHeaders.getAll(name);
+      if (values.isEmpty()) {
+        continue;
+      }
+      boolean caseInsensitive = name.startsWith("accept");
+      List<String> tokens = new ArrayList<>();
+      for (String value : values) {
+        for (String token : value.split(",")) {
+          token = token.replace(" ", "").replace("\t", "");
+          if (!token.isEmpty()) {
+            tokens.add(caseInsensitive ? token.toLowerCase(Locale.ROOT) : token);
+          }
+        }
+      }
+      if (name.equals("accept-encoding")) {
+        // Codings are selected by their quality, not by their order
+        Collections.sort(tokens);
+      }
+      sb.append(String.join(",", tokens));
+    }
+    return sb.toString();
+  }
+
   private static boolean revalidateResource(ProxyResponse response, Resource resource) {
     if (resource.getEtag() != null && response.etag() != null) {
       return resource.getEtag().equals(response.etag());
@@ -98,54 +721,358 @@ class CachingFilter implements ProxyInterceptor {
       return context.sendRequest();
     }
 
-    String cacheKey = proxyRequest.absoluteURI();
-    return cache.get(cacheKey).compose(resource -> {
-      if (resource == null) {
-        return context.sendRequest();
+    String primaryKey = keyBuilder.build(proxyRequest.absoluteURI(), response.headers());
+    context.set("cache_primary_key", primaryKey);
+    return lookup(primaryKey).compose(resource -> {
+      if (resource != null && resource.getVary() != null) {
+        // Variant index, the variant is selected by the request headers
+        OffHeapResource.release(resource);
+        String cacheKey = variantKey(primaryKey, resource.getVary(), response.headers());
+        context.set("cache_key", cacheKey);
+        return lookup(cacheKey).compose(variant -> handleProxyRequestFromCache(context, cacheKey, variant));
       }
+      context.set("cache_key", primaryKey);
+      return handleProxyRequestFromCache(context, primaryKey, resource);
+    });
+  }
 
-      long now = System.currentTimeMillis();
-      long val = resource.getTimestamp() + resource.getMaxAge();
-      if (val < now) {
-        return cache.remove(cacheKey).compose(v -> context.sendRequest());
+  private Future<ProxyResponse> handleProxyRequestFromCache(ProxyContext context, String cacheKey, Resource resource) {
+    HttpMethod method = context.request().proxiedRequest().method();
+    CacheControl directives = requestCacheControl(context.request());
+    boolean onlyIfCached = directives != null && directives.isOnlyIfCached();
+    if (resource == null) {
+      CacheFill cacheFill = filling.get(cacheKey);
+      if (cacheFill != null && method == HttpMethod.GET) {
+        return handleProxyRequestFromFill(context, cacheFill);
+      }
+      if (slicer != null && method == HttpMethod.GET && cacheKey.equals(primaryKey(context))) {
+        return slicer.lookup(cacheKey).compose(first -> {
+          if (first == null) {
+            // The origin response tells whether the resource is sliced
+            return onlyIfCached ? unsatisfied(context) : slicer.probe(context);
+          }
+          context.set("cache_hit", true);
+          return Future.succeededFuture(slicer.serve(context, cacheKey, first));
+        });
       }
+      return onlyIfCached ? unsatisfied(context) : sendRequest(context, cacheKey);
+    }
+    if (resource.getContent() == null) {
+      return handleProxyRequestFromStream(context, cacheKey, resource);
+    }
+    context.set("cache_lease", resource);
 
-      String cacheControlHeader = response.getHeader(HttpHeaders.CACHE_CONTROL);
-      if (cacheControlHeader != null) {
-        CacheControl cacheControl = new CacheControl().parse(cacheControlHeader);
-        if (cacheControl.maxAge() >= 0) {
-          long currentAge = now - resource.getTimestamp();
-          if (currentAge > cacheControl.maxAge() * 1000) {
-            String etag = resource.getHeaders().get(HttpHeaders.ETAG);
-            if (etag != null) {
-              proxyRequest.headers().set(HttpHeaders.IF_NONE_MATCH, resource.getEtag());
-              context.set("cached_resource", resource);
-            }
-            return context.sendRequest();
+    long now = System.currentTimeMillis();
+    long val = resource.getTimestamp() + resource.getMaxAge();
+    if (val < now) {
+      if (directives != null && directives.maxStale() >= 0 && now - val <= directives.maxStale() * 1000L && !resourceCacheControl(resource).isRevalidationRequired()) {
+        // The client accepts the stale resource
+        return handleProxyRequestFromResource(context, resource);
+      }
+      if (method == HttpMethod.GET && now <= val + resource.getStaleWhileRevalidate()) {
+        if (revalidations.add(cacheKey)) {
+          return revalidateInBackground(context, cacheKey, resource);
+        }
+        // Revalidation in progress
+        return handleProxyRequestFromResource(context, resource);
+      }
+      if (onlyIfCached) {
+        return unsatisfied(context);
+      }
+      if (now <= val + staleIfError(resource)) {
+        // Keep the resource until the origin responds
+        context.set("stale_resource", resource);
+        return sendRequest(context, cacheKey).recover(err -> {
+          if (err instanceof ProxyFailure && ((ProxyFailure) err).code() < 500) {
+            // Rejected by an interceptor
+            return Future.failedFuture(err);
           }
+          context.set("stale_resource", null);
+          context.set("cache_hit", true);
+          ProxyRequest proxyRequest = context.request();
+          proxyRequest.release();
+          ProxyResponse proxyResponse = proxyRequest.response();
+          fillResponseFromResource(proxyResponse, resource);
+          return Future.succeededFuture(proxyResponse);
+        });
+      }
+      return cache.remove(cacheKey).compose(v -> sendRequest(context, cacheKey));
+    }
+
+    return handleProxyRequestFromResource(context, resource);
+  }
+
+  private Future<ProxyResponse> handleProxyRequestFromResource(ProxyContext context, Resource resource) {
+
+    ProxyRequest proxyRequest = context.request();
+
+    HttpServerRequest response = proxyRequest.proxiedRequest();
+
+    long now = System.currentTimeMillis();
+    CacheControl cacheControl = requestCacheControl(proxyRequest);
+    if (cacheControl != null) {
+      // no-cache asks for a revalidation, an immutable resource does not change while it is fresh
+      long maxAge = cacheControl.isNoCache() ? 0 : cacheControl.maxAge();
+      boolean revalidate = maxAge >= 0 && now - resource.getTimestamp() > maxAge * 1000
+        && !resourceCacheControl(resource).isImmutable();
+      // min-fresh asks for a resource which stays fresh for the given time
+      if (cacheControl.minFresh() >= 0 && resource.getTimestamp() + resource.getMaxAge() - now < cacheControl.minFresh() * 1000L) {
+        revalidate = true;
+      }
+      if (revalidate) {
+        if (cacheControl.isOnlyIfCached()) {
+          return unsatisfied(context);
         }
+        String etag = resource.getHeaders().get(HttpHeaders.ETAG);
+        if (etag != null) {
+          proxyRequest.headers().set(HttpHeaders.IF_NONE_MATCH, resource.getEtag());
+          context.set("cached_resource", resource);
+        }
+        return context.sendRequest();
+      }
+    }
+
+    //
+    String ifModifiedSinceHeader = response.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+    if ((response.method() == HttpMethod.GET || response.method() == HttpMethod.HEAD) && ifModifiedSinceHeader != null && resource.getLastModified() != null) {
+      Instant ifModifiedSince = ParseUtils.parseHeaderDate(ifModifiedSinceHeader);
+      if (!ifModifiedSince.isAfter(resource.getLastModified())) {
+        context.set("cache_hit", true);
+        return Future.succeededFuture(proxyRequest.release().response().setStatusCode(304));
+      }
+    }
+    context.set("cache_hit", true);
+    proxyRequest.release();
+    ProxyResponse proxyResponse = proxyRequest.response();
+    fillResponseFromResource(proxyResponse, resource);
+    return Future.succeededFuture(proxyResponse);
+  }
+
+  /**
+   * Serve the request with a resource which content is too large to be loaded, the content is streamed from the
+   * cache storage. The origin serves the requests needing the content in memory: revalidations, conditional
+   * requests and ranges.
+   */
+  private Future<ProxyResponse> handleProxyRequestFromStream(ProxyContext context, String cacheKey, Resource resource) {
+    HttpServerRequest request = context.request().proxiedRequest();
+    CacheControl directives = requestCacheControl(context.request());
+    boolean onlyIfCached = directives != null && directives.isOnlyIfCached();
+    if (resource.getTimestamp() + resource.getMaxAge() < System.currentTimeMillis()
+      || (directives != null && (directives.isNoCache() || directives.maxAge() >= 0 || directives.minFresh() >= 0))
+      || request.headers().contains(HttpHeaders.IF_NONE_MATCH)
+      || request.headers().contains(HttpHeaders.IF_MODIFIED_SINCE)
+      || request.headers().contains(HttpHeaderNames.RANGE)) {
+      return onlyIfCached ? unsatisfied(context) : sendRequest(context, cacheKey);
+    }
+    return cache.getStream(cacheKey).compose(streamed -> {
+      if (streamed == null) {
+        return sendRequest(context, cacheKey);
       }
+      return streamed.openBody().map(body -> {
+        context.set("cache_hit", true);
+        ProxyRequest proxyRequest = context.request();
+        proxyRequest.release();
+        ProxyResponse proxyResponse = proxyRequest.response();
+        Resource metadata = streamed.getMetadata();
+        proxyResponse.setStatusCode(metadata.getStatusCode());
+        proxyResponse.setStatusMessage(metadata.getStatusMessage());
+        proxyResponse.headers().addAll(metadata.getHeaders());
+        long age = Math.max(0L, System.currentTimeMillis() - metadata.getTimestamp()) / 1000;
+        proxyResponse.headers().set("age", Long.toString(age));
+        proxyResponse.setBody(Body.body(body, streamed.getLength(), metadata.getHeaders().get(HttpHeaders.CONTENT_TYPE)));
+        return proxyResponse;
+      });
+    });
+  }
+
+  /**
+   * Respond {@code 504} to an {@code only-if-cached} request which cannot be served by the cache, the request is
+   * not sent to the origin.
+   */
+  private static Future<ProxyResponse> unsatisfied(ProxyContext context) {
+    context.set("cache_unsatisfied", true);
+    ProxyRequest proxyRequest = context.request();
+    proxyRequest.release();
+    return Future.succeededFuture(proxyRequest.response().setStatusCode(504));
+  }
+
+  /**
+   * Serve the request with the content of a resource being filled, the content is streamed as it arrives.
+   */
+  private Future<ProxyResponse> handleProxyRequestFromFill(ProxyContext context, CacheFill cacheFill) {
+    context.set("cache_hit", true);
+    ProxyRequest proxyRequest = context.request();
+    proxyRequest.release();
+    ProxyResponse proxyResponse = proxyRequest.response();
+    Resource resource = cacheFill.resource();
+    proxyResponse.setStatusCode(resource.getStatusCode());
+    proxyResponse.setStatusMessage(resource.getStatusMessage());
+    proxyResponse.headers().addAll(resource.getHeaders());
+    ContextInternal ctx = ((VertxInternal) vertx).getOrCreateContext();
+    proxyResponse.setBody(Body.body(cacheFill.reader(ctx), cacheFill.length(), resource.getHeaders().get(HttpHeaders.CONTENT_TYPE)));
+    return Future.succeededFuture(proxyResponse);
+  }
+
+  /**
+   * Serve the stale resource to the client and send a conditional request to the origin, the origin response
+   * updates the cache and is not sent to the client.
+   *
+   * <p> The revalidation is detached from the client request: it goes through the interceptors following the
+   * filter and completes even when the client goes away.
+   */
+  private Future<ProxyResponse> revalidateInBackground(ProxyContext context, String cacheKey, Resource resource) {
+    ProxiedRequest revalidation = new ProxiedRequest((ProxiedRequest) context.request());
+    MultiMap headers = revalidation.headers();
+    headers.remove(HttpHeaderNames.RANGE);
+    headers.remove(HttpHeaderNames.IF_RANGE);
+    headers.remove(HttpHeaders.IF_NONE_MATCH);
+    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+    if (resource.getEtag() != null) {
+      headers.set(HttpHeaders.IF_NONE_MATCH, resource.getEtag());
+    }
+    if (resource.getLastModified() != null) {
+      headers.set(HttpHeaders.IF_MODIFIED_SINCE, ParseUtils.formatHttpDate(resource.getLastModified()));
+    }
+    // The client response releases its own lease
+    Resource lease = OffHeapResource.lease(resource);
+    forwarder.apply(revalidation)
+      .compose(response -> updateRevalidatedResource(cacheKey, lease, response))
+      .onComplete(ar -> {
+        revalidations.remove(cacheKey);
+        OffHeapResource.release(lease);
+      });
+    return handleProxyRequestFromResource(context, resource);
+  }
 
-      //
-      String ifModifiedSinceHeader = response.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
-      if ((response.method() == HttpMethod.GET || response.method() == HttpMethod.HEAD) && ifModifiedSinceHeader != null && resource.getLastModified() != null) {
-        Instant ifModifiedSince = ParseUtils.parseHeaderDate(ifModifiedSinceHeader);
-        if (!ifModifiedSince.isAfter(resource.getLastModified())) {
-          return Future.succeededFuture(proxyRequest.release().response().setStatusCode(304));
+  /**
+   * Send the request to the origin after a cache miss, when collapsed forwarding is enabled only the first miss
+   * of a resource is sent, the following misses wait for its response.
+   */
+  private Future<ProxyResponse> sendRequest(ProxyContext context, String cacheKey) {
+    if (!collapsedForwarding || context.request().getMethod() != HttpMethod.GET) {
+      return context.sendRequest();
+    }
+    Promise<Resource> fill = Promise.promise();
+    Promise<Resource> pending = fills.putIfAbsent(cacheKey, fill);
+    if (pending == null) {
+      context.set("cache_fill", fill);
+      return context.sendRequest().andThen(ar -> {
+        if (ar.failed()) {
+          completeFill(cacheKey, fill, null);
         }
+      });
+    }
+    ContextInternal ctx = ((VertxInternal) vertx).getOrCreateContext();
+    Promise<Resource> promise = ctx.promise();
+    long timerId = vertx.setTimer(collapsedForwardingTimeout, id -> {
+      if (promise.tryComplete(null)) {
+        // Let the next miss be forwarded
+        fills.remove(cacheKey, pending);
       }
-      proxyRequest.release();
-      ProxyResponse proxyResponse = proxyRequest.response();
-      fillResponseFromResource(proxyResponse, resource);
-      return Future.succeededFuture(proxyResponse);
     });
+    pending.future().onComplete(ar -> {
+      vertx.cancelTimer(timerId);
+      promise.tryComplete(ar.succeeded() ? ar.result() : null);
+    });
+    return promise.future().compose(resource -> {
+      if (resource == null) {
+        CacheFill cacheFill = filling.get(cacheKey);
+        if (cacheFill != null) {
+          // The response is being filled, stream it
+          return handleProxyRequestFromFill(context, cacheFill);
+        }
+        return context.sendRequest();
+      }
+      return handleProxyRequestFromResource(context, resource);
+    });
+  }
 
+  private void completeFill(String cacheKey, Promise<Resource> fill, Resource resource) {
+    if (fill != null) {
+      fills.remove(cacheKey, fill);
+      fill.tryComplete(resource);
+    }
   }
 
   public void fillResponseFromResource(ProxyResponse proxyResponse, Resource resource) {
-    proxyResponse.setStatusCode(200);
+    proxyResponse.setStatusCode(resource.getStatusCode());
     proxyResponse.setStatusMessage(resource.getStatusMessage());
     proxyResponse.headers().addAll(resource.getHeaders());
+    long age = Math.max(0L, System.currentTimeMillis() - resource.getTimestamp()) / 1000;
+    proxyResponse.headers().set("age", Long.toString(age));
+    HttpServerRequest request = proxyResponse.request().proxiedRequest();
+    String range = request.method() == HttpMethod.GET ? request.getHeader(HttpHeaderNames.RANGE) : null;
+    if (range != null && resource.getStatusCode() == 200 && ifRange(request.getHeader(HttpHeaderNames.IF_RANGE), resource)) {
+      long[] ranges = ByteRanges.parse(range, resource.getContent().length());
+      if (ranges != null) {
+        fillPartialResponseFromResource(proxyResponse, resource, ranges);
+        return;
+      }
+    }
     proxyResponse.setBody(Body.body(resource.getContent()));
   }
+
+  /**
+   * Fill a {@code 206} response with slices of the resource content, several ranges are sent as a
+   * {@code multipart/byteranges} body. The slices share the memory of the cached content.
+   */
+  private static void fillPartialResponseFromResource(ProxyResponse proxyResponse, Resource resource, long[] ranges) {
+    Buffer content = resource.getContent();
+    int length = content.length();
+    MultiMap headers = proxyResponse.headers();
+    if (ranges.length == 0) {
+      proxyResponse.setStatusCode(416);
+      proxyResponse.setStatusMessage("Range Not Satisfiable");
+      headers.set(HttpHeaderNames.CONTENT_RANGE, "bytes */" + length);
+      proxyResponse.setBody(Body.body(Buffer.buffer()));
+      return;
+    }
+    proxyResponse.setStatusCode(206);
+    proxyResponse.setStatusMessage("Partial Content");
+    String contentType = headers.get(HttpHeaders.CONTENT_TYPE);
+    if (ranges.length == 2) {
+      int first = (int) ranges[0];
+      int last = (int) ranges[1];
+      Buffer slice = content.slice(first, last + 1);
+      headers.set(HttpHeaderNames.CONTENT_RANGE, "bytes " + first + "-" + last + "/" + length);
+      proxyResponse.setBody(Body.body(new BufferedReadStream(slice), slice.length(), contentType));
+      return;
+    }
+    String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    ByteBuf[] parts = new ByteBuf[ranges.length + 1];
+    for (int i = 0; i < ranges.length; i += 2) {
+      int first = (int) ranges[i];
+      int last = (int) ranges[i + 1];
+      StringBuilder part = new StringBuilder("\r\n--").append(boundary).append("\r\n");
+      if (contentType != null) {
+        part.append("Content-Type: ").append(contentType).append("\r\n");
+      }
+      part.append("Content-Range: bytes ").append(first).append('-').append(last).append('/').append(length).append("\r\n\r\n");
+      parts[i] = Unpooled.wrappedBuffer(part.toString().getBytes(StandardCharsets.ISO_8859_1));
+      parts[i + 1] = ((BufferInternal) content.slice(first, last + 1)).getByteBuf();
+    }
+    parts[ranges.length] = Unpooled.wrappedBuffer(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    Buffer body = BufferInternal.buffer(Unpooled.wrappedBuffer(parts));
+    headers.remove(HttpHeaders.CONTENT_TYPE);
+    proxyResponse.setBody(Body.body(new BufferedReadStream(body), body.length(), "multipart/byteranges; boundary=" + boundary));
+  }
+
+  /**
+   * @return whether the {@code If-Range} validator matches the resource, a missing validator always matches
+   */
+  static boolean ifRange(String ifRange, Resource resource) {
+    if (ifRange == null) {
+      return true;
+    }
+    if (ifRange.startsWith("W/")) {
+      return false;
+    }
+    if (ifRange.startsWith("\"")) {
+      // Strong comparison
+      String etag = resource.getEtag();
+      return etag != null && !etag.startsWith("W/") && etag.equals(ifRange);
+    }
+    Instant date = ParseUtils.parseHeaderDate(ifRange);
+    return date != null && date.equals(resource.getLastModified());
+  }
 }
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Closeable;
+import io.vertx.core.Completable;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.AsyncMap;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.cache.CacheStats;
+import io.vertx.httpproxy.spi.cache.Cache;
+import io.vertx.httpproxy.spi.cache.Resource;
+import io.vertx.httpproxy.spi.cache.StreamedResource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A cache sharing its resources between the nodes of a Vert.x cluster.
+ *
+ * <p> Resources are stored in a cluster wide {@link AsyncMap} with a time to live covering their stale windows,
+ * the bounded local caches of the node, a {@link CacheImpl} possibly tiered with a disk cache, serve as near cache
+ * in front of the map. Lookups missing the near cache are served from the map and kept in the near cache, failures
+ * of the map are treated as misses.
+ *
+ * <p> Storing or removing a resource broadcasts an invalidation on the event bus once the map is updated, the other
+ * nodes drop their near copy from all their local caches. Invalidations are published in batches, the near caches
+ * are eventually consistent with the map.
+ *
+ * <p> The surrogate keys of the resources are indexed in a second map holding an entry per tag, the entry maps the
+ * keys of the tagged resources to their expiration time. Purging a tag removes its entry and reads only the keys of
+ * the tagged resources. Expired keys are pruned when the entry is updated.
+ *
+ * <p> The map does not order its keys, prefix purges and key listings are local: a prefix purge removes the resources
+ * held by the nodes from the map and from their local caches, the shared resources held by no node expire with their
+ * time to live. Listings return the keys held by the node.
+ *
+ * <p> Body streams are too large to be shared, they are stored by the local caches of the node only. Storing a stream
+ * removes the shared resource of the key and invalidates the near copies of the other nodes.
+ */
+public class ClusteredCache implements Cache, Closeable {
+
+  /**
+   * The event bus address prefix of the invalidation messages.
+   */
+  static final String INVALIDATION_ADDRESS = "__vertx.http-proxy.cache.invalidation.";
+
+  private final CacheImpl near;
+  private final Cache local;
+  private final Future<AsyncMap<String, Resource>> map;
+  private final Future<AsyncMap<String, JsonObject>> tagIndex;
+  private final CacheInvalidator invalidator;
+  private final Future<Void> ready;
+
+  public ClusteredCache(Vertx vertx, CacheImpl near, CacheOptions options) {
+    this(vertx, near, near, options);
+  }
+
+  /**
+   * @param near the local cache computing the time to live of the resources
+   * @param local the local caches of the node in front of the map, including {@code near}, the invalidations of the
+   *              other nodes are applied to them
+   */
+  public ClusteredCache(Vertx vertx, CacheImpl near, Cache local, CacheOptions options) {
+    String address = options.getInvalidationAddress();
+    if (address == null) {
+      address = INVALIDATION_ADDRESS + options.getName();
+    }
+    this.near = near;
+    this.local = local;
+    // The nodes serializing the resources with another format use other maps
+    String mapName = "__vertx.http-proxy.cache." + options.getName() + ".v" + Resource.FORMAT_VERSION;
+    this.map = vertx.sharedData().getAsyncMap(mapName);
+    this.tagIndex = vertx.sharedData().getAsyncMap(mapName + ".tags");
+    this.invalidator = new CacheInvalidator(vertx, address, options.getInvalidationBatchDelay(), new LocalCache());
+    this.ready = Future.all(map, tagIndex, invalidator.ready()).mapEmpty();
+  }
+
+  /**
+   * @return the future completed when the node receives the invalidations of the other nodes, lookups and stores
+   *         wait for it so that the near cache does not miss an invalidation
+   */
+  public Future<Void> ready() {
+    return ready;
+  }
+
+  @Override
+  public void close(Completable<Void> completion) {
+    invalidator.close(completion);
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource value) {
+    long expiresAt = near.expiresAt(value);
+    Future<Void> f1 = ready.compose(v -> local.put(key, value));
+    Future<Void> f2;
+    if (expiresAt == Long.MAX_VALUE) {
+      f2 = index(key, value, expiresAt).compose(v -> map.compose(m -> m.put(key, value)));
+    } else {
+      long ttl = expiresAt - System.currentTimeMillis();
+      if (ttl <= 0L) {
+        f2 = map.compose(m -> m.remove(key)).mapEmpty();
+      } else {
+        f2 = index(key, value, expiresAt).compose(v -> map.compose(m -> m.put(key, value, ttl)));
+      }
+    }
+    // The other nodes reading the map after the invalidation get the new resource
+    return Future.all(f1, f2).<Void>mapEmpty().andThen(ar -> invalidator.invalidateKey(key));
+  }
+
+  @Override
+  public Future<Resource> get(String key) {
+    return ready.compose(v -> local.get(key)).compose(resource -> {
+      if (resource != null) {
+        return Future.succeededFuture(resource);
+      }
+      return map
+        .compose(m -> m.get(key))
+        .recover(err -> Future.succeededFuture())
+        .compose(shared -> {
+          if (shared == null) {
+            return Future.succeededFuture();
+          }
+          return local.put(key, shared).map(shared);
+        });
+    });
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource metadata, ReadStream<Buffer> body, long length) {
+    Future<Void> f1 = ready.compose(v -> local.put(key, metadata, body, length));
+    Future<Void> f2 = map.compose(m -> m.remove(key)).mapEmpty();
+    return Future.all(f1, f2).<Void>mapEmpty().andThen(ar -> invalidator.invalidateKey(key));
+  }
+
+  @Override
+  public Future<StreamedResource> getStream(String key) {
+    return ready.compose(v -> local.getStream(key));
+  }
+
+  @Override
+  public Future<Void> remove(String key) {
+    Future<Void> f1 = local.remove(key);
+    Future<Void> f2 = map.compose(m -> m.remove(key)).mapEmpty();
+    return Future.all(f1, f2).<Void>mapEmpty().andThen(ar -> invalidator.invalidateKey(key));
+  }
+
+  @Override
+  public Future<Void> removeAll(Collection<String> keys) {
+    Future<Void> f1 = local.removeAll(keys);
+    Future<Void> f2 = removeShared(keys);
+    return Future.all(f1, f2).<Void>mapEmpty().andThen(ar -> {
+      for (String key : keys) {
+        invalidator.invalidateKey(key);
+      }
+    });
+  }
+
+  @Override
+  public Future<Set<String>> removeByTag(String tag) {
+    Future<Set<String>> f1 = local.removeByTag(tag).recover(err -> Future.succeededFuture(Collections.<String>emptySet()));
+    Future<Set<String>> f2 = tagIndex.compose(index -> index.remove(tag)).compose(entry -> {
+      if (entry == null) {
+        return Future.succeededFuture(Collections.<String>emptySet());
+      }
+      Set<String> keys = new LinkedHashSet<>(entry.fieldNames());
+      return removeShared(keys).map(keys);
+    });
+    return Future.all(f1, f2).map(v -> {
+      Set<String> keys = new LinkedHashSet<>(f1.result());
+      keys.addAll(f2.result());
+      return keys;
+    }).andThen(ar -> invalidator.invalidateTag(tag));
+  }
+
+  @Override
+  public Future<Integer> removeByPrefix(String prefix) {
+    return removeHeldPrefix(prefix).andThen(ar -> invalidator.invalidatePrefix(prefix));
+  }
+
+  @Override
+  public Future<List<String>> keys(String prefix, int limit) {
+    // The keys held by the node
+    return local.keys(prefix, limit);
+  }
+
+  @Override
+  public CacheStats stats() {
+    // The near cache serves the lookups
+    return local.stats();
+  }
+
+  /**
+   * Remove the resources held by the node which keys start with the prefix, from the local caches and from the map.
+   */
+  private Future<Integer> removeHeldPrefix(String prefix) {
+    return local.keys(prefix, Integer.MAX_VALUE)
+      .compose(keys -> removeShared(keys).compose(v -> local.removeByPrefix(prefix)));
+  }
+
+  /**
+   * Add the key of a resource to the index entries of its tags.
+   *
+   * @param expiresAt the expiration time of the resource
+   */
+  private Future<Void> index(String key, Resource value, long expiresAt) {
+    String tags = value.getTags();
+    if (tags == null) {
+      return Future.succeededFuture();
+    }
+    return tagIndex.compose(index -> {
+      String[] split = tags.split(" ");
+      List<Future<Void>> futures = new ArrayList<>(split.length);
+      for (String tag : split) {
+        futures.add(index(index, tag, key, expiresAt));
+      }
+      return Future.all(futures);
+    }).mapEmpty();
+  }
+
+  /**
+   * Update the index entry of a tag with a compare and set loop, the entries of concurrent updates are not lost.
+   */
+  private Future<Void> index(AsyncMap<String, JsonObject> index, String tag, String key, long expiresAt) {
+    return index.get(tag).compose(entry -> {
+      long now = System.currentTimeMillis();
+      JsonObject updated = new JsonObject();
+      if (entry != null) {
+        for (String name : entry.fieldNames()) {
+          Long expiration = entry.getLong(name);
+          if (expiration != null && expiration >= now) {
+            updated.put(name, expiration);
+          }
+        }
+      }
+      updated.put(key, expiresAt);
+      Future<Boolean> written;
+      if (entry == null) {
+        written = index.putIfAbsent(tag, updated).map(previous -> previous == null);
+      } else {
+        written = index.replaceIfPresent(tag, entry, updated);
+      }
+      return written.compose(ok -> ok ? Future.<Void>succeededFuture() : index(index, tag, key, expiresAt));
+    });
+  }
+
+  private Future<Void> removeShared(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    return map.compose(m -> {
+      List<Future<Resource>> futures = new ArrayList<>(keys.size());
+      for (String key : keys) {
+        futures.add(m.remove(key));
+      }
+      return Future.all(futures);
+    }).mapEmpty();
+  }
+
+  /**
+   * The view of the local caches on which the invalidations of the other nodes are applied.
+   */
+  private class LocalCache implements Cache {
+
+    @Override
+    public Future<Void> put(String key, Resource value) {
+      return local.put(key, value);
+    }
+
+    @Override
+    public Future<Resource> get(String key) {
+      return local.get(key);
+    }
+
+    @Override
+    public Future<Void> remove(String key) {
+      return local.remove(key);
+    }
+
+    @Override
+    public Future<Set<String>> removeByTag(String tag) {
+      return local.removeByTag(tag);
+    }
+
+    @Override
+    public Future<Integer> removeByPrefix(String prefix) {
+      // The shared resources held by this node are removed as well
+      return removeHeldPrefix(prefix);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * An origin response stream that can be taken over when the client stops consuming it, so the origin response is
+ * not reset and can still be read to the end.
+ */
+class DetachableReadStream implements ReadStream<Buffer> {
+
+  private final ReadStream<Buffer> stream;
+  private final Handler<ReadStream<Buffer>> detachHandler;
+  private boolean done;
+  private boolean detached;
+
+  /**
+   * @param stream the origin response stream
+   * @param detachHandler the handler taking over the stream
+   */
+  DetachableReadStream(ReadStream<Buffer> stream, Handler<ReadStream<Buffer>> detachHandler) {
+    this.stream = stream;
+    this.detachHandler = detachHandler;
+  }
+
+  /**
+   * Detach the stream from the client, the detach handler becomes responsible for reading the stream.
+   *
+   * @return whether the stream has been detached, otherwise the origin response should be reset
+   */
+  boolean detach() {
+    if (done || detached) {
+      return false;
+    }
+    detached = true;
+    detachHandler.handle(stream);
+    return true;
+  }
+
+  boolean isDetached() {
+    return detached;
+  }
+
+  @Override
+  public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+    stream.exceptionHandler(err -> {
+      done = true;
+      if (handler != null) {
+        handler.handle(err);
+      }
+    });
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+    stream.handler(handler);
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> pause() {
+    stream.pause();
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> resume() {
+    stream.resume();
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> fetch(long amount) {
+    stream.fetch(amount);
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+    stream.endHandler(v -> {
+      done = true;
+      if (endHandler != null) {
+        endHandler.handle(null);
+      }
+    });
+    return this;
+  }
+}
@@ -0,0 +1,895 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.netty.util.internal.PlatformDependent;
+import io.vertx.core.Closeable;
+import io.vertx.core.Completable;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.spi.cache.Cache;
+import io.vertx.httpproxy.spi.cache.Resource;
+import io.vertx.httpproxy.spi.cache.StreamedResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistent cache storing resources in append-only memory-mapped segment files.
+ *
+ * <ul>
+ *   <li>a record is appended to the active segment for each put or remove, the active segment is sealed when it is full</li>
+ *   <li>an in-memory index maps each key to the location of its latest record, lookups read a single record. The
+ *   index is ordered, prefix purges and listings visit only the matching keys</li>
+ *   <li>records carry the tags of the resource, an in-memory tag index maps each tag to the keys of its records</li>
+ *   <li>when a segment is sealed, the sealed segment with the most dead records is compacted into the new active
+ *   segment, then the oldest segments are evicted until the segments fit in {@link CacheOptions#getMaxDiskSize()}</li>
+ *   <li>segments are scanned in order to rebuild the index when the cache is opened</li>
+ *   <li>a body stream of known length is written in a record reserved with its final length, the record is padding
+ *   until the whole body has been written and its segment is neither compacted nor evicted meanwhile. The body of
+ *   such a record is read by chunks with {@link #getStream(String)}</li>
+ * </ul>
+ *
+ * <p> Records use the {@link Resource#writeToBuffer(Buffer)} format, all file operations are executed on a worker
+ * executor. Closing the cache unmaps the segments and closes the executor.
+ */
+public class DiskCache implements Cache, Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(DiskCache.class);
+
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+  // The metadata length and the metadata are followed by the content
+  private static final byte STREAM = 3;
+  // A streamed record being written or which stream failed
+  private static final byte SKIP = 4;
+
+  // The size of the chunks of a streamed body
+  private static final int CHUNK_SIZE = 64 * 1024;
+  // The stream is paused while more bytes are waiting to be written
+  private static final int MAX_PENDING_SIZE = 1024 * 1024;
+
+  // Record length, type, key length and tags length
+  private static final int HEADER_SIZE = 4 + 1 + 4 + 4;
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".dat";
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final File directory;
+  private final long maxDiskSize;
+  private final int segmentSize;
+  private final WorkerExecutor executor;
+  private final ConcurrentSkipListMap<String, Location> index = new ConcurrentSkipListMap<>();
+  private final Future<Void> ready;
+
+  // Guarded by writeLock
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+  private final Map<String, Set<String>> tagIndex = new HashMap<>();
+  private Segment active;
+  private long nextSegmentId;
+
+  // Reads hold the read lock while they copy a record, the segments are unmapped under the write lock
+  private final ReentrantReadWriteLock mapLock = new ReentrantReadWriteLock();
+  // Set under writeLock and mapLock
+  private boolean closed;
+
+  public DiskCache(Vertx vertx, CacheOptions options) {
+    this.directory = new File(options.getDiskDirectory());
+    this.maxDiskSize = options.getMaxDiskSize();
+    this.segmentSize = options.getDiskSegmentSize();
+    this.executor = vertx.createSharedWorkerExecutor("vertx-http-proxy-disk-cache");
+    this.ready = executor.<Void>executeBlocking(() -> {
+      open();
+      return null;
+    }).onFailure(err -> log.error("Cannot open disk cache " + directory, err));
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource value) {
+    Buffer payload = Buffer.buffer();
+    value.writeToBuffer(payload);
+    String tags = value.getTags();
+    return ready.compose(v -> executor.executeBlocking(() -> {
+      append(key, PUT, tags, payload);
+      return null;
+    }));
+  }
+
+  @Override
+  public Future<Resource> get(String key) {
+    if (!ready.isComplete()) {
+      return ready.compose(v -> get(key));
+    }
+    Location location = index.get(key);
+    if (location == null) {
+      return Future.succeededFuture();
+    }
+    return executor.executeBlocking(() -> read(key, location), false);
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource metadata, ReadStream<Buffer> body, long length) {
+    if (length < 0L) {
+      // The record is reserved with the length of the body
+      return Cache.super.put(key, metadata, body, length);
+    }
+    if (!ready.isComplete()) {
+      body.pause();
+      return ready.compose(v -> put(key, metadata, body, length));
+    }
+    if (ready.failed()) {
+      return ready;
+    }
+    Buffer payload = Buffer.buffer();
+    metadata.writeToBuffer(payload);
+    return new StreamWriter(key, metadata.getTags(), payload, length, body).start();
+  }
+
+  @Override
+  public Future<StreamedResource> getStream(String key) {
+    if (!ready.isComplete()) {
+      return ready.compose(v -> getStream(key));
+    }
+    Location location = index.get(key);
+    if (location == null) {
+      return Future.succeededFuture();
+    }
+    if (location.type != STREAM) {
+      return Cache.super.getStream(key);
+    }
+    return executor.executeBlocking(() -> readStream(key, location), false);
+  }
+
+  @Override
+  public Future<Void> remove(String key) {
+    // The index is checked after the puts queued before the removal
+    return ready.compose(v -> executor.executeBlocking(() -> {
+      removeIndexed(key);
+      return null;
+    }));
+  }
+
+  @Override
+  public Future<Void> removeAll(Collection<String> keys) {
+    List<String> list = new ArrayList<>(keys);
+    return ready.compose(v -> executor.executeBlocking(() -> {
+      for (String key : list) {
+        removeIndexed(key);
+      }
+      return null;
+    }));
+  }
+
+  @Override
+  public Future<Set<String>> removeByTag(String tag) {
+    return ready.compose(v -> executor.<Set<String>>executeBlocking(() -> {
+      writeLock.lock();
+      try {
+        Set<String> tagged = tagIndex.get(tag);
+        if (tagged == null) {
+          return Collections.<String>emptySet();
+        }
+        Set<String> keys = new LinkedHashSet<>(tagged);
+        for (String key : keys) {
+          append(key, REMOVE, null, null);
+        }
+        return keys;
+      } finally {
+        writeLock.unlock();
+      }
+    }));
+  }
+
+  @Override
+  public Future<Integer> removeByPrefix(String prefix) {
+    return ready.compose(v -> executor.executeBlocking(() -> {
+      int removed = 0;
+      for (String key : index.tailMap(prefix).keySet()) {
+        if (!key.startsWith(prefix)) {
+          break;
+        }
+        // The key may have been removed since it was visited
+        if (removeIndexed(key)) {
+          removed++;
+        }
+      }
+      return removed;
+    }));
+  }
+
+  @Override
+  public Future<List<String>> keys(String prefix, int limit) {
+    return ready.compose(v -> {
+      List<String> keys = new ArrayList<>();
+      for (String key : index.tailMap(prefix).keySet()) {
+        if (keys.size() == limit || !key.startsWith(prefix)) {
+          break;
+        }
+        keys.add(key);
+      }
+      return Future.succeededFuture(keys);
+    });
+  }
+
+  @Override
+  public void close(Completable<Void> completion) {
+    ready.transform(ar -> executor.<Void>executeBlocking(() -> {
+      writeLock.lock();
+      mapLock.writeLock().lock();
+      try {
+        closed = true;
+        if (active != null) {
+          active.buffer.force();
+        }
+        for (Segment segment : segments) {
+          PlatformDependent.freeDirectBuffer(segment.buffer);
+        }
+        segments.clear();
+        index.clear();
+        tagIndex.clear();
+        active = null;
+      } finally {
+        mapLock.writeLock().unlock();
+        writeLock.unlock();
+      }
+      return null;
+    })).onComplete(ar -> {
+      if (ar.failed()) {
+        log.warn("Cannot close disk cache " + directory, ar.cause());
+      }
+      executor.close().onComplete(v -> completion.succeed());
+    });
+  }
+
+  private void open() throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create cache directory " + directory);
+    }
+    File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+    List<Segment> found = new ArrayList<>();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        long id;
+        try {
+          id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+          continue;
+        }
+        found.add(mapSegment(id, file, (int) Math.min(file.length(), Integer.MAX_VALUE)));
+      }
+    }
+    found.sort((s1, s2) -> Long.compare(s1.id, s2.id));
+    writeLock.lock();
+    try {
+      for (Segment segment : found) {
+        int offset = 0;
+        Record record;
+        while ((record = segment.recordAt(offset)) != null) {
+          if (record.type == PUT || record.type == STREAM) {
+            index(record.key, new Location(segment, offset, record.length, record.type, record.tags));
+          } else if (record.type == REMOVE) {
+            unindex(record.key);
+          }
+          offset += record.length;
+        }
+        // The segment is sealed, new records are appended to a new segment
+        segment.position = offset;
+        segments.addLast(segment);
+        nextSegmentId = segment.id + 1;
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private Resource read(String key, Location location) {
+    byte[] bytes = readBytes(location.segment, location.offset, location.length);
+    if (bytes == null) {
+      return null;
+    }
+    Buffer record = Buffer.buffer(bytes);
+    int keyLength = record.getInt(5);
+    int tagsLength = record.getInt(9);
+    if (!key.equals(record.getString(HEADER_SIZE, HEADER_SIZE + keyLength, "UTF-8"))) {
+      // Should not happen
+      return null;
+    }
+    Resource resource = new Resource();
+    try {
+      int pos = HEADER_SIZE + keyLength + tagsLength;
+      if (location.type == STREAM) {
+        int metadataLength = record.getInt(pos);
+        resource.readFromBuffer(pos + 4, record);
+        resource.setContent(record.getBuffer(pos + 4 + metadataLength, record.length()));
+      } else {
+        resource.readFromBuffer(pos, record);
+      }
+    } catch (Exception e) {
+      log.debug("Cannot read cached resource " + key, e);
+      return null;
+    }
+    return resource;
+  }
+
+  /**
+   * Read the metadata of a streamed record, the body is read by chunks when the stream is opened.
+   */
+  private StreamedResource readStream(String key, Location location) {
+    Segment segment = location.segment;
+    byte[] bytes;
+    mapLock.readLock().lock();
+    try {
+      if (closed) {
+        return null;
+      }
+      ByteBuffer buffer = segment.buffer;
+      int metadataOffset = location.offset + HEADER_SIZE + buffer.getInt(location.offset + 5) + buffer.getInt(location.offset + 9);
+      bytes = new byte[metadataOffset + 4 + buffer.getInt(metadataOffset) - location.offset];
+      ByteBuffer dup = buffer.duplicate();
+      dup.position(location.offset);
+      dup.get(bytes);
+    } finally {
+      mapLock.readLock().unlock();
+    }
+    Buffer record = Buffer.buffer(bytes);
+    int keyLength = record.getInt(5);
+    if (!key.equals(record.getString(HEADER_SIZE, HEADER_SIZE + keyLength, "UTF-8"))) {
+      // Should not happen
+      return null;
+    }
+    Resource metadata = new Resource();
+    try {
+      metadata.readFromBuffer(HEADER_SIZE + keyLength + record.getInt(9) + 4, record);
+    } catch (Exception e) {
+      log.debug("Cannot read cached resource " + key, e);
+      return null;
+    }
+    metadata.setContent(null);
+    int contentOffset = location.offset + bytes.length;
+    long length = location.length - bytes.length;
+    return new StreamedResource(metadata, length, () -> Future.succeededFuture(openBody(segment, contentOffset, length)));
+  }
+
+  private ReadStream<Buffer> openBody(Segment segment, int contentOffset, long length) {
+    int count = (int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    if (count == 0) {
+      return new BufferedReadStream();
+    }
+    return new SliceReadStream(i -> executor.executeBlocking(() -> {
+      int start = contentOffset + i * CHUNK_SIZE;
+      int end = (int) Math.min(contentOffset + length, (long) start + CHUNK_SIZE);
+      byte[] bytes = readBytes(segment, start, end - start);
+      if (bytes == null) {
+        throw new IllegalStateException("Disk cache " + directory + " is closed");
+      }
+      return Buffer.buffer(bytes);
+    }, false), count);
+  }
+
+  /**
+   * @return the bytes of the segment or {@code null} when the cache is closed
+   */
+  private byte[] readBytes(Segment segment, int offset, int length) {
+    byte[] bytes = new byte[length];
+    mapLock.readLock().lock();
+    try {
+      if (closed) {
+        return null;
+      }
+      ByteBuffer buffer = segment.buffer.duplicate();
+      buffer.position(offset);
+      buffer.get(bytes);
+    } finally {
+      mapLock.readLock().unlock();
+    }
+    return bytes;
+  }
+
+  /**
+   * Append a removal record when the key is indexed.
+   *
+   * @return whether the key was indexed
+   */
+  private boolean removeIndexed(String key) throws IOException {
+    writeLock.lock();
+    try {
+      if (index.containsKey(key)) {
+        append(key, REMOVE, null, null);
+        return true;
+      }
+      return false;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void append(String key, byte type, String tags, Buffer payload) throws IOException {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    byte[] tagsBytes = tags != null ? tags.getBytes(StandardCharsets.UTF_8) : EMPTY;
+    long length = (long) HEADER_SIZE + keyBytes.length + tagsBytes.length + (payload != null ? payload.length() : 0);
+    writeLock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Disk cache " + directory + " is closed");
+      }
+      if (length > segmentSize) {
+        // Too large to be cached, the previous record is discarded
+        if (index.containsKey(key)) {
+          append(key, REMOVE, null, null);
+        }
+        return;
+      }
+      if (active == null || active.position + length > segmentSize) {
+        roll();
+      }
+      Location location = active.write(type, keyBytes, tagsBytes, payload == null ? null : payload.getBytes());
+      if (type == PUT) {
+        index(key, location);
+      } else {
+        unindex(key);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void index(String key, Location location) {
+    location.segment.live += location.length;
+    Location previous = index.put(key, location);
+    if (previous != null) {
+      previous.segment.live -= previous.length;
+      untag(key, previous);
+    }
+    if (location.tags != null) {
+      for (String tag : location.tags.split(" ")) {
+        tagIndex.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+      }
+    }
+  }
+
+  private void unindex(String key) {
+    Location previous = index.remove(key);
+    if (previous != null) {
+      previous.segment.live -= previous.length;
+      untag(key, previous);
+    }
+  }
+
+  private void untag(String key, Location location) {
+    if (location.tags == null) {
+      return;
+    }
+    for (String tag : location.tags.split(" ")) {
+      Set<String> keys = tagIndex.get(tag);
+      if (keys != null && keys.remove(key) && keys.isEmpty()) {
+        tagIndex.remove(tag);
+      }
+    }
+  }
+
+  /**
+   * Seal the active segment, compact the sealed segment with the most dead records in the new active segment
+   * and evict the oldest segments exceeding the disk budget.
+   */
+  private void roll() throws IOException {
+    if (active != null) {
+      active.buffer.force();
+    }
+    long id = nextSegmentId++;
+    active = mapSegment(id, new File(directory, SEGMENT_PREFIX + id + SEGMENT_SUFFIX), segmentSize);
+    segments.addLast(active);
+    compact();
+    while (segments.size() > 1 && (long) segments.size() * segmentSize > maxDiskSize && segments.peekFirst().pending == 0) {
+      evict(segments.peekFirst());
+    }
+  }
+
+  /**
+   * Copy the live records of the sealed segment having less than half live records in the new active segment,
+   * the copy always fits in the empty active segment.
+   */
+  private void compact() {
+    Segment candidate = null;
+    for (Segment segment : segments) {
+      if (segment != active && segment.pending == 0 && segment.live * 2 < segment.position && (candidate == null || segment.live < candidate.live)) {
+        candidate = segment;
+      }
+    }
+    if (candidate == null) {
+      return;
+    }
+    // Removals must be kept as long as an older segment may contain a record they discard
+    boolean keepRemovals = candidate != segments.peekFirst();
+    int offset = 0;
+    Record record;
+    while ((record = candidate.recordAt(offset)) != null) {
+      if (active.position + record.length > segmentSize) {
+        // Cannot happen unless removals fill the segment, keep the candidate
+        return;
+      }
+      if (record.type == PUT || record.type == STREAM) {
+        Location location = index.get(record.key);
+        if (location != null && location.segment == candidate && location.offset == offset) {
+          index(record.key, active.copy(candidate, offset, record.length, record.type, record.tags));
+        }
+      } else if (record.type == REMOVE && keepRemovals && !index.containsKey(record.key)) {
+        active.copy(candidate, offset, record.length, record.type, null);
+      }
+      offset += record.length;
+    }
+    delete(candidate);
+  }
+
+  private void evict(Segment segment) {
+    int offset = 0;
+    Record record;
+    while ((record = segment.recordAt(offset)) != null) {
+      if (record.type == PUT || record.type == STREAM) {
+        Location location = index.get(record.key);
+        if (location != null && location.segment == segment) {
+          unindex(record.key);
+        }
+      }
+      offset += record.length;
+    }
+    delete(segment);
+  }
+
+  private void delete(Segment segment) {
+    segments.remove(segment);
+    // The mapping stays valid for concurrent readers until it is garbage collected
+    if (!segment.file.delete()) {
+      log.warn("Cannot delete cache segment " + segment.file);
+    }
+  }
+
+  private static Segment mapSegment(long id, File file, int size) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+      if (raf.length() < size) {
+        raf.setLength(size);
+      }
+      return new Segment(id, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+  }
+
+  /**
+   * Write a body stream in a record reserved with the length of the body. The chunks are written in order on the
+   * worker executor, the stream is paused while too many bytes are waiting to be written. The record is indexed
+   * once the whole body has been written, it stays padding when the stream fails.
+   */
+  private class StreamWriter {
+
+    private final String key;
+    private final String tags;
+    private final Buffer metadata;
+    private final long length;
+    private final ReadStream<Buffer> body;
+    private final Promise<Void> promise = Promise.promise();
+    // Accessed on the event loop
+    private long pendingSize;
+    private boolean paused;
+    // Accessed by the ordered tasks of the worker executor
+    private Exception failure;
+    private boolean skipped;
+    private Segment segment;
+    private int offset;
+    private int recordLength;
+    private int contentOffset;
+    private long written;
+
+    StreamWriter(String key, String tags, Buffer metadata, long length, ReadStream<Buffer> body) {
+      this.key = key;
+      this.tags = tags;
+      this.metadata = metadata;
+      this.length = length;
+      this.body = body;
+    }
+
+    Future<Void> start() {
+      submit(this::reserve, 0);
+      body.exceptionHandler(err -> {
+        promise.tryFail(err);
+        submit(() -> {
+          throw new IOException("Cannot read the body of " + key, err);
+        }, 0);
+      });
+      body.endHandler(v -> submit(this::commit, 0).onSuccess(promise::tryComplete));
+      body.handler(chunk -> submit(() -> write(chunk), chunk.length()));
+      body.resume();
+      return promise.future();
+    }
+
+    private Future<Void> submit(Callable<Void> task, int size) {
+      pendingSize += size;
+      if (!paused && pendingSize > MAX_PENDING_SIZE) {
+        paused = true;
+        body.pause();
+      }
+      return executor.<Void>executeBlocking(() -> {
+        if (failure == null) {
+          try {
+            task.call();
+          } catch (Exception e) {
+            failure = e;
+            release();
+          }
+        }
+        if (failure != null) {
+          throw failure;
+        }
+        return null;
+      }).andThen(ar -> {
+        pendingSize -= size;
+        if (paused && pendingSize <= MAX_PENDING_SIZE / 2) {
+          paused = false;
+          body.resume();
+        }
+        if (ar.failed()) {
+          promise.tryFail(ar.cause());
+        }
+      });
+    }
+
+    private Void reserve() throws IOException {
+      byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+      byte[] tagsBytes = tags != null ? tags.getBytes(StandardCharsets.UTF_8) : EMPTY;
+      long size = (long) HEADER_SIZE + keyBytes.length + tagsBytes.length + 4 + metadata.length() + length;
+      writeLock.lock();
+      try {
+        if (closed) {
+          throw new IllegalStateException("Disk cache " + directory + " is closed");
+        }
+        if (size > segmentSize) {
+          // Too large to be cached, the previous record is discarded
+          skipped = true;
+          if (index.containsKey(key)) {
+            append(key, REMOVE, null, null);
+          }
+          return null;
+        }
+        if (active == null || active.position + size > segmentSize) {
+          roll();
+        }
+        segment = active;
+        segment.pending++;
+        offset = segment.position;
+        recordLength = (int) size;
+        contentOffset = segment.reserve(keyBytes, tagsBytes, metadata.getBytes(), recordLength);
+      } finally {
+        writeLock.unlock();
+      }
+      return null;
+    }
+
+    private Void write(Buffer chunk) {
+      if (skipped) {
+        return null;
+      }
+      byte[] bytes = chunk.getBytes();
+      if (written + bytes.length > length) {
+        throw new IllegalStateException("The body of " + key + " exceeds " + length + " bytes");
+      }
+      mapLock.readLock().lock();
+      try {
+        if (closed) {
+          throw new IllegalStateException("Disk cache " + directory + " is closed");
+        }
+        ByteBuffer dup = segment.buffer.duplicate();
+        dup.position(contentOffset + (int) written);
+        dup.put(bytes);
+      } finally {
+        mapLock.readLock().unlock();
+      }
+      written += bytes.length;
+      return null;
+    }
+
+    private Void commit() {
+      if (skipped) {
+        return null;
+      }
+      if (written != length) {
+        throw new IllegalStateException("The body of " + key + " has " + written + " bytes instead of " + length);
+      }
+      writeLock.lock();
+      try {
+        if (closed) {
+          throw new IllegalStateException("Disk cache " + directory + " is closed");
+        }
+        // The type is written last, it commits the record
+        Segment target = segment;
+        target.buffer.put(offset + 4, STREAM);
+        release();
+        index(key, new Location(target, offset, recordLength, STREAM, tags));
+      } finally {
+        writeLock.unlock();
+      }
+      return null;
+    }
+
+    /**
+     * Let the segment be compacted or evicted.
+     */
+    private void release() {
+      if (segment == null) {
+        return;
+      }
+      writeLock.lock();
+      try {
+        segment.pending--;
+        segment = null;
+      } finally {
+        writeLock.unlock();
+      }
+    }
+  }
+
+  private static class Location {
+
+    final Segment segment;
+    final int offset;
+    final int length;
+    final byte type;
+    final String tags;
+
+    Location(Segment segment, int offset, int length, byte type, String tags) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+      this.type = type;
+      this.tags = tags;
+    }
+  }
+
+  private static class Record {
+
+    final byte type;
+    final String key;
+    final String tags;
+    final int length;
+
+    Record(byte type, String key, String tags, int length) {
+      this.type = type;
+      this.key = key;
+      this.tags = tags;
+      this.length = length;
+    }
+  }
+
+  private static class Segment {
+
+    final long id;
+    final File file;
+    final MappedByteBuffer buffer;
+    // Guarded by writeLock
+    int position;
+    long live;
+    // The streamed records being written
+    int pending;
+
+    Segment(long id, File file, MappedByteBuffer buffer) {
+      this.id = id;
+      this.file = file;
+      this.buffer = buffer;
+    }
+
+    /**
+     * @return the record at the offset or {@code null} at the end of the written records
+     */
+    Record recordAt(int offset) {
+      int limit = buffer.capacity();
+      if (offset + HEADER_SIZE > limit) {
+        return null;
+      }
+      int length = buffer.getInt(offset);
+      if (length < HEADER_SIZE || offset + length > limit) {
+        return null;
+      }
+      byte type = buffer.get(offset + 4);
+      int keyLength = buffer.getInt(offset + 5);
+      int tagsLength = buffer.getInt(offset + 9);
+      if ((type != PUT && type != REMOVE && type != STREAM && type != SKIP) || keyLength < 0 || tagsLength < 0 || (long) HEADER_SIZE + keyLength + tagsLength > length) {
+        return null;
+      }
+      byte[] key = new byte[keyLength];
+      byte[] tags = new byte[tagsLength];
+      ByteBuffer dup = buffer.duplicate();
+      dup.position(offset + HEADER_SIZE);
+      dup.get(key);
+      dup.get(tags);
+      return new Record(type, new String(key, StandardCharsets.UTF_8), tagsLength > 0 ? new String(tags, StandardCharsets.UTF_8) : null, length);
+    }
+
+    Location write(byte type, byte[] key, byte[] tags, byte[] payload) {
+      int offset = position;
+      int length = HEADER_SIZE + key.length + tags.length + (payload != null ? payload.length : 0);
+      ByteBuffer dup = buffer.duplicate();
+      dup.position(offset + 4);
+      dup.put(type);
+      dup.putInt(key.length);
+      dup.putInt(tags.length);
+      dup.put(key);
+      dup.put(tags);
+      if (payload != null) {
+        dup.put(payload);
+      }
+      // The length is written last, it commits the record
+      buffer.putInt(offset, length);
+      position += length;
+      return new Location(this, offset, length, type, tags.length > 0 ? new String(tags, StandardCharsets.UTF_8) : null);
+    }
+
+    /**
+     * Reserve a streamed record, the record is padding until its type is written.
+     *
+     * @return the offset of the content
+     */
+    int reserve(byte[] key, byte[] tags, byte[] metadata, int length) {
+      int offset = position;
+      ByteBuffer dup = buffer.duplicate();
+      dup.position(offset + 4);
+      dup.put(SKIP);
+      dup.putInt(key.length);
+      dup.putInt(tags.length);
+      dup.put(key);
+      dup.put(tags);
+      dup.putInt(metadata.length);
+      dup.put(metadata);
+      buffer.putInt(offset, length);
+      position += length;
+      return dup.position();
+    }
+
+    Location copy(Segment from, int offset, int length, byte type, String tags) {
+      byte[] bytes = new byte[length];
+      ByteBuffer src = from.buffer.duplicate();
+      src.position(offset);
+      src.get(bytes);
+      ByteBuffer dup = buffer.duplicate();
+      dup.position(position + 4);
+      dup.put(bytes, 4, length - 4);
+      buffer.putInt(position, length);
+      Location location = new Location(this, position, length, type, tags);
+      position += length;
+      return location;
+    }
+  }
+}
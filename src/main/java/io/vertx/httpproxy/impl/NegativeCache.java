@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.cache.CacheStats;
+import io.vertx.httpproxy.spi.cache.Cache;
+import io.vertx.httpproxy.spi.cache.Resource;
+import io.vertx.httpproxy.spi.cache.StreamedResource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A cache storing the negative responses and the permanent redirects apart from the other resources, see
+ * {@link CacheOptions#getNegativeMaxAge()}.
+ *
+ * <p> The negative resources are kept in a small local cache with its own budget so that they cannot evict the
+ * other resources. A key is held by a single store, storing a resource removes the key from the other store.
+ */
+public class NegativeCache implements Cache {
+
+  /**
+   * @return whether a response with the status code is stored apart
+   */
+  static boolean isNegative(int statusCode) {
+    switch (statusCode) {
+      case 301:
+      case 308:
+      case 404:
+      case 410:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private final Cache cache;
+  private final CacheImpl negative;
+
+  public NegativeCache(Cache cache, CacheImpl negative) {
+    this.cache = cache;
+    this.negative = negative;
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource value) {
+    Future<Void> f1;
+    Future<Void> f2;
+    if (isNegative(value.getStatusCode())) {
+      f1 = negative.put(key, value);
+      f2 = cache.remove(key);
+    } else {
+      f1 = cache.put(key, value);
+      f2 = negative.remove(key);
+    }
+    return Future.all(f1, f2).mapEmpty();
+  }
+
+  @Override
+  public Future<Resource> get(String key) {
+    return cache.get(key).compose(resource -> {
+      if (resource != null) {
+        return Future.succeededFuture(resource);
+      }
+      return negative.get(key);
+    });
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource metadata, ReadStream<Buffer> body, long length) {
+    if (isNegative(metadata.getStatusCode())) {
+      // Collected and stored in the negative store
+      return Cache.super.put(key, metadata, body, length);
+    }
+    Future<Void> f1 = cache.put(key, metadata, body, length);
+    Future<Void> f2 = negative.remove(key);
+    return Future.all(f1, f2).mapEmpty();
+  }
+
+  @Override
+  public Future<StreamedResource> getStream(String key) {
+    return cache.getStream(key).compose(streamed -> {
+      if (streamed != null) {
+        return Future.succeededFuture(streamed);
+      }
+      return negative.getStream(key);
+    });
+  }
+
+  @Override
+  public Future<Void> remove(String key) {
+    Future<Void> f1 = cache.remove(key);
+    Future<Void> f2 = negative.remove(key);
+    return Future.all(f1, f2).mapEmpty();
+  }
+
+  @Override
+  public Future<Void> removeAll(Collection<String> keys) {
+    Future<Void> f1 = cache.removeAll(keys);
+    Future<Void> f2 = negative.removeAll(keys);
+    return Future.all(f1, f2).mapEmpty();
+  }
+
+  @Override
+  public Future<Set<String>> removeByTag(String tag) {
+    Future<Set<String>> f1 = cache.removeByTag(tag);
+    Future<Set<String>> f2 = negative.removeByTag(tag);
+    return Future.all(f1, f2).map(v -> {
+      Set<String> all = new LinkedHashSet<>(f1.result());
+      all.addAll(f2.result());
+      return all;
+    });
+  }
+
+  @Override
+  public Future<Integer> removeByPrefix(String prefix) {
+    Future<Integer> f1 = cache.removeByPrefix(prefix);
+    Future<Integer> f2 = negative.removeByPrefix(prefix);
+    return Future.all(f1, f2).map(v -> f1.result() + f2.result());
+  }
+
+  @Override
+  public Future<List<String>> keys(String prefix, int limit) {
+    Future<List<String>> f1 = cache.keys(prefix, limit);
+    Future<List<String>> f2 = negative.keys(prefix, limit);
+    return Future.all(f1, f2).map(v -> {
+      TreeSet<String> keys = new TreeSet<>(f1.result());
+      keys.addAll(f2.result());
+      List<String> list = new ArrayList<>(limit);
+      for (String key : keys) {
+        if (list.size() == limit) {
+          break;
+        }
+        list.add(key);
+      }
+      return list;
+    });
+  }
+
+  @Override
+  public CacheStats stats() {
+    CacheStats stats = cache.stats();
+    CacheStats negativeStats = negative.stats();
+    return stats
+      .setEvictionCount(stats.getEvictionCount() + negativeStats.getEvictionCount())
+      .setExpirationCount(stats.getExpirationCount() + negativeStats.getExpirationCount())
+      .setSize(stats.getSize() + negativeStats.getSize())
+      .setContentSize(stats.getContentSize() + negativeStats.getContentSize());
+  }
+}
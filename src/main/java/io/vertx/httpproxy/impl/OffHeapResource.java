@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.internal.buffer.BufferInternal;
+import io.vertx.httpproxy.spi.cache.Resource;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A resource which content is stored in pooled direct memory.
+ *
+ * <p> The cache owns a reference on the memory and hands out leases to the requests it serves, the memory is
+ * returned to the pool when the resource has been evicted and all the leases have been released. Leases share
+ * the memory of the resource, a hit is written to the socket without being copied to the heap.
+ */
+class OffHeapResource extends Resource {
+
+  private final ByteBuf memory;
+  private final AtomicInteger refCnt;
+  private final AtomicBoolean released = new AtomicBoolean();
+
+  private OffHeapResource(Resource resource, ByteBuf memory, AtomicInteger refCnt) {
+    this.memory = memory;
+    this.refCnt = refCnt;
+    setAbsoluteUri(resource.getAbsoluteUri());
+    setStatusCode(resource.getStatusCode());
+    setStatusMessage(resource.getStatusMessage());
+    setHeaders(resource.getHeaders());
+    setTimestamp(resource.getTimestamp());
+    setMaxAge(resource.getMaxAge());
+    setStaleWhileRevalidate(resource.getStaleWhileRevalidate());
+    setStaleIfError(resource.getStaleIfError());
+    setLastModified(resource.getLastModified());
+    setEtag(resource.getEtag());
+    setVary(resource.getVary());
+    setTags(resource.getTags());
+    setContent(BufferInternal.buffer(memory.duplicate()));
+  }
+
+  /**
+   * Copy the content of a resource in pooled direct memory.
+   */
+  static OffHeapResource copyOf(Resource resource) {
+    Buffer content = resource.getContent();
+    int length = content != null ? content.length() : 0;
+    ByteBuf memory = PooledByteBufAllocator.DEFAULT.directBuffer(length, length);
+    if (length > 0) {
+      memory.writeBytes(((BufferInternal) content).getByteBuf());
+    }
+    return new OffHeapResource(resource, memory, new AtomicInteger(1));
+  }
+
+  /**
+   * @return a lease sharing the memory of this resource or {@code null} when the memory has been released
+   */
+  OffHeapResource lease() {
+    while (true) {
+      int cnt = refCnt.get();
+      if (cnt == 0) {
+        return null;
+      }
+      if (refCnt.compareAndSet(cnt, cnt + 1)) {
+        return new OffHeapResource(this, memory, refCnt);
+      }
+    }
+  }
+
+  /**
+   * Release this reference on the memory, subsequent calls have no effect.
+   */
+  void release() {
+    if (released.compareAndSet(false, true) && refCnt.decrementAndGet() == 0) {
+      memory.release();
+    }
+  }
+
+  /**
+   * @return a lease when the resource is stored off-heap, otherwise the resource itself
+   */
+  static Resource lease(Resource resource) {
+    if (resource instanceof OffHeapResource) {
+      return ((OffHeapResource) resource).lease();
+    }
+    return resource;
+  }
+
+  /**
+   * Release the resource when it is stored off-heap.
+   */
+  static void release(Resource resource) {
+    if (resource instanceof OffHeapResource) {
+      ((OffHeapResource) resource).release();
+    }
+  }
+}
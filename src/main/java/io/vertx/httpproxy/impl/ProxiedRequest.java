@@ -65,6 +65,7 @@ public class ProxiedRequest implements ProxyRequest {
   HttpClientRequest request;
   private final HttpServerRequest proxiedRequest;
   private final int forwardedHeadersFlags;
+  private final boolean detached;
 
   public ProxiedRequest(HttpServerRequest proxiedRequest, ForwardedHeadersOptions forwardedHeadersOptions) {
     // Determine content length
@@ -93,6 +94,27 @@ public class ProxiedRequest implements ProxyRequest {
 
     // Convert forwarded headers options to bit flags for efficient checking
     this.forwardedHeadersFlags = buildForwardedHeadersFlags(forwardedHeadersOptions);
+    this.detached = false;
+  }
+
+  /**
+   * Create a {@code GET} request without body for the same resource, with a copy of the headers of the request.
+   *
+   * <p> The request is detached from the client connection, the origin request is not reset when the client
+   * goes away.
+   */
+  ProxiedRequest(ProxiedRequest request) {
+    this.method = HttpMethod.GET;
+    this.version = request.version;
+    this.body = null;
+    this.uri = request.uri;
+    this.headers = MultiMap.caseInsensitiveMultiMap().addAll(request.headers);
+    this.absoluteURI = request.absoluteURI;
+    this.proxiedRequest = request.proxiedRequest;
+    this.context = request.context;
+    this.authority = request.authority;
+    this.forwardedHeadersFlags = request.forwardedHeadersFlags;
+    this.detached = true;
   }
 
   private static int buildForwardedHeadersFlags(ForwardedHeadersOptions options) {
@@ -194,7 +216,9 @@ public class ProxiedRequest implements ProxyRequest {
   }
 
   Future<ProxyResponse> sendRequest() {
-    proxiedRequest.response().exceptionHandler(throwable -> request.reset(0L, throwable));
+    if (!detached) {
+      proxiedRequest.response().exceptionHandler(throwable -> request.reset(0L, throwable));
+    }
 
     request.setMethod(method);
     request.setURI(uri);
@@ -224,7 +248,7 @@ public class ProxiedRequest implements ProxyRequest {
     }
 
     if (body == null) {
-      if (proxiedRequest.headers().contains(CONTENT_LENGTH)) {
+      if (!detached && proxiedRequest.headers().contains(CONTENT_LENGTH)) {
         request.putHeader(CONTENT_LENGTH, "0");
       }
       request.end();
@@ -41,8 +41,10 @@ class ProxiedResponse implements ProxyResponse {
   private final MultiMap headers;
   private HttpClientResponse response;
   private long maxAge;
+  private long age;
   private String etag;
   private boolean publicCacheControl;
+  private CacheControl cacheControl;
 
   ProxiedResponse(ProxiedRequest request, HttpServerResponse proxiedResponse) {
     this.response = null;
@@ -75,26 +77,37 @@ class ProxiedResponse implements ProxyResponse {
     this.statusMessage = response.statusMessage();
     this.body = Body.body(response, contentLength, contentType);
 
-    long maxAge = -1;
-    boolean publicCacheControl = false;
+    CacheControl cacheControl = new CacheControl();
     String cacheControlHeader = response.getHeader(HttpHeaders.CACHE_CONTROL);
     if (cacheControlHeader != null) {
-      CacheControl cacheControl = new CacheControl().parse(cacheControlHeader);
-      if (cacheControl.isPublic()) {
-        publicCacheControl = true;
-        if (cacheControl.maxAge() > 0) {
-          maxAge = (long)cacheControl.maxAge() * 1000;
-        } else {
-          String dateHeader = response.getHeader(HttpHeaders.DATE);
-          String expiresHeader = response.getHeader(HttpHeaders.EXPIRES);
-          if (dateHeader != null && expiresHeader != null) {
-            maxAge = ParseUtils.parseHeaderDate(expiresHeader).toEpochMilli() - ParseUtils.parseHeaderDate(dateHeader).toEpochMilli();
-          }
-        }
+      cacheControl.parse(cacheControlHeader);
+    }
+    long maxAge = -1;
+    if (cacheControl.sharedMaxAge() >= 0) {
+      maxAge = (long)cacheControl.sharedMaxAge() * 1000;
+    } else {
+      String expiresHeader = response.getHeader(HttpHeaders.EXPIRES);
+      if (expiresHeader != null) {
+        // An invalid date such as 0 represents a time in the past
+        Instant expires = ParseUtils.parseHeaderDate(expiresHeader);
+        Instant date = HttpUtils.dateHeader(response.headers());
+        long now = date != null ? date.toEpochMilli() : System.currentTimeMillis();
+        maxAge = expires != null ? Math.max(0L, expires.toEpochMilli() - now) : 0L;
+      }
+    }
+    long age = 0L;
+    String ageHeader = response.getHeader("age");
+    if (ageHeader != null) {
+      try {
+        age = Math.max(0L, Long.parseLong(ageHeader.trim())) * 1000;
+      } catch (NumberFormatException e) {
+        // Ignore
       }
     }
     this.maxAge = maxAge;
-    this.publicCacheControl = publicCacheControl;
+    this.age = age;
+    this.publicCacheControl = cacheControl.isPublic();
+    this.cacheControl = cacheControl;
     this.etag = response.getHeader(HttpHeaders.ETAG);
     this.headers = MultiMap.caseInsensitiveMultiMap().addAll(response.headers());
   }
@@ -152,6 +165,22 @@ class ProxiedResponse implements ProxyResponse {
     return maxAge;
   }
 
+  /**
+   * @return the age in milliseconds of the origin response when it was received, from the {@code Age} header
+   *         set by upstream caches
+   */
+  long age() {
+    return age;
+  }
+
+  /**
+   * @return the directives of the origin response {@code Cache-Control} header, {@code null} when the response
+   *         is not an origin response
+   */
+  CacheControl cacheControl() {
+    return cacheControl;
+  }
+
   @Override
   public String etag() {
     return etag;
@@ -281,7 +310,9 @@ class ProxiedResponse implements ProxyResponse {
       })
       .andThen(ar -> {
         if (ar.failed()) {
-          request.request.reset();
+          if (!(body instanceof DetachableReadStream) || !((DetachableReadStream) body).detach()) {
+            request.request.reset();
+          }
           proxiedResponse.reset();
         }
       });
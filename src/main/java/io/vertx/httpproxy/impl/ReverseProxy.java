@@ -11,6 +11,8 @@
 package io.vertx.httpproxy.impl;
 
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
@@ -23,6 +25,7 @@ import io.vertx.core.net.NetSocket;
 import io.vertx.core.streams.ReadStream;
 import io.vertx.httpproxy.*;
 import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.cache.CacheStats;
 import io.vertx.httpproxy.spi.cache.Cache;
 
 import java.util.*;
@@ -37,12 +40,17 @@ public class ReverseProxy implements HttpProxy {
   private final ForwardedHeadersOptions forwardedHeadersOptions;
   private OriginRequestProvider originRequestProvider = (pc) -> Future.failedFuture("No origin available");
   private final List<ProxyInterceptorEntry> interceptors = new ArrayList<>();
+  private final CachingFilter cachingFilter;
 
   public ReverseProxy(ProxyOptions options, HttpClient client) {
     CacheOptions cacheOptions = options.getCacheOptions();
     if (cacheOptions != null) {
-      Cache cache = newCache(cacheOptions, ((HttpClientInternal) client).vertx());
-      addInterceptor(new CachingFilter(cache));
+      Vertx vertx = ((HttpClientInternal) client).vertx();
+      Cache cache = newCache(cacheOptions, vertx);
+      cachingFilter = new CachingFilter(vertx, cache, cacheOptions, this::forward);
+      addInterceptor(cachingFilter);
+    } else {
+      cachingFilter = null;
     }
     this.client = client;
     this.supportWebSocket = options.getSupportWebSocket();
@@ -50,13 +58,67 @@ public class ReverseProxy implements HttpProxy {
   }
 
   public Cache newCache(CacheOptions options, Vertx vertx) {
+    // Closed with the deployment creating the proxy, or with Vert.x
+    CloseFuture closeFuture = new CloseFuture();
+    ((VertxInternal) vertx).addCloseHook(closeFuture);
     if (options.isShared()) {
-      CloseFuture closeFuture = new CloseFuture();
+      // The cache is closed when all the proxies sharing it are closed
       return ((VertxInternal) vertx).createSharedResource("__vertx.shared.proxyCache", options.getName(), closeFuture, (cf_) -> {
-        return new CacheImpl(options);
+        return createCache(options, vertx, cf_);
       });
     }
-    return new CacheImpl(options);
+    return createCache(options, vertx, closeFuture);
+  }
+
+  private static Cache createCache(CacheOptions options, Vertx vertx, CloseFuture closeFuture) {
+    CacheImpl local = new CacheImpl(options);
+    if (options.getSnapshotFile() != null) {
+      CacheSnapshot snapshot = new CacheSnapshot(vertx, local, options);
+      snapshot.load();
+      closeFuture.add(snapshot);
+    }
+    scheduleSweep(vertx, local, closeFuture);
+    Cache cache = local;
+    if (options.getDiskDirectory() != null) {
+      DiskCache disk = new DiskCache(vertx, options);
+      closeFuture.add(disk);
+      cache = new TieredCache(cache, disk, TieredCache.maxPromotedSize(options));
+    }
+    if (options.getNegativeMaxAge() > 0 || options.getRedirectMaxAge() > 0) {
+      CacheImpl negative = new CacheImpl(new CacheOptions(options).setMaxContentSize(options.getNegativeMaxContentSize()));
+      scheduleSweep(vertx, negative, closeFuture);
+      cache = new NegativeCache(cache, negative);
+    }
+    if (options.isClustered()) {
+      // The invalidations of the other nodes are applied to the disk tier and to the negative store as well
+      ClusteredCache clustered = new ClusteredCache(vertx, local, cache, options);
+      closeFuture.add(clustered);
+      cache = clustered;
+    }
+    if (!options.isClustered() && options.getInvalidationAddress() != null) {
+      BroadcastingCache broadcasting = new BroadcastingCache(vertx, cache, options);
+      closeFuture.add(broadcasting);
+      cache = broadcasting;
+    }
+    return cache;
+  }
+
+  /**
+   * Sweep the expired resources of the cache periodically, until the cache is closed.
+   */
+  private static void scheduleSweep(Vertx vertx, CacheImpl cache, CloseFuture closeFuture) {
+    long timerId = vertx.setPeriodic(CacheImpl.SWEEP_INTERVAL, id -> sweep(vertx, cache));
+    closeFuture.add(completion -> {
+      vertx.cancelTimer(timerId);
+      completion.succeed();
+    });
+  }
+
+  private static void sweep(Vertx vertx, CacheImpl cache) {
+    if (cache.expire(System.currentTimeMillis(), CacheImpl.SWEEP_BATCH_SIZE) == CacheImpl.SWEEP_BATCH_SIZE) {
+      // More resources may be due, yield to the event loop before the next batch
+      vertx.runOnContext(v -> sweep(vertx, cache));
+    }
   }
 
   @Override
@@ -71,6 +133,40 @@ public class ReverseProxy implements HttpProxy {
     return this;
   }
 
+  @Override
+  public CacheStats cacheStats() {
+    return cachingFilter != null ? cachingFilter.stats() : null;
+  }
+
+  @Override
+  public Future<Integer> purgeCacheTag(String tag) {
+    if (cachingFilter == null) {
+      return Future.failedFuture(new IllegalStateException("The proxy does not cache"));
+    }
+    return cachingFilter.purgeTag(Objects.requireNonNull(tag));
+  }
+
+  @Override
+  public Future<Integer> purgeCachePrefix(String prefix) {
+    if (cachingFilter == null) {
+      return Future.failedFuture(new IllegalStateException("The proxy does not cache"));
+    }
+    return cachingFilter.purgePrefix(Objects.requireNonNull(prefix));
+  }
+
+  @Override
+  public Future<List<String>> cacheKeys(String prefix, int limit) {
+    if (cachingFilter == null) {
+      return Future.failedFuture(new IllegalStateException("The proxy does not cache"));
+    }
+    return cachingFilter.keys(Objects.requireNonNull(prefix), limit);
+  }
+
+  @Override
+  public Handler<HttpServerRequest> cachePurgeHandler() {
+    return new CachePurgeHandler(this);
+  }
+
   @Override
   public void handle(HttpServerRequest request) {
     ProxyRequest proxyRequest = ProxyRequest.reverseProxy(request, forwardedHeadersOptions);
@@ -122,18 +218,41 @@ public class ReverseProxy implements HttpProxy {
     return originRequestProvider.create(proxyContext);
   }
 
+  /**
+   * Send a request issued by the caching filter through the interceptors following the filter and to the origin.
+   *
+   * @return the response processed by the interceptors, it is not sent to the client
+   */
+  private Future<ProxyResponse> forward(ProxyRequest request) {
+    Promise<ProxyResponse> promise = Promise.promise();
+    // The caching filter is the first interceptor
+    Proxy proxy = new Proxy(request, false, 1, promise);
+    proxy.sendRequest()
+      .compose(proxy::sendProxyResponse)
+      .onFailure(promise::tryFail);
+    return promise.future();
+  }
+
   private class Proxy implements ProxyContext {
 
     private final ProxyRequest request;
     private ProxyResponse response;
     private final Map<String, Object> attachments = new HashMap<>();
     private final ListIterator<ProxyInterceptorEntry> filters;
+    private final int first;
     private final boolean isWebSocket;
+    private final Promise<ProxyResponse> forwarded;
 
     private Proxy(ProxyRequest request, boolean isWebSocket) {
+      this(request, isWebSocket, 0, null);
+    }
+
+    private Proxy(ProxyRequest request, boolean isWebSocket, int first, Promise<ProxyResponse> forwarded) {
       this.request = request;
       this.isWebSocket = isWebSocket;
-      this.filters = interceptors.listIterator();
+      this.first = first;
+      this.forwarded = forwarded;
+      this.filters = interceptors.listIterator(first);
     }
 
     @Override
@@ -207,7 +326,7 @@ public class ReverseProxy implements HttpProxy {
 
     @Override
     public Future<Void> sendResponse() {
-      if (filters.hasPrevious()) {
+      if (filters.previousIndex() >= first) {
         ProxyInterceptorEntry previous = filters.previous();
         if (isWebSocket && !previous.supportsWebSocketUpgrade) {
           return sendResponse();
@@ -241,6 +360,11 @@ public class ReverseProxy implements HttpProxy {
           }
           return Future.succeededFuture();
         }
+        if (forwarded != null) {
+          // Handed over to the caching filter
+          forwarded.tryComplete(response);
+          return Future.succeededFuture();
+        }
         return response.send();
       }
     }
@@ -256,6 +380,10 @@ public class ReverseProxy implements HttpProxy {
       // Check validity
       Boolean chunked = HttpUtils.isChunked(response.headers());
       if (chunked == null) {
+        if (forwarded != null) {
+          response.release();
+          return Future.failedFuture(new ProxyFailure(501));
+        }
         // response.request().release(); // Is it needed ???
         end(response.request(), 501);
         return Future.succeededFuture(); // should use END future here ???
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.function.IntFunction;
+
+/**
+ * A stream of buffers fetched one after the other, the next buffer is only fetched once the previous one has been
+ * emitted and there is demand for it.
+ */
+class SliceReadStream implements ReadStream<Buffer> {
+
+  private final IntFunction<Future<Buffer>> slices;
+  private final int count;
+  private int index;
+  private long demand = Long.MAX_VALUE;
+  private boolean fetching;
+  private boolean emitting;
+  private Handler<Buffer> handler;
+  private Handler<Void> endHandler;
+  private Handler<Throwable> exceptionHandler;
+
+  /**
+   * @param slices the function fetching a slice by its index
+   * @param count the number of slices
+   */
+  SliceReadStream(IntFunction<Future<Buffer>> slices, int count) {
+    this.slices = slices;
+    this.count = count;
+  }
+
+  @Override
+  public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+    exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+    this.handler = handler;
+    check();
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> pause() {
+    demand = 0L;
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> resume() {
+    return fetch(Long.MAX_VALUE);
+  }
+
+  @Override
+  public ReadStream<Buffer> fetch(long amount) {
+    demand += amount;
+    if (demand < 0L) {
+      demand = Long.MAX_VALUE;
+    }
+    check();
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+    this.endHandler = endHandler;
+    return this;
+  }
+
+  private void check() {
+    if (emitting) {
+      return;
+    }
+    // Slices completed synchronously are emitted by this loop instead of recursing
+    emitting = true;
+    try {
+      while (!fetching && handler != null && demand > 0L && index < count) {
+        fetching = true;
+        slices.apply(index).onComplete(this::handleSlice);
+      }
+    } finally {
+      emitting = false;
+    }
+  }
+
+  private void handleSlice(AsyncResult<Buffer> ar) {
+    fetching = false;
+    if (ar.failed()) {
+      index = count;
+      Handler<Throwable> h = exceptionHandler;
+      if (h != null) {
+        h.handle(ar.cause());
+      }
+      return;
+    }
+    index++;
+    if (demand != Long.MAX_VALUE) {
+      demand--;
+    }
+    Handler<Buffer> h = handler;
+    if (h != null) {
+      h.handle(ar.result());
+    }
+    if (index == count) {
+      Handler<Void> end = endHandler;
+      if (end != null) {
+        end.handle(null);
+      }
+    } else {
+      check();
+    }
+  }
+}
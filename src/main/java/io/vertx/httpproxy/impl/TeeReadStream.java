@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * An origin response stream which chunks are also emitted by a {@link #copy()}, such as the body stream stored by
+ * the cache while the response is sent to the client.
+ *
+ * <p> The origin response flows while neither the client nor the copy pauses it, the copy starts reading when its
+ * handler is set. A failed copy is detached so that it does not hold the client.
+ */
+class TeeReadStream implements ReadStream<Buffer> {
+
+  private final ReadStream<Buffer> stream;
+  private final Copy copy = new Copy();
+  private boolean paused;
+  private boolean flowing = true;
+  private boolean done;
+  private Handler<Buffer> handler;
+  private Handler<Void> endHandler;
+  private Handler<Throwable> exceptionHandler;
+
+  /**
+   * @param stream the origin response stream
+   */
+  TeeReadStream(ReadStream<Buffer> stream) {
+    this.stream = stream;
+    stream.handler(this::handleChunk);
+    stream.endHandler(this::handleEnd);
+    stream.exceptionHandler(this::handleException);
+    update();
+  }
+
+  /**
+   * @return the stream emitting the chunks of the origin response
+   */
+  ReadStream<Buffer> copy() {
+    return copy;
+  }
+
+  /**
+   * Detach the copy, the copy is failed and the origin response flows at the pace of the client only.
+   */
+  void detach(Throwable cause) {
+    if (done || copy.detached) {
+      return;
+    }
+    copy.detached = true;
+    Handler<Throwable> h = copy.exceptionHandler;
+    if (h != null) {
+      h.handle(cause);
+    }
+    update();
+  }
+
+  @Override
+  public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+    exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+    this.handler = handler;
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> pause() {
+    paused = true;
+    update();
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> resume() {
+    paused = false;
+    update();
+    return this;
+  }
+
+  @Override
+  public ReadStream<Buffer> fetch(long amount) {
+    return amount > 0L ? resume() : this;
+  }
+
+  @Override
+  public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+    this.endHandler = endHandler;
+    return this;
+  }
+
+  private void update() {
+    boolean flow = !paused && (copy.detached || (copy.handler != null && !copy.paused));
+    if (flow != flowing) {
+      flowing = flow;
+      if (flow) {
+        stream.resume();
+      } else {
+        stream.pause();
+      }
+    }
+  }
+
+  private void handleChunk(Buffer chunk) {
+    Handler<Buffer> h = handler;
+    if (h != null) {
+      h.handle(chunk);
+    }
+    Handler<Buffer> c = copy.handler;
+    if (!copy.detached && c != null) {
+      c.handle(chunk);
+    }
+  }
+
+  private void handleEnd(Void v) {
+    done = true;
+    Handler<Void> h = endHandler;
+    if (h != null) {
+      h.handle(null);
+    }
+    Handler<Void> c = copy.endHandler;
+    if (!copy.detached && c != null) {
+      c.handle(null);
+    }
+  }
+
+  private void handleException(Throwable err) {
+    done = true;
+    Handler<Throwable> h = exceptionHandler;
+    if (h != null) {
+      h.handle(err);
+    }
+    Handler<Throwable> c = copy.exceptionHandler;
+    if (!copy.detached && c != null) {
+      c.handle(err);
+    }
+  }
+
+  private class Copy implements ReadStream<Buffer> {
+
+    private boolean paused;
+    private boolean detached;
+    private Handler<Buffer> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+
+    @Override
+    public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+      exceptionHandler = handler;
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+      this.handler = handler;
+      update();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> pause() {
+      paused = true;
+      update();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> resume() {
+      paused = false;
+      update();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> fetch(long amount) {
+      return amount > 0L ? resume() : this;
+    }
+
+    @Override
+    public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      return this;
+    }
+  }
+}
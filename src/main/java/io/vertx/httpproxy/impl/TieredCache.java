@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.cache.CacheStats;
+import io.vertx.httpproxy.spi.cache.Cache;
+import io.vertx.httpproxy.spi.cache.Resource;
+import io.vertx.httpproxy.spi.cache.StreamedResource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A cache made of a fast first tier in front of a larger second tier.
+ *
+ * <p> Resources are written through to both tiers, lookups missing the first tier are served from the second
+ * tier and promoted to the first tier. Failures of the second tier are treated as misses.
+ *
+ * <p> Body streams are only written to the second tier. Resources too large for the first tier are not promoted,
+ * their lookups return the resource without its content and {@link #getStream(String)} streams it from the second
+ * tier.
+ */
+public class TieredCache implements Cache {
+
+  /**
+   * @return the max size of the resources accepted by the first tier, {@code -1} when it is not limited
+   */
+  static long maxPromotedSize(CacheOptions options) {
+    long maxResourceSize = options.getMaxResourceSize();
+    long maxContentSize = options.getMaxContentSize();
+    if (maxResourceSize < 0) {
+      return maxContentSize;
+    }
+    return maxContentSize < 0 ? maxResourceSize : Math.min(maxResourceSize, maxContentSize);
+  }
+
+  private final Cache first;
+  private final Cache second;
+  private final long maxPromotedSize;
+
+  /**
+   * @param maxPromotedSize the max size of the resources promoted to the first tier, {@code -1} when it is not limited
+   */
+  public TieredCache(Cache first, Cache second, long maxPromotedSize) {
+    this.first = first;
+    this.second = second;
+    this.maxPromotedSize = maxPromotedSize;
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource value) {
+    Future<Void> f1 = first.put(key, value);
+    Future<Void> f2 = second.put(key, value).recover(err -> Future.succeededFuture());
+    return Future.all(f1, f2).mapEmpty();
+  }
+
+  @Override
+  public Future<Resource> get(String key) {
+    return first.get(key).compose(resource -> {
+      if (resource != null) {
+        return Future.succeededFuture(resource);
+      }
+      return second.getStream(key)
+        .recover(err -> Future.succeededFuture())
+        .compose(streamed -> {
+          if (streamed == null) {
+            return Future.succeededFuture();
+          }
+          Resource promoted = streamed.getMetadata();
+          if (promoted.getContent() != null) {
+            return first.put(key, promoted).map(promoted);
+          }
+          if (maxPromotedSize >= 0 && streamed.getLength() > maxPromotedSize) {
+            // The content is streamed from the second tier
+            return Future.succeededFuture(promoted);
+          }
+          BufferingWriteStream content = new BufferingWriteStream();
+          return streamed.openBody()
+            .compose(body -> body.pipeTo(content))
+            .compose(v -> {
+              promoted.setContent(content.content());
+              return first.put(key, promoted).map(promoted);
+            }, err -> Future.<Resource>succeededFuture());
+        });
+    });
+  }
+
+  @Override
+  public Future<Void> put(String key, Resource metadata, ReadStream<Buffer> body, long length) {
+    // The first tier would keep serving the previous resource
+    return first.remove(key).compose(v -> second.put(key, metadata, body, length));
+  }
+
+  @Override
+  public Future<StreamedResource> getStream(String key) {
+    return first.getStream(key).compose(streamed -> {
+      if (streamed != null) {
+        return Future.succeededFuture(streamed);
+      }
+      return second.getStream(key).recover(err -> Future.succeededFuture());
+    });
+  }
+
+  @Override
+  public Future<Void> remove(String key) {
+    Future<Void> f1 = first.remove(key);
+    Future<Void> f2 = second.remove(key).recover(err -> Future.succeededFuture());
+    return Future.all(f1, f2).mapEmpty();
+  }
+
+  @Override
+  public Future<Void> removeAll(Collection<String> keys) {
+    Future<Void> f1 = first.removeAll(keys);
+    Future<Void> f2 = second.removeAll(keys).recover(err -> Future.succeededFuture());
+    return Future.all(f1, f2).mapEmpty();
+  }
+
+  @Override
+  public Future<Set<String>> removeByTag(String tag) {
+    return first.removeByTag(tag).compose(keys -> second.removeByTag(tag)
+      .recover(err -> {
+        // The second tier does not index tags, it forgets the resources purged from the first tier
+        List<Future<Void>> futures = new ArrayList<>(keys.size());
+        for (String key : keys) {
+          futures.add(second.remove(key));
+        }
+        return Future.join(futures).transform(ar -> Future.succeededFuture(Collections.<String>emptySet()));
+      })
+      .map(removed -> {
+        Set<String> all = new LinkedHashSet<>(keys);
+        all.addAll(removed);
+        return all;
+      }));
+  }
+
+  @Override
+  public Future<Integer> removeByPrefix(String prefix) {
+    Future<Integer> f1 = first.removeByPrefix(prefix);
+    Future<Integer> f2 = second.removeByPrefix(prefix).recover(err -> Future.succeededFuture(0));
+    // The second tier holds the resources of the first tier
+    return Future.all(f1, f2).map(v -> Math.max(f1.result(), f2.result()));
+  }
+
+  @Override
+  public Future<List<String>> keys(String prefix, int limit) {
+    Future<List<String>> f1 = first.keys(prefix, limit);
+    Future<List<String>> f2 = second.keys(prefix, limit).recover(err -> Future.succeededFuture(Collections.emptyList()));
+    return Future.all(f1, f2).map(v -> {
+      TreeSet<String> keys = new TreeSet<>(f1.result());
+      keys.addAll(f2.result());
+      List<String> list = new ArrayList<>(limit);
+      for (String key : keys) {
+        if (list.size() == limit) {
+          break;
+        }
+        list.add(key);
+      }
+      return list;
+    });
+  }
+
+  @Override
+  public CacheStats stats() {
+    // The first tier serves the lookups
+    return first.stats();
+  }
+}
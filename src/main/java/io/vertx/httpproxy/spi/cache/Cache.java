@@ -2,6 +2,18 @@ package io.vertx.httpproxy.spi.cache;
 
 import io.vertx.codegen.annotations.Unstable;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.httpproxy.Body;
+import io.vertx.httpproxy.cache.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -25,7 +37,9 @@ public interface Cache {
    * Being called when the proxy attempts to fetch a cache item.
    *
    * @param key the URI of the resource
-   * @return the cached response, null if not exist, should all wrap with future
+   * @return the cached response, null if not exist, should all wrap with future. The content of a response stored
+   *         with {@link #put(String, Resource, ReadStream, long)} may be {@code null}, it is read with
+   *         {@link #getStream(String)}
    */
   Future<Resource> get(String key);
 
@@ -38,4 +52,129 @@ public interface Cache {
    * @return a succeed void future
    */
   Future<Void> remove(String key);
+
+  /**
+   * Being called when the proxy adds a cache item which body is too large to be buffered. Implementations storing
+   * the body outside of the heap, such as disk caches, can write the stream as it is read.
+   *
+   * @param key the URI of the resource
+   * @param metadata the cached response, its content is ignored
+   * @param body the body stream
+   * @param length the length of the body or {@code -1} when it is not known
+   * @return a future completed when the body has been stored, the default implementation collects the body
+   *         and calls {@link #put(String, Resource)}
+   */
+  default Future<Void> put(String key, Resource metadata, ReadStream<Buffer> body, long length) {
+    Promise<Void> promise = Promise.promise();
+    Buffer content = Buffer.buffer();
+    body.exceptionHandler(promise::tryFail);
+    body.endHandler(v -> {
+      metadata.setContent(content);
+      put(key, metadata).onComplete(promise);
+    });
+    body.handler(content::appendBuffer);
+    body.resume();
+    return promise.future();
+  }
+
+  /**
+   * Being called when the proxy serves a cache item which content has not been loaded by {@link #get(String)},
+   * see {@link StreamedResource#getMetadata()}.
+   *
+   * @param key the URI of the resource
+   * @return the cached response, null if not exist, the default implementation streams the content returned by
+   *         {@link #get(String)}
+   */
+  default Future<StreamedResource> getStream(String key) {
+    return get(key).map(resource -> {
+      if (resource == null) {
+        return null;
+      }
+      Buffer content = resource.getContent();
+      return new StreamedResource(resource, content.length(), () -> Future.succeededFuture(Body.body(content).stream()));
+    });
+  }
+
+  /**
+   * Being called when the proxy fetches several cache items at once.
+   *
+   * @param keys the URIs of the resources
+   * @return the cached responses of the existing items, the default implementation calls {@link #get(String)}
+   *         for each key
+   */
+  default Future<Map<String, Resource>> getAll(Collection<String> keys) {
+    List<String> list = new ArrayList<>(keys);
+    List<Future<Resource>> futures = new ArrayList<>(list.size());
+    for (String key : list) {
+      futures.add(get(key));
+    }
+    return Future.all(futures).map(v -> {
+      Map<String, Resource> resources = new LinkedHashMap<>();
+      for (int i = 0; i < list.size(); i++) {
+        Resource resource = futures.get(i).result();
+        if (resource != null) {
+          resources.put(list.get(i), resource);
+        }
+      }
+      return resources;
+    });
+  }
+
+  /**
+   * Being called when the proxy deletes several cache items at once. Do nothing for the items that do not exist.
+   *
+   * @param keys the URIs of the resources
+   * @return a succeed void future, the default implementation calls {@link #remove(String)} for each key
+   */
+  default Future<Void> removeAll(Collection<String> keys) {
+    List<Future<Void>> futures = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      futures.add(remove(key));
+    }
+    return Future.all(futures).mapEmpty();
+  }
+
+  /**
+   * Being called when the proxy purges the resources tagged with a surrogate key, see {@link Resource#getTags()}.
+   * The cost should be proportional to the number of tagged resources.
+   *
+   * @param tag the surrogate key
+   * @return the keys of the removed resources, the default implementation fails since it does not index tags
+   */
+  default Future<Set<String>> removeByTag(String tag) {
+    return Future.failedFuture(new UnsupportedOperationException("The cache does not index tags"));
+  }
+
+  /**
+   * Being called when the proxy purges the resources which keys start with a prefix, such as all the URIs under
+   * a path. Large purges should be performed in batches so that the caller is not blocked.
+   *
+   * @param prefix the key prefix
+   * @return the number of removed resources, the default implementation fails since it does not index keys
+   */
+  default Future<Integer> removeByPrefix(String prefix) {
+    return Future.failedFuture(new UnsupportedOperationException("The cache does not index keys"));
+  }
+
+  /**
+   * Being called when the proxy lists the keys of the cached resources.
+   *
+   * @param prefix the key prefix
+   * @param limit the max number of keys
+   * @return the keys starting with the prefix in lexicographic order, the default implementation fails since it
+   *         does not index keys
+   */
+  default Future<List<String>> keys(String prefix, int limit) {
+    return Future.failedFuture(new UnsupportedOperationException("The cache does not index keys"));
+  }
+
+  /**
+   * Being called when the proxy reports its statistics, the cache provides the counters of its storage such as
+   * evictions and size.
+   *
+   * @return the statistics of the cache storage, the default implementation returns empty statistics
+   */
+  default CacheStats stats() {
+    return new CacheStats();
+  }
 }
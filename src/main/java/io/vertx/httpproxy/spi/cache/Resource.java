@@ -19,12 +19,24 @@ import io.vertx.httpproxy.impl.ParseUtils;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The cached object.
+ *
+ * <p> The {@link #writeToBuffer(Buffer) serialized} form starts with {@link #FORMAT_VERSION}, a resource serialized
+ * with another format is rejected by {@link #readFromBuffer(int, Buffer)} and should be skipped by the storages.
  */
 public class Resource implements ClusterSerializable {
 
+  /**
+   * The version of the serialized form, the forms without version start with {@code 0} or {@code 1}.
+   */
+  public static final byte FORMAT_VERSION = 2;
+
   private static final Charset UTF_8 = StandardCharsets.UTF_8;
 
   private String absoluteUri;
@@ -33,8 +45,12 @@ public class Resource implements ClusterSerializable {
   private MultiMap headers;
   private long timestamp;
   private long maxAge;
+  private long staleWhileRevalidate;
+  private long staleIfError;
   private Instant lastModified;
   private String etag;
+  private String vary;
+  private String tags;
   private Buffer content = Buffer.buffer();
 
   // For serialization purposes, do not remove.
@@ -51,6 +67,36 @@ public class Resource implements ClusterSerializable {
     this.maxAge = maxAge;
     this.lastModified = lastModifiedHeader != null ? ParseUtils.parseHeaderDate(lastModifiedHeader) : null;
     this.etag = headers.get(HttpHeaders.ETAG);
+    this.tags = parseTags(headers);
+  }
+
+  /**
+   * Collect the surrogate keys of the {@code Surrogate-Key} headers, separated by spaces, and of the
+   * {@code Cache-Tag} headers, separated by commas.
+   */
+  private static String parseTags(MultiMap headers) {
+    List<String> surrogateKeys = headers.getAll("surrogate-key");
+    List<String> cacheTags = headers.getAll("cache-tag");
+    if (surrogateKeys.isEmpty() && cacheTags.isEmpty()) {
+      return null;
+    }
+    Set<String> tags = new LinkedHashSet<>();
+    for (String value : surrogateKeys) {
+      for (String tag : value.trim().split("\\s+")) {
+        if (!tag.isEmpty()) {
+          tags.add(tag);
+        }
+      }
+    }
+    for (String value : cacheTags) {
+      for (String tag : value.split(",")) {
+        tag = tag.trim();
+        if (!tag.isEmpty()) {
+          tags.add(tag);
+        }
+      }
+    }
+    return tags.isEmpty() ? null : String.join(" ", tags);
   }
 
   private static class Cursor {
@@ -59,6 +105,7 @@ public class Resource implements ClusterSerializable {
 
   @Override
   public void writeToBuffer(Buffer buffer) {
+    buffer.appendByte(FORMAT_VERSION);
     appendString(buffer, absoluteUri);
     appendInt(buffer, statusCode);
     appendString(buffer, statusMessage);
@@ -68,12 +115,20 @@ public class Resource implements ClusterSerializable {
     appendInstant(buffer, lastModified);
     appendString(buffer, etag);
     appendBuffer(buffer, content);
+    appendLong(buffer, staleWhileRevalidate);
+    appendLong(buffer, staleIfError);
+    appendString(buffer, vary);
+    appendString(buffer, tags);
   }
 
   @Override
   public int readFromBuffer(int pos, Buffer buffer) {
+    byte version = buffer.getByte(pos);
+    if (version != FORMAT_VERSION) {
+      throw new IllegalStateException("Unsupported resource format version " + version);
+    }
     Cursor cursor = new Cursor();
-    cursor.i = pos;
+    cursor.i = pos + 1;
 
     setAbsoluteUri(readString(buffer, cursor));
     setStatusCode(readInt(buffer, cursor));
@@ -84,6 +139,10 @@ public class Resource implements ClusterSerializable {
     setLastModified(readInstant(buffer, cursor));
     setEtag(readString(buffer, cursor));
     setContent(readBuffer(buffer, cursor));
+    setStaleWhileRevalidate(readLong(buffer, cursor));
+    setStaleIfError(readLong(buffer, cursor));
+    setVary(readString(buffer, cursor));
+    setTags(readString(buffer, cursor));
     return cursor.i;
   }
 
@@ -171,6 +230,21 @@ public class Resource implements ClusterSerializable {
     return multiMap;
   }
 
+  /**
+   * @return the estimated size of this resource in bytes, accounting for its content and its headers
+   */
+  public long size() {
+    long size = content != null ? content.length() : 0L;
+    if (absoluteUri != null) {
+      size += absoluteUri.length();
+    }
+    if (headers != null) {
+      for (Map.Entry<String, String> header : headers) {
+        size += header.getKey().length() + header.getValue().length();
+      }
+    }
+    return size;
+  }
 
   public String getAbsoluteUri() {
     return absoluteUri;
@@ -196,6 +270,22 @@ public class Resource implements ClusterSerializable {
     return maxAge;
   }
 
+  /**
+   * @return the duration in milliseconds after expiration during which the resource can be served while it is
+   *         revalidated in the background
+   */
+  public long getStaleWhileRevalidate() {
+    return staleWhileRevalidate;
+  }
+
+  /**
+   * @return the duration in milliseconds after expiration during which the resource can be served when the
+   *         origin fails
+   */
+  public long getStaleIfError() {
+    return staleIfError;
+  }
+
   public Instant getLastModified() {
     return lastModified;
   }
@@ -204,6 +294,22 @@ public class Resource implements ClusterSerializable {
     return etag;
   }
 
+  /**
+   * @return the normalized names of the request headers selecting this resource, separated by commas,
+   *         or {@code null} when the response does not vary
+   */
+  public String getVary() {
+    return vary;
+  }
+
+  /**
+   * @return the surrogate keys tagging this resource, separated by spaces, or {@code null} when the resource
+   *         has none
+   */
+  public String getTags() {
+    return tags;
+  }
+
   public Buffer getContent() {
     return content;
   }
@@ -232,6 +338,14 @@ public class Resource implements ClusterSerializable {
     this.maxAge = maxAge;
   }
 
+  public void setStaleWhileRevalidate(long staleWhileRevalidate) {
+    this.staleWhileRevalidate = staleWhileRevalidate;
+  }
+
+  public void setStaleIfError(long staleIfError) {
+    this.staleIfError = staleIfError;
+  }
+
   public void setLastModified(Instant lastModified) {
     this.lastModified = lastModified;
   }
@@ -240,6 +354,14 @@ public class Resource implements ClusterSerializable {
     this.etag = etag;
   }
 
+  public void setVary(String vary) {
+    this.vary = vary;
+  }
+
+  public void setTags(String tags) {
+    this.tags = tags;
+  }
+
   public void setContent(Buffer content) {
     this.content = content;
   }
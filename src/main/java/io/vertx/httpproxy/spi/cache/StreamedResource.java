@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.httpproxy.spi.cache;
+
+import io.vertx.codegen.annotations.Unstable;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A cached resource which body is read as a stream, see {@link Cache#getStream(String)}.
+ */
+@Unstable
+public class StreamedResource {
+
+  private final Resource metadata;
+  private final long length;
+  private final Supplier<Future<ReadStream<Buffer>>> body;
+
+  /**
+   * @param metadata the cached response, its content is not loaded when the body is read from the storage
+   * @param length the length of the body or {@code -1} when it is not known
+   * @param body open the body stream
+   */
+  public StreamedResource(Resource metadata, long length, Supplier<Future<ReadStream<Buffer>>> body) {
+    this.metadata = Objects.requireNonNull(metadata);
+    this.length = length;
+    this.body = Objects.requireNonNull(body);
+  }
+
+  /**
+   * @return the cached response, its content is {@code null} when it is not loaded
+   */
+  public Resource getMetadata() {
+    return metadata;
+  }
+
+  /**
+   * @return the length of the body or {@code -1} when it is not known
+   */
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * Open the body stream, the storage is only read when the stream is opened.
+   *
+   * @return the body stream
+   */
+  public Future<ReadStream<Buffer>> openBody() {
+    return body.get();
+  }
+}
@@ -3,6 +3,7 @@ module io.vertx.httpproxy {
   requires io.vertx.core.logging;
   requires static io.vertx.codegen.api;
   requires static io.vertx.codegen.json;
+  requires io.netty.buffer;
   requires io.netty.codec.http;
   requires static io.vertx.docgen;
   exports io.vertx.httpproxy;
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheCloseTest extends CacheTestBase {
+
+  private final AtomicInteger hits = new AtomicInteger();
+
+  private Buffer get() {
+    return vertx.createHttpClient()
+      .request(HttpMethod.GET, 8080, "localhost", "/")
+      .compose(req -> req.send().compose(HttpClientResponse::body))
+      .await();
+  }
+
+  private SocketAddress startBackend(TestContext ctx) {
+    return startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=3600")
+        .end("content");
+    });
+  }
+
+  @Test
+  public void testSharedCacheClosedWithProxies(TestContext ctx) throws Exception {
+    proxyOptions.getCacheOptions().setShared(true);
+    SocketAddress backend = startBackend(ctx);
+    Closeable proxy = startProxy(backend);
+    get();
+    get();
+    ctx.assertEquals(1, hits.get());
+
+    // The last proxy using the shared cache closes it
+    proxy.close();
+    startProxy(backend);
+    get();
+    ctx.assertEquals(2, hits.get());
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheCollapsedForwardingTest extends CacheTestBase {
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  public CacheCollapsedForwardingTest() {
+    proxyOptions.getCacheOptions()
+      .setCollapsedForwarding(true)
+      .setCollapsedForwardingTimeout(2000);
+  }
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private Future<Buffer> get() {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> req
+      .send()
+      .compose(HttpClientResponse::body));
+  }
+
+  @Test
+  public void testConcurrentMissesAreCollapsed(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      vertx.setTimer(500, id -> {
+        req.response()
+          .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+          .end("content");
+      });
+    });
+    startProxy(backend);
+    Future.all(get(), get(), get()).onComplete(ctx.asyncAssertSuccess(res -> {
+      for (int i = 0; i < 3; i++) {
+        ctx.assertEquals("content", res.<Buffer>resultAt(i).toString());
+      }
+      ctx.assertEquals(1, hits.get());
+    }));
+  }
+
+  @Test
+  public void testUncacheableResponseForwardsWaiters(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      vertx.setTimer(200, id -> {
+        req.response().end("content");
+      });
+    });
+    startProxy(backend);
+    Future.all(get(), get()).onComplete(ctx.asyncAssertSuccess(res -> {
+      ctx.assertEquals(2, hits.get());
+    }));
+  }
+
+  @Test
+  public void testWaitTimeout(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      int hit = hits.getAndIncrement();
+      vertx.setTimer(hit == 0 ? 4000 : 10, id -> {
+        req.response()
+          .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+          .end("content");
+      });
+    });
+    startProxy(backend);
+    long now = System.currentTimeMillis();
+    get().onComplete(ctx.asyncAssertSuccess());
+    vertx.setTimer(100, id -> {
+      get().onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals("content", body.toString());
+        ctx.assertTrue(System.currentTimeMillis() - now < 4000);
+        ctx.assertEquals(2, hits.get());
+      }));
+    });
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheDetachedFillTest extends CacheTestBase {
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  public CacheDetachedFillTest() {
+    proxyOptions.getCacheOptions()
+      .setDetachedFillMaxSize(1024)
+      .setDetachedFillTimeout(5000);
+  }
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private SocketAddress startBackend(TestContext ctx, Buffer rest) {
+    return startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .setChunked(true)
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+        .write("chunk-1,");
+      vertx.setTimer(500, id -> req.response().end(rest));
+    });
+  }
+
+  private Future<Void> getAndLeave() {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/")
+      .compose(req -> req.send().compose(resp -> req.connection().close()));
+  }
+
+  private Future<Buffer> get() {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/")
+      .compose(req -> req.send().compose(HttpClientResponse::body));
+  }
+
+  @Test
+  public void testFillSurvivesClientDisconnect(TestContext ctx) throws Exception {
+    startProxy(startBackend(ctx, Buffer.buffer("chunk-2")));
+    getAndLeave().await();
+    Thread.sleep(1000);
+    ctx.assertEquals("chunk-1,chunk-2", get().await().toString());
+    ctx.assertEquals(1, hits.get());
+  }
+
+  @Test
+  public void testDetachedFillMaxSize(TestContext ctx) throws Exception {
+    startProxy(startBackend(ctx, Buffer.buffer(new byte[2048])));
+    getAndLeave().await();
+    Thread.sleep(1000);
+    ctx.assertEquals(8 + 2048, get().await().length());
+    ctx.assertEquals(2, hits.get());
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheDirectivesTest extends CacheTestBase {
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private Future<Buffer> get(String cacheControl) {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> {
+      if (cacheControl != null) {
+        req.putHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+      }
+      return req.send().compose(HttpClientResponse::body);
+    });
+  }
+
+  private void testDirectives(TestContext ctx, String cacheControl, int expectedHits) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, cacheControl)
+        .putHeader(HttpHeaders.ETAG, "\"v1\"")
+        .end("content");
+    });
+    startProxy(backend);
+    get(null)
+      .compose(body -> get(null))
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals("content", body.toString());
+        ctx.assertEquals(expectedHits, hits.get());
+      }));
+  }
+
+  @Test
+  public void testNoStore(TestContext ctx) {
+    testDirectives(ctx, "public, max-age=60, no-store", 2);
+  }
+
+  @Test
+  public void testNoCache(TestContext ctx) {
+    testDirectives(ctx, "public, max-age=60, no-cache", 2);
+  }
+
+  @Test
+  public void testPrivate(TestContext ctx) {
+    testDirectives(ctx, "public, max-age=60, private", 2);
+  }
+
+  @Test
+  public void testSharedMaxAge(TestContext ctx) {
+    testDirectives(ctx, "public, max-age=0, s-maxage=60", 1);
+  }
+
+  @Test
+  public void testImmutable(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60, immutable")
+        .putHeader(HttpHeaders.ETAG, "\"v1\"")
+        .end("content");
+    });
+    startProxy(backend);
+    get(null)
+      .compose(body -> get("no-cache"))
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals("content", body.toString());
+        // A fresh immutable resource is not revalidated
+        ctx.assertEquals(1, hits.get());
+      }));
+  }
+
+  private SocketAddress startBackend(TestContext ctx, String cacheControl) {
+    return startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, cacheControl)
+        .end("content");
+    });
+  }
+
+  @Test
+  public void testOnlyIfCached(TestContext ctx) {
+    startProxy(startBackend(ctx, "public, max-age=60"));
+    client.request(HttpMethod.GET, 8080, "localhost", "/")
+      .compose(req -> req.putHeader(HttpHeaders.CACHE_CONTROL, "only-if-cached").send())
+      .compose(resp -> {
+        ctx.assertEquals(504, resp.statusCode());
+        return resp.body();
+      })
+      .compose(body -> get(null))
+      .compose(body -> get("only-if-cached"))
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals("content", body.toString());
+        // The miss is not forwarded to the origin
+        ctx.assertEquals(1, hits.get());
+      }));
+  }
+
+  @Test
+  public void testRequestNoStore(TestContext ctx) {
+    startProxy(startBackend(ctx, "public, max-age=60"));
+    get("no-store")
+      .compose(body -> get(null))
+      .compose(body -> get(null))
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals("content", body.toString());
+        ctx.assertEquals(2, hits.get());
+      }));
+  }
+
+  @Test
+  public void testMaxStale(TestContext ctx) throws Exception {
+    startProxy(startBackend(ctx, "public, max-age=1"));
+    ctx.assertEquals("content", get(null).await().toString());
+    Thread.sleep(1500);
+    ctx.assertEquals("content", get("max-stale=60").await().toString());
+    ctx.assertEquals(1, hits.get());
+    ctx.assertEquals("content", get(null).await().toString());
+    ctx.assertEquals(2, hits.get());
+  }
+
+  @Test
+  public void testMinFresh(TestContext ctx) {
+    startProxy(startBackend(ctx, "public, max-age=60"));
+    get(null)
+      .compose(body -> get("min-fresh=30"))
+      .compose(body -> get("min-fresh=120"))
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals("content", body.toString());
+        // The resource does not stay fresh for 120 seconds
+        ctx.assertEquals(2, hits.get());
+      }));
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheFillTest extends CacheTestBase {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private Future<HttpClientResponse> get() {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> req.send());
+  }
+
+  @Test
+  public void testReadersAttachToFill(TestContext ctx) {
+    Promise<Void> firstChunk = Promise.promise();
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .setChunked(true)
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+        .write("chunk-1,");
+      vertx.setTimer(100, id -> firstChunk.tryComplete());
+      vertx.setTimer(1000, id -> req.response().end("chunk-2"));
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    Future<Buffer> leader = get().compose(HttpClientResponse::body);
+    firstChunk.future()
+      .compose(v -> get())
+      .compose(resp -> {
+        ctx.assertEquals(200, resp.statusCode());
+        Promise<Buffer> received = Promise.promise();
+        Buffer content = Buffer.buffer();
+        resp.handler(chunk -> {
+          content.appendBuffer(chunk);
+          if (content.toString().equals("chunk-1,")) {
+            // Streamed before the origin response ends
+            ctx.assertFalse(leader.isComplete());
+          }
+        });
+        resp.endHandler(v -> received.complete(content));
+        return received.future();
+      })
+      .onComplete(ctx.asyncAssertSuccess(content -> {
+        ctx.assertEquals("chunk-1,chunk-2", content.toString());
+        leader.onComplete(ctx.asyncAssertSuccess(body -> {
+          ctx.assertEquals("chunk-1,chunk-2", body.toString());
+          ctx.assertEquals(1, hits.get());
+          latch.complete();
+        }));
+      }));
+  }
+
+  @Test
+  public void testFailedFillFailsReaders(TestContext ctx) {
+    Promise<Void> firstChunk = Promise.promise();
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .setChunked(true)
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+        .write("chunk-1,");
+      vertx.setTimer(100, id -> firstChunk.tryComplete());
+      vertx.setTimer(500, id -> req.connection().close());
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    get().compose(HttpClientResponse::body);
+    firstChunk.future()
+      .compose(v -> get())
+      .compose(HttpClientResponse::body)
+      .onComplete(ctx.asyncAssertFailure(err -> {
+        ctx.assertEquals(1, hits.get());
+        latch.complete();
+      }));
+  }
+
+  @Test
+  public void testLargeResourceStreamedToDisk(TestContext ctx) throws Exception {
+    proxyOptions.getCacheOptions()
+      .setDiskDirectory(folder.newFolder().getAbsolutePath())
+      .setMaxResourceSize(1024);
+    Buffer content = Buffer.buffer();
+    for (int i = 0; i < 20_000; i++) {
+      content.appendString("chunk-" + i + ",");
+    }
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+        .end(content);
+    });
+    startProxy(backend);
+    get()
+      .compose(HttpClientResponse::body)
+      .compose(body -> {
+        ctx.assertEquals(content, body);
+        // The disk tier commits the resource once the body has been written
+        Promise<Void> stored = Promise.promise();
+        vertx.setTimer(200, id -> stored.complete());
+        return stored.future();
+      })
+      .compose(v -> get())
+      .compose(HttpClientResponse::body)
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals(content, body);
+        ctx.assertEquals(1, hits.get());
+      }));
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.httpproxy.impl.ParseUtils;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheHeuristicFreshnessTest extends CacheTestBase {
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private Future<HttpClientResponse> get(String authorization) {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> {
+      if (authorization != null) {
+        req.putHeader(HttpHeaders.AUTHORIZATION, authorization);
+      }
+      return req.send().compose(resp -> resp.body().map(resp));
+    });
+  }
+
+  private void startBackend(TestContext ctx, Handler<MultiMap> headers) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      headers.handle(req.response().headers());
+      req.response().end("content");
+    });
+    startProxy(backend);
+  }
+
+  @Test
+  public void testExpiresWithoutPublic(TestContext ctx) {
+    startBackend(ctx, headers -> {
+      Instant now = Instant.now();
+      headers.set(HttpHeaders.DATE, ParseUtils.formatHttpDate(now));
+      headers.set(HttpHeaders.EXPIRES, ParseUtils.formatHttpDate(now.plus(60, ChronoUnit.SECONDS)));
+    });
+    get(null).compose(resp -> get(null)).onComplete(ctx.asyncAssertSuccess(resp -> {
+      ctx.assertEquals(1, hits.get());
+    }));
+  }
+
+  @Test
+  public void testInvalidExpires(TestContext ctx) {
+    startBackend(ctx, headers -> headers.set(HttpHeaders.EXPIRES, "0"));
+    get(null).compose(resp -> get(null)).onComplete(ctx.asyncAssertSuccess(resp -> {
+      ctx.assertEquals(2, hits.get());
+    }));
+  }
+
+  @Test
+  public void testLastModifiedHeuristic(TestContext ctx) {
+    startBackend(ctx, headers -> {
+      Instant now = Instant.now();
+      headers.set(HttpHeaders.DATE, ParseUtils.formatHttpDate(now));
+      headers.set(HttpHeaders.LAST_MODIFIED, ParseUtils.formatHttpDate(now.minus(10, ChronoUnit.DAYS)));
+    });
+    get(null).compose(resp -> get(null)).onComplete(ctx.asyncAssertSuccess(resp -> {
+      ctx.assertEquals(1, hits.get());
+    }));
+  }
+
+  @Test
+  public void testHeuristicMaxAge(TestContext ctx) throws Exception {
+    proxyOptions.getCacheOptions().setHeuristicMaxAge(1000);
+    startBackend(ctx, headers -> {
+      Instant now = Instant.now();
+      headers.set(HttpHeaders.DATE, ParseUtils.formatHttpDate(now));
+      headers.set(HttpHeaders.LAST_MODIFIED, ParseUtils.formatHttpDate(now.minus(10, ChronoUnit.DAYS)));
+    });
+    get(null).await();
+    Thread.sleep(1500);
+    get(null).await();
+    ctx.assertEquals(2, hits.get());
+  }
+
+  @Test
+  public void testHeuristicDisabled(TestContext ctx) {
+    proxyOptions.getCacheOptions().setHeuristicMaxAge(0);
+    startBackend(ctx, headers -> {
+      Instant now = Instant.now();
+      headers.set(HttpHeaders.LAST_MODIFIED, ParseUtils.formatHttpDate(now.minus(10, ChronoUnit.DAYS)));
+    });
+    get(null).compose(resp -> get(null)).onComplete(ctx.asyncAssertSuccess(resp -> {
+      ctx.assertEquals(2, hits.get());
+    }));
+  }
+
+  @Test
+  public void testAge(TestContext ctx) throws Exception {
+    startBackend(ctx, headers -> headers
+      .set(HttpHeaders.CACHE_CONTROL, "max-age=60")
+      .set("age", "30"));
+    get(null).await();
+    HttpClientResponse resp = get(null).await();
+    ctx.assertEquals(1, hits.get());
+    ctx.assertTrue(Integer.parseInt(resp.getHeader("age")) >= 30);
+  }
+
+  @Test
+  public void testAgeExceedsMaxAge(TestContext ctx) throws Exception {
+    startBackend(ctx, headers -> headers
+      .set(HttpHeaders.CACHE_CONTROL, "max-age=60")
+      .set("age", "59"));
+    get(null).await();
+    Thread.sleep(1500);
+    get(null).await();
+    ctx.assertEquals(2, hits.get());
+  }
+
+  @Test
+  public void testAuthorization(TestContext ctx) {
+    startBackend(ctx, headers -> headers.set(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+    get("Basic dXNlcjpwYXNz").compose(resp -> get("Basic dXNlcjpwYXNz")).onComplete(ctx.asyncAssertSuccess(resp -> {
+      ctx.assertEquals(2, hits.get());
+    }));
+  }
+}
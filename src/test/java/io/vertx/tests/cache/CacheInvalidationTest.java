@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheInvalidationTest extends CacheTestBase {
+
+  private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.clear();
+    client = vertx.createHttpClient();
+  }
+
+  private Future<Buffer> request(HttpMethod method, String uri) {
+    return client.request(method, 8080, "localhost", uri).compose(req -> req.send().compose(HttpClientResponse::body));
+  }
+
+  private int hits(String uri) {
+    AtomicInteger count = hits.get(uri);
+    return count != null ? count.get() : 0;
+  }
+
+  private void startProxy(TestContext ctx, int unsafeStatus, String location) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      if (req.method() == HttpMethod.GET) {
+        hits.computeIfAbsent(req.uri(), k -> new AtomicInteger()).incrementAndGet();
+        req.response()
+          .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+          .end("content");
+      } else {
+        if (location != null) {
+          req.response().putHeader(HttpHeaders.LOCATION, location);
+        }
+        req.response().setStatusCode(unsafeStatus).end();
+      }
+    });
+    startProxy(backend);
+  }
+
+  @Test
+  public void testPostInvalidatesTarget(TestContext ctx) {
+    startProxy(ctx, 200, null);
+    request(HttpMethod.GET, "/items")
+      .compose(body -> request(HttpMethod.POST, "/items"))
+      .compose(body -> request(HttpMethod.GET, "/items"))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(2, hits("/items"))));
+  }
+
+  @Test
+  public void testDeleteInvalidatesTarget(TestContext ctx) {
+    startProxy(ctx, 204, null);
+    request(HttpMethod.GET, "/items/1")
+      .compose(body -> request(HttpMethod.DELETE, "/items/1"))
+      .compose(body -> request(HttpMethod.GET, "/items/1"))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(2, hits("/items/1"))));
+  }
+
+  @Test
+  public void testErrorDoesNotInvalidate(TestContext ctx) {
+    startProxy(ctx, 500, null);
+    request(HttpMethod.GET, "/items")
+      .compose(body -> request(HttpMethod.PUT, "/items"))
+      .compose(body -> request(HttpMethod.GET, "/items"))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(1, hits("/items"))));
+  }
+
+  @Test
+  public void testLocationInvalidated(TestContext ctx) {
+    startProxy(ctx, 201, "/items/2");
+    request(HttpMethod.GET, "/items/2")
+      .compose(body -> request(HttpMethod.POST, "/items"))
+      .compose(body -> request(HttpMethod.GET, "/items/2"))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(2, hits("/items/2"))));
+  }
+
+  @Test
+  public void testOtherOriginLocationNotInvalidated(TestContext ctx) {
+    startProxy(ctx, 201, "http://example.com/items/2");
+    request(HttpMethod.GET, "/items/2")
+      .compose(body -> request(HttpMethod.POST, "/items"))
+      .compose(body -> request(HttpMethod.GET, "/items/2"))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(1, hits("/items/2"))));
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.httpproxy.cache.CacheKeyBuilder;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.impl.CacheKeyNormalizer;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CacheKeyTest extends CacheTestBase {
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private Future<Buffer> get(String uri, String tenant) {
+    return client.request(HttpMethod.GET, 8080, "localhost", uri).compose(req -> {
+      if (tenant != null) {
+        req.putHeader("x-tenant", tenant);
+      }
+      return req.send().compose(HttpClientResponse::body);
+    });
+  }
+
+  private void startProxy(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+        .end("content");
+    });
+    startProxy(backend);
+  }
+
+  private static String build(CacheOptions options, String uri) {
+    return CacheKeyNormalizer.create(options).build(uri, MultiMap.caseInsensitiveMultiMap());
+  }
+
+  @Test
+  public void testNormalize() {
+    CacheOptions options = new CacheOptions()
+      .setSortQueryParameters(true)
+      .setLowerCaseHost(true)
+      .addIgnoredQueryParameter("utm_*")
+      .addIgnoredQueryParameter("fbclid");
+    assertEquals("http://example.com/a?a=1&b=2", build(options, "HTTP://Example.COM/a?b=2&utm_source=x&a=1&fbclid=y"));
+    assertEquals("http://example.com/A?a=2&a=1&b", build(options, "http://example.com/A?b&a=2&a=1"));
+    assertEquals("http://example.com/a", build(options, "http://example.com/a?utm_medium=x"));
+    assertEquals("http://example.com/a?fbclid2=1", build(options, "http://example.com/a?fbclid2=1"));
+    String normalized = "http://example.com/a?a=1&b=2";
+    assertSame(normalized, build(options, normalized));
+  }
+
+  @Test
+  public void testDefaultKeepsUri() {
+    String uri = "http://Example.com/a?b=2&a=1&utm_source=x";
+    assertSame(uri, build(new CacheOptions(), uri));
+  }
+
+  @Test
+  public void testSortedQueryParametersShareEntry(TestContext ctx) {
+    proxyOptions.getCacheOptions().setSortQueryParameters(true).addIgnoredQueryParameter("utm_*");
+    startProxy(ctx);
+    get("/?a=1&b=2", null)
+      .compose(body -> get("/?b=2&a=1&utm_campaign=c", null))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(1, hits.get())));
+  }
+
+  @Test
+  public void testKeyHeaders(TestContext ctx) {
+    proxyOptions.getCacheOptions().addKeyHeader("X-Tenant");
+    startProxy(ctx);
+    get("/", "a")
+      .compose(body -> get("/", "b"))
+      .compose(body -> get("/", "a"))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(2, hits.get())));
+  }
+
+  @Test
+  public void testKeyHeadersInvalidation(TestContext ctx) {
+    proxyOptions.getCacheOptions().addKeyHeader("X-Tenant");
+    startProxy(ctx);
+    get("/", "a")
+      .compose(body -> get("/", "b"))
+      .compose(body -> client.request(HttpMethod.POST, 8080, "localhost", "/").compose(req -> req
+        .putHeader("x-tenant", "a")
+        .send()
+        .compose(HttpClientResponse::body)))
+      // The entries of the other tenants are invalidated too
+      .compose(body -> get("/", "b"))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(4, hits.get())));
+  }
+
+  @Test
+  public void testKeyBuilder(TestContext ctx) {
+    CacheKeyBuilder builder = (uri, headers) -> {
+      int idx = uri.indexOf('?');
+      return idx >= 0 ? uri.substring(0, idx) : uri;
+    };
+    proxyOptions.getCacheOptions().setKeyBuilder(builder);
+    startProxy(ctx);
+    get("/?a=1", null)
+      .compose(body -> get("/?a=2", null))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(1, hits.get())));
+  }
+
+  @Test
+  public void testKeyBuilderInvalidation(TestContext ctx) {
+    CacheKeyBuilder builder = new CacheKeyBuilder() {
+      @Override
+      public String build(String absoluteUri, MultiMap headers) {
+        return absoluteUri + "\ntenant:" + headers.get("x-tenant");
+      }
+      @Override
+      public String uriKey(String absoluteUri) {
+        return absoluteUri;
+      }
+    };
+    proxyOptions.getCacheOptions().setKeyBuilder(builder);
+    startProxy(ctx);
+    get("/", "a")
+      .compose(body -> get("/", "b"))
+      .compose(body -> client.request(HttpMethod.POST, 8080, "localhost", "/").compose(req -> req
+        .putHeader("x-tenant", "a")
+        .send()
+        .compose(HttpClientResponse::body)))
+      // The entries of the other tenants start with the URI key
+      .compose(body -> get("/", "b"))
+      .onComplete(ctx.asyncAssertSuccess(body -> ctx.assertEquals(4, hits.get())));
+  }
+}
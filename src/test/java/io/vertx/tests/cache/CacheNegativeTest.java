@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheNegativeTest extends CacheTestBase {
+
+  private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.clear();
+    client = vertx.createHttpClient();
+  }
+
+  private Future<HttpClientResponse> get(String uri) {
+    return client.request(HttpMethod.GET, 8080, "localhost", uri).compose(req -> req.send().compose(resp -> resp.body().map(resp)));
+  }
+
+  private int hits(String uri) {
+    AtomicInteger count = hits.get(uri);
+    return count != null ? count.get() : 0;
+  }
+
+  private void startProxy(TestContext ctx, int statusCode, String cacheControl) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.computeIfAbsent(req.uri(), k -> new AtomicInteger()).incrementAndGet();
+      if (req.uri().equals("/ok")) {
+        req.response()
+          .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+          .end("content");
+        return;
+      }
+      if (cacheControl != null) {
+        req.response().putHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+      }
+      if (statusCode == 301 || statusCode == 308) {
+        req.response().putHeader(HttpHeaders.LOCATION, "/ok");
+      }
+      req.response().setStatusCode(statusCode).end("missing");
+    });
+    startProxy(backend);
+  }
+
+  @Test
+  public void testNotFound(TestContext ctx) {
+    proxyOptions.getCacheOptions().setNegativeMaxAge(60_000);
+    startProxy(ctx, 404, null);
+    get("/missing")
+      .compose(resp -> get("/missing"))
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(404, resp.statusCode());
+        ctx.assertEquals(1, hits("/missing"));
+      }));
+  }
+
+  @Test
+  public void testDisabled(TestContext ctx) {
+    startProxy(ctx, 404, null);
+    get("/missing")
+      .compose(resp -> get("/missing"))
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(404, resp.statusCode());
+        ctx.assertEquals(2, hits("/missing"));
+      }));
+  }
+
+  @Test
+  public void testNoStore(TestContext ctx) {
+    proxyOptions.getCacheOptions().setNegativeMaxAge(60_000);
+    startProxy(ctx, 410, "no-store");
+    get("/missing")
+      .compose(resp -> get("/missing"))
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(410, resp.statusCode());
+        ctx.assertEquals(2, hits("/missing"));
+      }));
+  }
+
+  @Test
+  public void testPermanentRedirect(TestContext ctx) {
+    proxyOptions.getCacheOptions().setRedirectMaxAge(60_000);
+    startProxy(ctx, 308, null);
+    get("/moved")
+      .compose(resp -> get("/moved"))
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(308, resp.statusCode());
+        ctx.assertEquals("/ok", resp.getHeader(HttpHeaders.LOCATION));
+        ctx.assertEquals(1, hits("/moved"));
+      }));
+  }
+
+  @Test
+  public void testMaxAgeCapped(TestContext ctx) throws Exception {
+    proxyOptions.getCacheOptions().setNegativeMaxAge(500);
+    startProxy(ctx, 404, "public, max-age=60");
+    get("/missing").await();
+    Thread.sleep(1000);
+    get("/missing").await();
+    ctx.assertEquals(2, hits("/missing"));
+  }
+
+  @Test
+  public void testSeparateBudget(TestContext ctx) throws Exception {
+    proxyOptions.getCacheOptions().setMaxSize(2).setNegativeMaxAge(60_000);
+    startProxy(ctx, 404, null);
+    get("/ok").await();
+    for (int i = 0; i < 20; i++) {
+      get("/missing/" + i).await();
+    }
+    HttpClientResponse resp = get("/ok").await();
+    ctx.assertEquals(200, resp.statusCode());
+    ctx.assertEquals(1, hits("/ok"));
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.httpproxy.HttpProxy;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CachePurgeTest extends CacheTestBase {
+
+  private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+  private final AtomicReference<HttpProxy> proxy = new AtomicReference<>();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.clear();
+    client = vertx.createHttpClient();
+  }
+
+  private Future<Buffer> get(String uri) {
+    return client.request(HttpMethod.GET, 8080, "localhost", uri).compose(req -> req.send().compose(HttpClientResponse::body));
+  }
+
+  private int hits(String uri) {
+    AtomicInteger count = hits.get(uri);
+    return count != null ? count.get() : 0;
+  }
+
+  private void startProxy(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.computeIfAbsent(req.uri(), k -> new AtomicInteger()).incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+        .putHeader("surrogate-key", "product" + req.uri().replace('/', '-'))
+        .putHeader("cache-tag", "catalog")
+        .end("content");
+    });
+    startProxy(p -> {
+      proxy.set(p);
+      p.origin(backend);
+    });
+  }
+
+  @Test
+  public void testPurgeTag(TestContext ctx) throws Exception {
+    startProxy(ctx);
+    get("/1").await();
+    get("/2").await();
+    ctx.assertEquals(1, proxy.get().purgeCacheTag("product-1").await());
+    get("/1").await();
+    get("/2").await();
+    ctx.assertEquals(2, hits("/1"));
+    ctx.assertEquals(1, hits("/2"));
+  }
+
+  @Test
+  public void testPurgeHandler(TestContext ctx) throws Exception {
+    startProxy(ctx);
+    vertx.createHttpServer().requestHandler(proxy.get().cachePurgeHandler()).listen(8082, "localhost").await();
+    get("/1").await();
+    get("/2").await();
+    JsonObject result = client.request(HttpMethod.valueOf("PURGE"), 8082, "localhost", "/?tag=catalog")
+      .compose(req -> req.send().compose(HttpClientResponse::body))
+      .await()
+      .toJsonObject();
+    ctx.assertEquals(2, result.getInteger("purged"));
+    get("/1").await();
+    get("/2").await();
+    ctx.assertEquals(2, hits("/1"));
+    ctx.assertEquals(2, hits("/2"));
+    int status = client.request(HttpMethod.DELETE, 8082, "localhost", "/?tag=catalog")
+      .compose(req -> req.send().map(HttpClientResponse::statusCode))
+      .await();
+    ctx.assertEquals(405, status);
+  }
+
+  @Test
+  public void testPurgePrefix(TestContext ctx) throws Exception {
+    startProxy(ctx);
+    vertx.createHttpServer().requestHandler(proxy.get().cachePurgeHandler()).listen(8082, "localhost").await();
+    get("/catalog/1").await();
+    get("/catalog/2").await();
+    get("/home").await();
+    JsonArray keys = client.request(HttpMethod.GET, 8082, "localhost", "/?prefix=http://localhost:8080/catalog/*")
+      .compose(req -> req.send().compose(HttpClientResponse::body))
+      .await()
+      .toJsonArray();
+    ctx.assertEquals(new JsonArray().add("http://localhost:8080/catalog/1").add("http://localhost:8080/catalog/2"), keys);
+    ctx.assertEquals(2, proxy.get().purgeCachePrefix("http://localhost:8080/catalog/").await());
+    get("/catalog/1").await();
+    get("/home").await();
+    ctx.assertEquals(2, hits("/catalog/1"));
+    ctx.assertEquals(1, hits("/home"));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheRangeTest extends CacheTestBase {
+
+  private static final String CONTENT = "0123456789abcdefghij";
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private SocketAddress startBackend(TestContext ctx) {
+    return startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+        .putHeader(HttpHeaders.ETAG, "\"v1\"")
+        .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain")
+        .end(CONTENT);
+    });
+  }
+
+  private Future<HttpClientResponse> get(MultiMap headers) {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> {
+      req.headers().addAll(headers);
+      return req.send();
+    });
+  }
+
+  @Test
+  public void testSingleRange(TestContext ctx) {
+    startProxy(startBackend(ctx));
+    Async latch = ctx.async();
+    get(MultiMap.caseInsensitiveMultiMap())
+      .compose(HttpClientResponse::body)
+      .compose(body -> get(MultiMap.caseInsensitiveMultiMap().add("range", "bytes=5-9")))
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(206, resp.statusCode());
+        ctx.assertEquals("bytes 5-9/20", resp.getHeader("content-range"));
+        ctx.assertEquals("text/plain", resp.getHeader(HttpHeaders.CONTENT_TYPE));
+        resp.body().onComplete(ctx.asyncAssertSuccess(body -> {
+          ctx.assertEquals("56789", body.toString());
+          ctx.assertEquals(1, hits.get());
+          latch.complete();
+        }));
+      }));
+  }
+
+  @Test
+  public void testMultipleRanges(TestContext ctx) {
+    startProxy(startBackend(ctx));
+    Async latch = ctx.async();
+    get(MultiMap.caseInsensitiveMultiMap())
+      .compose(HttpClientResponse::body)
+      .compose(body -> get(MultiMap.caseInsensitiveMultiMap().add("range", "bytes=0-1,-2")))
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(206, resp.statusCode());
+        String contentType = resp.getHeader(HttpHeaders.CONTENT_TYPE);
+        ctx.assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        resp.body().onComplete(ctx.asyncAssertSuccess(body -> {
+          ctx.assertEquals(
+            "\r\n--" + boundary + "\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "Content-Range: bytes 0-1/20\r\n\r\n" +
+            "01" +
+            "\r\n--" + boundary + "\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "Content-Range: bytes 18-19/20\r\n\r\n" +
+            "ij" +
+            "\r\n--" + boundary + "--\r\n", body.toString());
+          ctx.assertEquals(1, hits.get());
+          latch.complete();
+        }));
+      }));
+  }
+
+  @Test
+  public void testUnsatisfiableRange(TestContext ctx) {
+    startProxy(startBackend(ctx));
+    get(MultiMap.caseInsensitiveMultiMap())
+      .compose(HttpClientResponse::body)
+      .compose(body -> get(MultiMap.caseInsensitiveMultiMap().add("range", "bytes=20-")))
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(416, resp.statusCode());
+        ctx.assertEquals("bytes */20", resp.getHeader("content-range"));
+      }));
+  }
+
+  @Test
+  public void testIfRange(TestContext ctx) {
+    startProxy(startBackend(ctx));
+    Async latch = ctx.async();
+    get(MultiMap.caseInsensitiveMultiMap())
+      .compose(HttpClientResponse::body)
+      .compose(body -> get(MultiMap.caseInsensitiveMultiMap()
+        .add("range", "bytes=0-3")
+        .add("if-range", "\"v1\"")))
+      .compose(resp -> {
+        ctx.assertEquals(206, resp.statusCode());
+        return get(MultiMap.caseInsensitiveMultiMap()
+          .add("range", "bytes=0-3")
+          .add("if-range", "\"v0\""));
+      })
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        // The validator does not match, the full resource is sent
+        ctx.assertEquals(200, resp.statusCode());
+        resp.body().onComplete(ctx.asyncAssertSuccess(body -> {
+          ctx.assertEquals(CONTENT, body.toString());
+          latch.complete();
+        }));
+      }));
+  }
+
+  @Test
+  public void testPartialResponseIsNotCached(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      if (req.getHeader("range") != null) {
+        req.response()
+          .setStatusCode(206)
+          .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+          .putHeader("content-range", "bytes 0-3/20")
+          .end(CONTENT.substring(0, 4));
+      } else {
+        req.response()
+          .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+          .end(CONTENT);
+      }
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    get(MultiMap.caseInsensitiveMultiMap().add("range", "bytes=0-3"))
+      .compose(resp -> {
+        ctx.assertEquals(206, resp.statusCode());
+        return resp.body();
+      })
+      .compose(body -> get(MultiMap.caseInsensitiveMultiMap()))
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(200, resp.statusCode());
+        resp.body().onComplete(ctx.asyncAssertSuccess(body -> {
+          ctx.assertEquals(CONTENT, body.toString());
+          ctx.assertEquals(2, hits.get());
+          latch.complete();
+        }));
+      }));
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.httpproxy.ProxyInterceptor;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class CacheSliceTest extends CacheTestBase {
+
+  private static final String CONTENT = "0123456789abcdefghijklmno";
+
+  private List<String> ranges = new CopyOnWriteArrayList<>();
+  private List<String> paths = new CopyOnWriteArrayList<>();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    proxyOptions.getCacheOptions().setSliceSize(10);
+    ranges.clear();
+    paths.clear();
+    client = vertx.createHttpClient();
+  }
+
+  private SocketAddress startBackend(TestContext ctx, boolean acceptRanges) {
+    return startBackend(ctx, acceptRanges, CONTENT);
+  }
+
+  private SocketAddress startBackend(TestContext ctx, boolean acceptRanges, String content) {
+    return startBackend(ctx, acceptRanges, content, "\"v1\"");
+  }
+
+  private SocketAddress startBackend(TestContext ctx, boolean acceptRanges, String content, String etag) {
+    return startHttpBackend(ctx, 8081, req -> {
+      String range = req.getHeader("range");
+      ranges.add(String.valueOf(range));
+      paths.add(req.path());
+      req.response().putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60");
+      if (etag != null) {
+        req.response().putHeader(HttpHeaders.ETAG, etag);
+      }
+      if (!acceptRanges || range == null) {
+        req.response().end(content);
+        return;
+      }
+      int dash = range.indexOf('-');
+      int first = Integer.parseInt(range.substring(6, dash));
+      int last = Math.min(Integer.parseInt(range.substring(dash + 1)), content.length() - 1);
+      req.response()
+        .setStatusCode(206)
+        .putHeader("content-range", "bytes " + first + "-" + last + "/" + content.length())
+        .end(content.substring(first, last + 1));
+    });
+  }
+
+  private Future<HttpClientResponse> get(String range) {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> {
+      if (range != null) {
+        req.putHeader("range", range);
+      }
+      return req.send();
+    });
+  }
+
+  @Test
+  public void testAssembleSlices(TestContext ctx) {
+    startProxy(startBackend(ctx, true));
+    Async latch = ctx.async();
+    get(null)
+      .compose(resp -> {
+        ctx.assertEquals(200, resp.statusCode());
+        ctx.assertEquals("25", resp.getHeader(HttpHeaders.CONTENT_LENGTH));
+        return resp.body();
+      })
+      .compose(body -> {
+        ctx.assertEquals(CONTENT, body.toString());
+        ctx.assertEquals(List.of("bytes=0-9", "bytes=10-19", "bytes=20-29"), ranges);
+        return get("bytes=8-21");
+      })
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(206, resp.statusCode());
+        ctx.assertEquals("bytes 8-21/25", resp.getHeader("content-range"));
+        resp.body().onComplete(ctx.asyncAssertSuccess(body -> {
+          ctx.assertEquals(CONTENT.substring(8, 22), body.toString());
+          // Served from the cached slices
+          ctx.assertEquals(3, ranges.size());
+          latch.complete();
+        }));
+      }));
+  }
+
+  @Test
+  public void testPartialDownloadOnlyFillsTouchedSlices(TestContext ctx) {
+    startProxy(startBackend(ctx, true));
+    Async latch = ctx.async();
+    get("bytes=21-23")
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(206, resp.statusCode());
+        resp.body().onComplete(ctx.asyncAssertSuccess(body -> {
+          ctx.assertEquals("lmn", body.toString());
+          ctx.assertEquals(List.of("bytes=0-9", "bytes=20-29"), ranges);
+          latch.complete();
+        }));
+      }));
+  }
+
+  @Test
+  public void testOriginWithoutRanges(TestContext ctx) {
+    startProxy(startBackend(ctx, false));
+    Async latch = ctx.async();
+    get(null)
+      .compose(HttpClientResponse::body)
+      .compose(body -> {
+        ctx.assertEquals(CONTENT, body.toString());
+        return get(null);
+      })
+      .compose(HttpClientResponse::body)
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals(CONTENT, body.toString());
+        // The probe answered with the full resource, which is then served from the cache
+        ctx.assertEquals(List.of("bytes=0-9"), ranges);
+        latch.complete();
+      }));
+  }
+
+  @Test
+  public void testSmallResourceNotSliced(TestContext ctx) {
+    startProxy(startBackend(ctx, true, "small"));
+    Async latch = ctx.async();
+    get(null)
+      .compose(resp -> {
+        ctx.assertEquals(200, resp.statusCode());
+        ctx.assertNull(resp.getHeader("content-range"));
+        return resp.body();
+      })
+      .compose(body -> {
+        ctx.assertEquals("small", body.toString());
+        return get("bytes=1-3");
+      })
+      .onComplete(ctx.asyncAssertSuccess(resp -> {
+        ctx.assertEquals(206, resp.statusCode());
+        resp.body().onComplete(ctx.asyncAssertSuccess(body -> {
+          ctx.assertEquals("mal", body.toString());
+          ctx.assertEquals(List.of("bytes=0-9"), ranges);
+          latch.complete();
+        }));
+      }));
+  }
+
+  @Test
+  public void testSlicesGoThroughInterceptors(TestContext ctx) {
+    SocketAddress backend = startBackend(ctx, true);
+    startProxy(proxy -> proxy
+      .origin(backend)
+      .addInterceptor(ProxyInterceptor.builder().addingPathPrefix("/prefix").build()));
+    Async latch = ctx.async();
+    get(null)
+      .compose(HttpClientResponse::body)
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals(CONTENT, body.toString());
+        ctx.assertEquals(List.of("/prefix/", "/prefix/", "/prefix/"), paths);
+        latch.complete();
+      }));
+  }
+
+  @Test
+  public void testNoStrongValidator(TestContext ctx) {
+    startProxy(startBackend(ctx, true, CONTENT, null));
+    Async latch = ctx.async();
+    get(null)
+      .compose(resp -> {
+        ctx.assertEquals(200, resp.statusCode());
+        return resp.body();
+      })
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals(CONTENT, body.toString());
+        // The probe and the request of the client, the slices of different versions could not be told apart
+        ctx.assertEquals(List.of("bytes=0-9", "null"), ranges);
+        latch.complete();
+      }));
+  }
+}
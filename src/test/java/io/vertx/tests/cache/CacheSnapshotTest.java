@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class CacheSnapshotTest extends CacheTestBase {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Buffer get() {
+    return vertx.createHttpClient()
+      .request(HttpMethod.GET, 8080, "localhost", "/")
+      .compose(req -> req.send().compose(HttpClientResponse::body))
+      .await();
+  }
+
+  private SocketAddress startBackend(TestContext ctx, String content, String cacheControl) {
+    return startHttpBackend(ctx, 8081, req -> {
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, cacheControl)
+        .end(content);
+    });
+  }
+
+  @Test
+  public void testWarmRestart(TestContext ctx) throws Exception {
+    proxyOptions.getCacheOptions().setSnapshotFile(new File(folder.getRoot(), "cache.snapshot").getAbsolutePath());
+    startProxy(startBackend(ctx, "content", "public, max-age=3600"));
+    ctx.assertEquals("content", get().toString());
+
+    // Saves the snapshot
+    vertx.close().await();
+    ctx.assertTrue(new File(folder.getRoot(), "cache.snapshot").exists());
+
+    vertx = Vertx.vertx();
+    startProxy(startBackend(ctx, "other", "public, max-age=3600"));
+    // The snapshot is restored in the background
+    Thread.sleep(500);
+    ctx.assertEquals("content", get().toString());
+  }
+
+  @Test
+  public void testExpiredResourcesAreNotRestored(TestContext ctx) throws Exception {
+    proxyOptions.getCacheOptions().setSnapshotFile(new File(folder.getRoot(), "cache.snapshot").getAbsolutePath());
+    startProxy(startBackend(ctx, "content", "public, max-age=1"));
+    ctx.assertEquals("content", get().toString());
+    Thread.sleep(1500);
+
+    vertx.close().await();
+
+    vertx = Vertx.vertx();
+    startProxy(startBackend(ctx, "other", "public, max-age=3600"));
+    Thread.sleep(500);
+    ctx.assertEquals("other", get().toString());
+  }
+
+  @Test
+  public void testSingleOwner(TestContext ctx) throws Exception {
+    File snapshot = new File(folder.getRoot(), "cache.snapshot");
+    proxyOptions.getCacheOptions().setSnapshotFile(snapshot.getAbsolutePath()).setSnapshotInterval(10);
+    SocketAddress backend = startBackend(ctx, "content", "public, max-age=3600");
+    // Two proxies with their own cache and the same snapshot file
+    startProxy(backend);
+    startProxy(backend);
+    ctx.assertEquals("content", get().toString());
+    Thread.sleep(200);
+
+    vertx.close().await();
+    ctx.assertTrue(snapshot.exists());
+    String[] files = folder.getRoot().list();
+    ctx.assertEquals(1, files.length);
+  }
+
+  @Test
+  public void testIncompatibleEntriesAreSkipped(TestContext ctx) throws Exception {
+    File snapshot = new File(folder.getRoot(), "cache.snapshot");
+    proxyOptions.getCacheOptions().setSnapshotFile(snapshot.getAbsolutePath());
+    startProxy(startBackend(ctx, "content", "public, max-age=3600"));
+    ctx.assertEquals("content", get().toString());
+    vertx.close().await();
+
+    // An entry serialized without format version precedes the saved entry
+    Buffer saved = Buffer.buffer(Files.readAllBytes(snapshot.toPath()));
+    Buffer legacy = Buffer.buffer(new byte[] { 0, 0, 0, 0, 1 });
+    Buffer patched = saved.getBuffer(0, 4)
+      .appendInt(6).appendString("legacy")
+      .appendInt(legacy.length()).appendBuffer(legacy)
+      .appendBuffer(saved.getBuffer(4, saved.length()));
+    Files.write(snapshot.toPath(), patched.getBytes());
+
+    vertx = Vertx.vertx();
+    startProxy(startBackend(ctx, "other", "public, max-age=3600"));
+    Thread.sleep(500);
+    ctx.assertEquals("content", get().toString());
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheStaleIfErrorTest extends CacheTestBase {
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private Future<HttpClientResponse> get() {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> req
+      .send()
+      .compose(resp -> resp.body().map(resp)));
+  }
+
+  @Test
+  public void testServeStaleOnServerError(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      if (hits.getAndIncrement() == 0) {
+        req.response()
+          .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-if-error=10")
+          .end("content");
+      } else {
+        req.response().setStatusCode(503).end();
+      }
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    get().onComplete(ctx.asyncAssertSuccess(resp1 -> {
+      ctx.assertEquals(200, resp1.statusCode());
+      vertx.setTimer(1500, id -> {
+        get().onComplete(ctx.asyncAssertSuccess(resp2 -> {
+          ctx.assertEquals(200, resp2.statusCode());
+          ctx.assertEquals(2, hits.get());
+          latch.complete();
+        }));
+      });
+    }));
+  }
+
+  @Test
+  public void testServeStaleWhenOriginIsDown(TestContext ctx) {
+    proxyOptions.getCacheOptions().setStaleIfError(10_000);
+    HttpServer backendServer = vertx.createHttpServer(new HttpServerOptions().setPort(8081).setHost("localhost"));
+    backendServer.requestHandler(req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=1")
+        .end("content");
+    });
+    backendServer.listen().await();
+    startProxy(SocketAddress.inetSocketAddress(8081, "localhost"));
+    Async latch = ctx.async();
+    get().compose(resp1 -> backendServer.close()).onComplete(ctx.asyncAssertSuccess(v -> {
+      vertx.setTimer(1500, id -> {
+        get().onComplete(ctx.asyncAssertSuccess(resp2 -> {
+          ctx.assertEquals(200, resp2.statusCode());
+          ctx.assertEquals(1, hits.get());
+          latch.complete();
+        }));
+      });
+    }));
+  }
+
+  @Test
+  public void testErrorAfterStaleWindow(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      if (hits.getAndIncrement() == 0) {
+        req.response()
+          .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-if-error=1")
+          .end("content");
+      } else {
+        req.response().setStatusCode(503).end();
+      }
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    get().onComplete(ctx.asyncAssertSuccess(resp1 -> {
+      vertx.setTimer(2500, id -> {
+        get().onComplete(ctx.asyncAssertSuccess(resp2 -> {
+          ctx.assertEquals(503, resp2.statusCode());
+          latch.complete();
+        }));
+      });
+    }));
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.httpproxy.ProxyInterceptor;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheStaleWhileRevalidateTest extends CacheTestBase {
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private Future<Buffer> get() {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> req
+      .send()
+      .compose(HttpClientResponse::body));
+  }
+
+  @Test
+  public void testServeStaleAndRevalidate(TestContext ctx) {
+    Async revalidated = ctx.async();
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      switch (hits.getAndIncrement()) {
+        case 0:
+          req.response()
+            .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-while-revalidate=10")
+            .putHeader(HttpHeaders.ETAG, "tag0")
+            .end("content");
+          break;
+        case 1:
+          ctx.assertEquals("tag0", req.getHeader(HttpHeaders.IF_NONE_MATCH));
+          // Slow revalidation must not delay the client
+          vertx.setTimer(500, id -> {
+            req.response()
+              .setStatusCode(304)
+              .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=10, stale-while-revalidate=10")
+              .putHeader(HttpHeaders.ETAG, "tag0")
+              .end();
+            revalidated.complete();
+          });
+          break;
+        default:
+          ctx.fail();
+      }
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    get().onComplete(ctx.asyncAssertSuccess(body1 -> {
+      ctx.assertEquals("content", body1.toString());
+      vertx.setTimer(1500, id -> {
+        long now = System.currentTimeMillis();
+        get().onComplete(ctx.asyncAssertSuccess(body2 -> {
+          ctx.assertEquals("content", body2.toString());
+          ctx.assertTrue(System.currentTimeMillis() - now < 500);
+          vertx.setTimer(1000, id2 -> {
+            get().onComplete(ctx.asyncAssertSuccess(body3 -> {
+              ctx.assertEquals("content", body3.toString());
+              ctx.assertEquals(2, hits.get());
+              latch.complete();
+            }));
+          });
+        }));
+      });
+    }));
+  }
+
+  @Test
+  public void testRevalidationReplacesResource(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      int hit = hits.getAndIncrement();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-while-revalidate=10")
+        .end("content" + hit);
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    get().onComplete(ctx.asyncAssertSuccess(body1 -> {
+      ctx.assertEquals("content0", body1.toString());
+      vertx.setTimer(1500, id -> {
+        get().onComplete(ctx.asyncAssertSuccess(body2 -> {
+          ctx.assertEquals("content0", body2.toString());
+          vertx.setTimer(500, id2 -> {
+            get().onComplete(ctx.asyncAssertSuccess(body3 -> {
+              ctx.assertEquals("content1", body3.toString());
+              ctx.assertEquals(2, hits.get());
+              latch.complete();
+            }));
+          });
+        }));
+      });
+    }));
+  }
+
+  @Test
+  public void testRevalidationGoesThroughInterceptors(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      ctx.assertEquals("/prefix/", req.path());
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-while-revalidate=10")
+        .end("content");
+    });
+    startProxy(proxy -> proxy
+      .origin(backend)
+      .addInterceptor(ProxyInterceptor.builder().addingPathPrefix("/prefix").build()));
+    Async latch = ctx.async();
+    get().onComplete(ctx.asyncAssertSuccess(body1 -> {
+      vertx.setTimer(1500, id -> {
+        get().onComplete(ctx.asyncAssertSuccess(body2 -> {
+          ctx.assertEquals("content", body2.toString());
+          vertx.setTimer(500, id2 -> {
+            get().onComplete(ctx.asyncAssertSuccess(body3 -> {
+              ctx.assertEquals(2, hits.get());
+              latch.complete();
+            }));
+          });
+        }));
+      });
+    }));
+  }
+
+  @Test
+  public void testLargeChunkedRevalidationNotCached(TestContext ctx) {
+    proxyOptions.getCacheOptions().setMaxResourceSize(16);
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      int hit = hits.getAndIncrement();
+      req.response()
+        .setChunked(true)
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-while-revalidate=10");
+      if (hit == 0) {
+        req.response().end("content");
+      } else {
+        req.response().write("content" + hit + ",");
+        req.response().end("larger than the max resource size");
+      }
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    get().onComplete(ctx.asyncAssertSuccess(body1 -> {
+      vertx.setTimer(1500, id -> {
+        get().onComplete(ctx.asyncAssertSuccess(body2 -> {
+          ctx.assertEquals("content", body2.toString());
+          vertx.setTimer(500, id2 -> {
+            // The stale resource has been removed and the larger response not cached
+            get().onComplete(ctx.asyncAssertSuccess(body3 -> {
+              ctx.assertEquals("content2,larger than the max resource size", body3.toString());
+              ctx.assertEquals(3, hits.get());
+              latch.complete();
+            }));
+          });
+        }));
+      });
+    }));
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.httpproxy.HttpProxy;
+import io.vertx.httpproxy.cache.CacheStats;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CacheStatsTest extends CacheTestBase {
+
+  private HttpClient client;
+  private AtomicReference<HttpProxy> proxy = new AtomicReference<>();
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    client = vertx.createHttpClient();
+  }
+
+  private Future<Buffer> get(String cacheControl) {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> {
+      if (cacheControl != null) {
+        req.putHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+      }
+      return req.send().compose(HttpClientResponse::body);
+    });
+  }
+
+  private void startProxy(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      if (req.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+        req.response().setStatusCode(304).putHeader(HttpHeaders.ETAG, "\"v1\"").end();
+        return;
+      }
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "max-age=60")
+        .putHeader(HttpHeaders.ETAG, "\"v1\"")
+        .end("content");
+    });
+    startProxy(p -> {
+      proxy.set(p);
+      p.origin(backend);
+    });
+  }
+
+  @Test
+  public void testStats(TestContext ctx) throws Exception {
+    startProxy(ctx);
+    get(null).await();
+    get(null).await();
+    // The resource must be older than the requested max age
+    Thread.sleep(10);
+    get("no-cache").await();
+    CacheStats stats = proxy.get().cacheStats();
+    ctx.assertEquals(1L, stats.getMissCount());
+    ctx.assertEquals(1L, stats.getHitCount());
+    ctx.assertEquals(1L, stats.getRevalidationCount());
+    ctx.assertEquals(1L, stats.getNotModifiedCount());
+    ctx.assertEquals(3L, stats.getLookupCount());
+    ctx.assertEquals(1L, stats.getSize());
+    ctx.assertTrue(stats.getContentSize() > 0);
+    ctx.assertEquals(1D / 3, stats.hitRatio());
+    JsonObject json = stats.toJson();
+    ctx.assertEquals(1L, json.getLong("hitCount"));
+    ctx.assertEquals(stats.getLookupTime(), new CacheStats(json).getLookupTime());
+  }
+
+  @Test
+  public void testNoCache(TestContext ctx) {
+    proxyOptions.setCacheOptions(null);
+    startProxy(ctx);
+    ctx.assertNull(proxy.get().cacheStats());
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2011-2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.tests.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheVaryTest extends CacheTestBase {
+
+  private AtomicInteger hits = new AtomicInteger();
+  private HttpClient client;
+
+  @Override
+  public void setUp() {
+    super.setUp();
+    hits.set(0);
+    client = vertx.createHttpClient();
+  }
+
+  private Future<Buffer> get(String acceptEncoding) {
+    return client.request(HttpMethod.GET, 8080, "localhost", "/").compose(req -> req
+      .putHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+      .send()
+      .compose(HttpClientResponse::body));
+  }
+
+  @Test
+  public void testVariants(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+        .putHeader(HttpHeaders.VARY, "Accept-Encoding")
+        .end("content-" + req.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    get("gzip, deflate")
+      .compose(body -> {
+        ctx.assertEquals("content-gzip, deflate", body.toString());
+        return get("identity");
+      })
+      .compose(body -> {
+        ctx.assertEquals("content-identity", body.toString());
+        return get("deflate,GZIP");
+      })
+      .compose(body -> {
+        ctx.assertEquals("content-gzip, deflate", body.toString());
+        return get("identity");
+      })
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals("content-identity", body.toString());
+        ctx.assertEquals(2, hits.get());
+        latch.complete();
+      }));
+  }
+
+  @Test
+  public void testVaryStarIsNotCached(TestContext ctx) {
+    SocketAddress backend = startHttpBackend(ctx, 8081, req -> {
+      hits.incrementAndGet();
+      req.response()
+        .putHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")
+        .putHeader(HttpHeaders.VARY, "*")
+        .end("content");
+    });
+    startProxy(backend);
+    Async latch = ctx.async();
+    get("gzip")
+      .compose(body -> get("gzip"))
+      .onComplete(ctx.asyncAssertSuccess(body -> {
+        ctx.assertEquals(2, hits.get());
+        latch.complete();
+      }));
+  }
+}
@@ -0,0 +1,123 @@
+package io.vertx.tests.cache.spi;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.impl.BroadcastingCache;
+import io.vertx.httpproxy.impl.CacheImpl;
+import io.vertx.httpproxy.spi.cache.Resource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(VertxUnitRunner.class)
+public class BroadcastingCacheTest {
+
+  private static final String ADDRESS = "cache.invalidations";
+  private static final String URL1 = "http://k1.exmaple.com";
+  private static final String URL2 = "http://k2.exmaple.com";
+
+  private Vertx vertx;
+  private BroadcastingCache node1;
+  private BroadcastingCache node2;
+
+  @Before
+  public void setUp(TestContext ctx) {
+    vertx = Vertx.vertx();
+    CacheOptions options = new CacheOptions().setInvalidationAddress(ADDRESS);
+    node1 = new BroadcastingCache(vertx, new CacheImpl(options), options);
+    node2 = new BroadcastingCache(vertx, new CacheImpl(options), options);
+    Future.all(node1.ready(), node2.ready()).onComplete(ctx.asyncAssertSuccess());
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close().onComplete(context.asyncAssertSuccess());
+  }
+
+  private Resource generateResource(String absoluteURI) {
+    MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+    if (absoluteURI.equals(URL1)) {
+      headers.add("surrogate-key", "tag1");
+    }
+    return new Resource(
+      absoluteURI,
+      200,
+      "OK",
+      headers,
+      System.currentTimeMillis(),
+      60_000L);
+  }
+
+  private Future<Void> putOnBothNodes(String key) {
+    return Future.all(node1.put(key, generateResource(key)), node2.put(key, generateResource(key))).mapEmpty();
+  }
+
+  private Future<Void> delay() {
+    Promise<Void> promise = Promise.promise();
+    vertx.setTimer(100, id -> promise.complete());
+    return promise.future();
+  }
+
+  @Test
+  public void testRemove(TestContext ctx) {
+    putOnBothNodes(URL1)
+      .compose(v -> putOnBothNodes(URL2))
+      .compose(v -> node1.remove(URL1))
+      .compose(v -> delay())
+      .compose(v -> Future.all(node2.get(URL1), node2.get(URL2)))
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertNull(res.resultAt(0));
+        ctx.assertNotNull(res.resultAt(1));
+      }));
+  }
+
+  @Test
+  public void testRemoveByTagAndPrefix(TestContext ctx) {
+    putOnBothNodes(URL1)
+      .compose(v -> putOnBothNodes(URL2 + "/a"))
+      .compose(v -> Future.all(node1.removeByTag("tag1"), node1.removeByPrefix(URL2)))
+      .compose(v -> delay())
+      .compose(v -> node2.keys("", 10))
+      .onComplete(ctx.asyncAssertSuccess(keys -> ctx.assertTrue(keys.isEmpty())));
+  }
+
+  @Test
+  public void testCoalesced(TestContext ctx) {
+    AtomicInteger messages = new AtomicInteger();
+    MessageConsumer<JsonObject> consumer = vertx.eventBus().consumer(ADDRESS, msg -> messages.incrementAndGet());
+    consumer.completion()
+      .compose(v -> {
+        for (int i = 0; i < 100; i++) {
+          node1.remove(URL1);
+          node1.remove(URL2 + "/" + i);
+        }
+        return delay();
+      })
+      .onComplete(ctx.asyncAssertSuccess(v -> ctx.assertEquals(1, messages.get())));
+  }
+
+  @Test
+  public void testClose(TestContext ctx) {
+    Promise<Void> closed = Promise.promise();
+    putOnBothNodes(URL1)
+      .compose(v -> {
+        node2.close(closed);
+        return closed.future();
+      })
+      .compose(v -> node1.remove(URL1))
+      .compose(v -> delay())
+      // The closed node no longer receives the removals
+      .compose(v -> node2.get(URL1))
+      .onComplete(ctx.asyncAssertSuccess(ctx::assertNotNull));
+  }
+}
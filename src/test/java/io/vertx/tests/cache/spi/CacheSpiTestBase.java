@@ -1,10 +1,15 @@
 package io.vertx.tests.cache.spi;
 
+import io.vertx.core.Future;
 import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.httpproxy.Body;
 import io.vertx.httpproxy.cache.CacheOptions;
 import io.vertx.httpproxy.spi.cache.Cache;
 import io.vertx.httpproxy.spi.cache.Resource;
@@ -14,6 +19,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.time.Instant;
+import java.util.Arrays;
 
 @RunWith(VertxUnitRunner.class)
 public abstract class CacheSpiTestBase {
@@ -23,9 +29,9 @@ public abstract class CacheSpiTestBase {
   protected Vertx vertx;
   private Instant now;
 
-  private final String URL1 = "http://k1.exmaple.com";
-  private final String URL2 = "http://k2.exmaple.com";
-  private final String URL3 = "http://k3.exmaple.com";
+  protected final String URL1 = "http://k1.exmaple.com";
+  protected final String URL2 = "http://k2.exmaple.com";
+  protected final String URL3 = "http://k3.exmaple.com";
 
   @Before
   public void setUp() {
@@ -39,7 +45,7 @@ public abstract class CacheSpiTestBase {
     vertx.close().onComplete(context.asyncAssertSuccess());
   }
 
-  private Resource generateResource(String absoluteURI, long maxAge) {
+  protected Resource generateResource(String absoluteURI, long maxAge) {
     return new Resource(
       absoluteURI,
       200,
@@ -106,4 +112,43 @@ public abstract class CacheSpiTestBase {
         });
       });
   }
+
+  @Test
+  public void testGetAllAndRemoveAll(TestContext ctx) {
+    cache.put(URL1, generateResource(URL1, 100L))
+      .compose(v -> cache.put(URL2, generateResource(URL2, 200L)))
+      .compose(v -> cache.getAll(Arrays.asList(URL1, URL2, URL3)))
+      .compose(resources -> {
+        ctx.assertEquals(Arrays.asList(URL1, URL2), Arrays.asList(resources.keySet().toArray()));
+        return cache.removeAll(Arrays.asList(URL1, URL3));
+      })
+      .compose(v -> cache.getAll(Arrays.asList(URL1, URL2, URL3)))
+      .onComplete(ctx.asyncAssertSuccess(resources -> {
+        ctx.assertEquals(1, resources.size());
+        ctx.assertEquals(200L, resources.get(URL2).getMaxAge());
+      }));
+  }
+
+  @Test
+  public void testStream(TestContext ctx) {
+    ReadStream<Buffer> body = Body.body(Buffer.buffer("content")).stream();
+    cache.put(URL1, generateResource(URL1, 100L), body, 7L)
+      .compose(v -> cache.getStream(URL1))
+      .compose(streamed -> {
+        ctx.assertEquals(100L, streamed.getMetadata().getMaxAge());
+        ctx.assertEquals(7L, streamed.getLength());
+        return streamed.openBody().compose(this::collect);
+      })
+      .onComplete(ctx.asyncAssertSuccess(content -> ctx.assertEquals("content", content.toString())));
+  }
+
+  private Future<Buffer> collect(ReadStream<Buffer> stream) {
+    Promise<Buffer> promise = Promise.promise();
+    Buffer content = Buffer.buffer();
+    stream.exceptionHandler(promise::tryFail);
+    stream.endHandler(v -> promise.complete(content));
+    stream.handler(content::appendBuffer);
+    stream.resume();
+    return promise.future();
+  }
 }
@@ -0,0 +1,151 @@
+package io.vertx.tests.cache.spi;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.impl.CacheImpl;
+import io.vertx.httpproxy.impl.ClusteredCache;
+import io.vertx.httpproxy.impl.NegativeCache;
+import io.vertx.httpproxy.spi.cache.Resource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+@RunWith(VertxUnitRunner.class)
+public class ClusteredCacheTest {
+
+  private static final String URL1 = "http://k1.exmaple.com";
+  private static final String URL2 = "http://k2.exmaple.com";
+
+  private Vertx vertx;
+  private ClusteredCache node1;
+  private ClusteredCache node2;
+
+  @Before
+  public void setUp(TestContext ctx) {
+    vertx = Vertx.vertx();
+    // Two caches with the same name share the map and the invalidations like two nodes of a cluster
+    CacheOptions options = new CacheOptions().setName("test");
+    node1 = new ClusteredCache(vertx, new CacheImpl(options), options);
+    node2 = new ClusteredCache(vertx, new CacheImpl(options), options);
+    Future.all(node1.ready(), node2.ready()).onComplete(ctx.asyncAssertSuccess());
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close().onComplete(context.asyncAssertSuccess());
+  }
+
+  private Resource generateResource(String absoluteURI, String content) {
+    Resource resource = new Resource(
+      absoluteURI,
+      200,
+      "OK",
+      MultiMap.caseInsensitiveMultiMap(),
+      System.currentTimeMillis(),
+      60_000L);
+    resource.setContent(Buffer.buffer(content));
+    return resource;
+  }
+
+  private Future<Void> delay() {
+    Promise<Void> promise = Promise.promise();
+    vertx.setTimer(100, id -> promise.complete());
+    return promise.future();
+  }
+
+  @Test
+  public void testShared(TestContext ctx) {
+    node1.put(URL1, generateResource(URL1, "content1"))
+      .compose(v -> node2.get(URL1))
+      .onComplete(ctx.asyncAssertSuccess(res -> ctx.assertEquals("content1", res.getContent().toString())));
+  }
+
+  @Test
+  public void testPutInvalidatesNearCache(TestContext ctx) {
+    node1.put(URL1, generateResource(URL1, "content1"))
+      .compose(v -> node2.get(URL1))
+      .compose(v -> node1.put(URL1, generateResource(URL1, "content2")))
+      .compose(v -> delay())
+      .compose(v -> node2.get(URL1))
+      .onComplete(ctx.asyncAssertSuccess(res -> ctx.assertEquals("content2", res.getContent().toString())));
+  }
+
+  @Test
+  public void testRemove(TestContext ctx) {
+    node1.put(URL1, generateResource(URL1, "content1"))
+      .compose(v -> node2.get(URL1))
+      .compose(v -> node1.remove(URL1))
+      .compose(v -> delay())
+      .compose(v -> node2.get(URL1))
+      .onComplete(ctx.asyncAssertSuccess(ctx::assertNull));
+  }
+
+  @Test
+  public void testRemoveByPrefix(TestContext ctx) {
+    node1.put(URL1 + "/a", generateResource(URL1, "a"))
+      .compose(v -> node1.put(URL1 + "/b", generateResource(URL1, "b")))
+      .compose(v -> node1.put(URL2, generateResource(URL2, "c")))
+      .compose(v -> node2.get(URL1 + "/a"))
+      .compose(v -> node1.removeByPrefix(URL1))
+      .compose(removed -> {
+        ctx.assertEquals(2, removed);
+        return delay();
+      })
+      .compose(v -> Future.all(node2.get(URL1 + "/a"), node2.get(URL1 + "/b"), node1.keys("http://", 10)))
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertNull(res.resultAt(0));
+        ctx.assertNull(res.resultAt(1));
+        ctx.assertEquals(Arrays.asList(URL2), res.resultAt(2));
+      }));
+  }
+
+  @Test
+  public void testRemoveByTag(TestContext ctx) {
+    Resource tagged = generateResource(URL1, "a");
+    tagged.setTags("t1 t2");
+    node1.put(URL1, tagged)
+      .compose(v -> node1.put(URL2, generateResource(URL2, "b")))
+      // The resource is not held in the near cache of the purging node
+      .compose(v -> node2.removeByTag("t2"))
+      .compose(removed -> {
+        ctx.assertEquals(1, removed.size());
+        ctx.assertTrue(removed.contains(URL1));
+        return delay();
+      })
+      .compose(v -> Future.all(node1.get(URL1), node2.keys("http://", 10)))
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertNull(res.resultAt(0));
+        ctx.assertEquals(Arrays.asList(URL2), res.resultAt(1));
+      }));
+  }
+
+  @Test
+  public void testInvalidationClearsNegativeStore(TestContext ctx) {
+    CacheOptions options = new CacheOptions().setName("negative");
+    CacheImpl near1 = new CacheImpl(options);
+    CacheImpl near2 = new CacheImpl(options);
+    // The negative stores are local caches of the nodes
+    ClusteredCache negative1 = new ClusteredCache(vertx, near1, new NegativeCache(near1, new CacheImpl(options)), options);
+    ClusteredCache negative2 = new ClusteredCache(vertx, near2, new NegativeCache(near2, new CacheImpl(options)), options);
+    Resource notFound = generateResource(URL1, "not found");
+    notFound.setStatusCode(404);
+    Future.all(negative1.ready(), negative2.ready())
+      .compose(v -> negative2.put(URL1, notFound))
+      .compose(v -> negative1.put(URL1, generateResource(URL1, "content1")))
+      .compose(v -> delay())
+      .compose(v -> negative2.get(URL1))
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertEquals(200, res.getStatusCode());
+        ctx.assertEquals("content1", res.getContent().toString());
+      }));
+  }
+}
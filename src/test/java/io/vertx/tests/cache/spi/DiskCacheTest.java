@@ -0,0 +1,239 @@
+package io.vertx.tests.cache.spi;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.httpproxy.Body;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.impl.DiskCache;
+import io.vertx.httpproxy.spi.cache.Cache;
+import io.vertx.httpproxy.spi.cache.Resource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Collections;
+
+@RunWith(VertxUnitRunner.class)
+public class DiskCacheTest {
+
+  private static final String URL1 = "http://k1.exmaple.com";
+  private static final String URL2 = "http://k2.exmaple.com";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private CacheOptions options;
+
+  @Before
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx();
+    options = new CacheOptions().setDiskDirectory(folder.newFolder().getAbsolutePath());
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close().onComplete(context.asyncAssertSuccess());
+  }
+
+  private Resource generateResource(String absoluteURI, String content) {
+    Resource resource = new Resource(
+      absoluteURI,
+      200,
+      "OK",
+      MultiMap.caseInsensitiveMultiMap().add("content-type", "text/plain"),
+      System.currentTimeMillis(),
+      100L);
+    resource.setContent(Buffer.buffer(content));
+    return resource;
+  }
+
+  @Test
+  public void testAddGetAndRemove(TestContext ctx) {
+    Cache cache = new DiskCache(vertx, options);
+    cache.put(URL1, generateResource(URL1, "content1"))
+      .compose(v -> cache.put(URL1, generateResource(URL1, "content2")))
+      .compose(v -> cache.get(URL1))
+      .compose(res -> {
+        ctx.assertEquals("content2", res.getContent().toString());
+        ctx.assertEquals("text/plain", res.getHeaders().get("content-type"));
+        return cache.remove(URL1);
+      })
+      .compose(v -> cache.get(URL1))
+      .onComplete(ctx.asyncAssertSuccess(ctx::assertNull));
+  }
+
+  @Test
+  public void testReopen(TestContext ctx) {
+    Cache cache = new DiskCache(vertx, options);
+    cache.put(URL1, generateResource(URL1, "content1"))
+      .compose(v -> cache.put(URL2, generateResource(URL2, "content2")))
+      .compose(v -> cache.remove(URL2))
+      .compose(v -> {
+        Cache reopened = new DiskCache(vertx, options);
+        return Future.all(reopened.get(URL1), reopened.get(URL2));
+      })
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertEquals("content1", res.<Resource>resultAt(0).getContent().toString());
+        ctx.assertNull(res.resultAt(1));
+      }));
+  }
+
+  @Test
+  public void testSegmentEviction(TestContext ctx) {
+    options.setDiskSegmentSize(1024).setMaxDiskSize(4 * 1024);
+    Cache cache = new DiskCache(vertx, options);
+    Future<Void> fut = Future.succeededFuture();
+    for (int i = 0; i < 64; i++) {
+      String uri = "http://k" + i + ".example.com";
+      fut = fut.compose(v -> cache.put(uri, generateResource(uri, "content")));
+    }
+    fut.compose(v -> Future.all(cache.get("http://k0.example.com"), cache.get("http://k63.example.com")))
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertNull(res.resultAt(0));
+        ctx.assertNotNull(res.resultAt(1));
+        ctx.assertTrue(new File(options.getDiskDirectory()).list().length <= 4);
+      }));
+  }
+
+  @Test
+  public void testCompaction(TestContext ctx) {
+    options.setDiskSegmentSize(1024).setMaxDiskSize(4 * 1024);
+    Cache cache = new DiskCache(vertx, options);
+    Future<Void> fut = cache.put(URL2, generateResource(URL2, "stable"));
+    for (int i = 0; i < 64; i++) {
+      String content = "content" + i;
+      fut = fut.compose(v -> cache.put(URL1, generateResource(URL1, content)));
+    }
+    // The live record of URL2 is copied forward instead of being evicted with its segment
+    fut.compose(v -> Future.all(cache.get(URL1), cache.get(URL2)))
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertEquals("content63", res.<Resource>resultAt(0).getContent().toString());
+        ctx.assertEquals("stable", res.<Resource>resultAt(1).getContent().toString());
+      }));
+  }
+
+  @Test
+  public void testRemoveAfterPut(TestContext ctx) {
+    Cache cache = new DiskCache(vertx, options);
+    Future<Void> put = cache.put(URL1, generateResource(URL1, "content1"));
+    // Issued before the record of the put is appended
+    Future<Void> remove = cache.remove(URL1);
+    Future.all(put, remove)
+      .compose(v -> cache.get(URL1))
+      .onComplete(ctx.asyncAssertSuccess(ctx::assertNull));
+  }
+
+  @Test
+  public void testClose(TestContext ctx) {
+    DiskCache cache = new DiskCache(vertx, options);
+    cache.put(URL1, generateResource(URL1, "content1"))
+      .compose(v -> {
+        Promise<Void> promise = Promise.promise();
+        cache.close(promise);
+        return promise.future();
+      })
+      .compose(v -> cache.get(URL1).compose(res -> {
+        ctx.assertNull(res);
+        return new DiskCache(vertx, options).get(URL1);
+      }))
+      .onComplete(ctx.asyncAssertSuccess(res -> ctx.assertEquals("content1", res.getContent().toString())));
+  }
+
+  @Test
+  public void testRemoveByTag(TestContext ctx) {
+    Resource tagged = generateResource(URL1, "content1");
+    tagged.setTags("t1 t2");
+    Cache cache = new DiskCache(vertx, options);
+    cache.put(URL1, tagged)
+      .compose(v -> cache.put(URL2, generateResource(URL2, "content2")))
+      .compose(v -> {
+        // The tag index is rebuilt from the segments
+        Cache reopened = new DiskCache(vertx, options);
+        return reopened.removeByTag("t2").compose(removed -> {
+          ctx.assertEquals(Collections.singleton(URL1), removed);
+          return Future.all(reopened.get(URL1), reopened.get(URL2));
+        });
+      })
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertNull(res.resultAt(0));
+        ctx.assertNotNull(res.resultAt(1));
+      }));
+  }
+
+  @Test
+  public void testStream(TestContext ctx) {
+    Buffer content = Buffer.buffer();
+    for (int i = 0; i < 20_000; i++) {
+      content.appendString("chunk-" + i + ",");
+    }
+    Resource metadata = generateResource(URL1, "");
+    ReadStream<Buffer> body = Body.body(content).stream();
+    Cache cache = new DiskCache(vertx, options);
+    cache.put(URL1, metadata, body, content.length())
+      .compose(v -> {
+        // The body is read by chunks from the reopened segments
+        Cache reopened = new DiskCache(vertx, options);
+        return reopened.getStream(URL1);
+      })
+      .compose(streamed -> {
+        ctx.assertNull(streamed.getMetadata().getContent());
+        ctx.assertEquals("text/plain", streamed.getMetadata().getHeaders().get("content-type"));
+        ctx.assertEquals((long) content.length(), streamed.getLength());
+        return streamed.openBody().compose(stream -> {
+          Promise<Buffer> promise = Promise.promise();
+          Buffer received = Buffer.buffer();
+          stream.exceptionHandler(promise::tryFail);
+          stream.endHandler(v -> promise.complete(received));
+          stream.handler(received::appendBuffer);
+          return promise.future();
+        });
+      })
+      .compose(received -> {
+        ctx.assertEquals(content, received);
+        return cache.get(URL1);
+      })
+      .onComplete(ctx.asyncAssertSuccess(res -> ctx.assertEquals(content, res.getContent())));
+  }
+
+  @Test
+  public void testStreamTooLarge(TestContext ctx) {
+    options.setDiskSegmentSize(1024);
+    Cache cache = new DiskCache(vertx, options);
+    Buffer content = Buffer.buffer(new byte[2048]);
+    cache.put(URL1, generateResource(URL1, "content1"))
+      .compose(v -> cache.put(URL1, generateResource(URL1, ""), Body.body(content).stream(), content.length()))
+      .compose(v -> cache.get(URL1))
+      .onComplete(ctx.asyncAssertSuccess(ctx::assertNull));
+  }
+
+  @Test
+  public void testRemoveByPrefix(TestContext ctx) {
+    String slice = URL1 + "\nslice:0";
+    Cache cache = new DiskCache(vertx, options);
+    cache.put(URL1, generateResource(URL1, "content1"))
+      .compose(v -> cache.put(slice, generateResource(URL1, "slice")))
+      .compose(v -> cache.put(URL2, generateResource(URL2, "content2")))
+      .compose(v -> {
+        // Only the actual removals are counted
+        Future<Integer> f1 = cache.removeByPrefix(URL1);
+        Future<Integer> f2 = cache.removeByPrefix(URL1);
+        return Future.all(f1, f2).map(res -> f1.result() + f2.result());
+      })
+      .compose(removed -> {
+        ctx.assertEquals(2, removed);
+        return cache.keys("http://", 10);
+      })
+      .onComplete(ctx.asyncAssertSuccess(keys -> ctx.assertEquals(Collections.singletonList(URL2), keys)));
+  }
+}
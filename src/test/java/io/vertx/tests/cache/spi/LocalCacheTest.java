@@ -1,6 +1,17 @@
 package io.vertx.tests.cache.spi;
 
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.internal.buffer.BufferInternal;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.httpproxy.cache.CacheOptions;
+import io.vertx.httpproxy.cache.CacheStats;
 import io.vertx.httpproxy.impl.CacheImpl;
+import io.vertx.httpproxy.spi.cache.Resource;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
 
 public class LocalCacheTest extends CacheSpiTestBase {
 
@@ -10,4 +21,183 @@ public class LocalCacheTest extends CacheSpiTestBase {
     cache = new CacheImpl(cacheOptions);
   }
 
+  private Resource generateResourceOfSize(String absoluteURI, int contentSize) {
+    Resource resource = generateResource(absoluteURI, 100L);
+    resource.setContent(Buffer.buffer(new byte[contentSize]));
+    return resource;
+  }
+
+  @Test
+  public void testMaxContentSize(TestContext ctx) {
+    cache = new CacheImpl(new CacheOptions().setMaxContentSize(2 * (URL1.length() + 100)));
+    cache.put(URL1, generateResourceOfSize(URL1, 100))
+      .compose(v -> cache.put(URL2, generateResourceOfSize(URL2, 100)))
+      .compose(v -> cache.put(URL3, generateResourceOfSize(URL3, 100)))
+      .compose(v -> Future.all(cache.get(URL1), cache.get(URL2), cache.get(URL3)))
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        int cnt = 0;
+        for (int i = 0; i < 3; i++) {
+          if (res.resultAt(i) != null) cnt++;
+        }
+        ctx.assertEquals(2, cnt);
+      }));
+  }
+
+  @Test
+  public void testFrequentlyUsedResourceSurvivesScan(TestContext ctx) {
+    cache = new CacheImpl(new CacheOptions().setMaxSize(10));
+    String hot = "http://hot.example.com";
+    cache.put(hot, generateResource(hot, 100L));
+    for (int i = 0; i < 5; i++) {
+      cache.get(hot);
+    }
+    for (int i = 0; i < 100; i++) {
+      String uri = "http://scan" + i + ".example.com";
+      cache.put(uri, generateResource(uri, 100L));
+    }
+    cache.get(hot).onComplete(ctx.asyncAssertSuccess(ctx::assertNotNull));
+  }
+
+  @Test
+  public void testMaxResourceSize(TestContext ctx) {
+    cache = new CacheImpl(new CacheOptions().setMaxResourceSize(URL1.length() + 100));
+    cache.put(URL1, generateResourceOfSize(URL1, 100))
+      .compose(v -> cache.put(URL2, generateResourceOfSize(URL2, 101)))
+      .compose(v -> cache.get(URL1))
+      .compose(res1 -> {
+        ctx.assertNotNull(res1);
+        return cache.get(URL2);
+      })
+      .onComplete(ctx.asyncAssertSuccess(ctx::assertNull));
+  }
+
+  @Test
+  public void testOffHeap(TestContext ctx) {
+    cache = new CacheImpl(new CacheOptions().setOffHeap(true));
+    Resource resource = generateResource(URL1, 100L);
+    resource.setContent(Buffer.buffer("content"));
+    cache.put(URL1, resource)
+      .compose(v -> cache.get(URL1))
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertEquals("content", res.getContent().toString());
+        ctx.assertTrue(((BufferInternal) res.getContent()).getByteBuf().isDirect());
+      }));
+  }
+
+  @Test
+  public void testOffHeapLeaseOutlivesRemoval(TestContext ctx) {
+    cache = new CacheImpl(new CacheOptions().setOffHeap(true));
+    Resource resource = generateResource(URL1, 100L);
+    resource.setContent(Buffer.buffer("content"));
+    cache.put(URL1, resource)
+      .compose(v -> cache.get(URL1))
+      .compose(res -> cache.remove(URL1).map(res))
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertEquals("content", res.getContent().toString());
+      }));
+  }
+
+  @Test
+  public void testExpire(TestContext ctx) {
+    CacheImpl cache = new CacheImpl(new CacheOptions());
+    long now = System.currentTimeMillis();
+    Resource expired = generateResource(URL1, 1000L);
+    expired.setTimestamp(now - 10_000);
+    Resource stale = generateResource(URL2, 1000L);
+    stale.setTimestamp(now - 10_000);
+    stale.setStaleWhileRevalidate(60_000);
+    cache.put(URL1, expired)
+      .compose(v -> cache.put(URL2, stale))
+      .compose(v -> cache.put(URL3, generateResource(URL3, 60_000L)))
+      .compose(v -> {
+        ctx.assertEquals(1, cache.expire(now + 2000, 1024));
+        return Future.all(cache.get(URL1), cache.get(URL2), cache.get(URL3));
+      })
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertNull(res.resultAt(0));
+        ctx.assertNotNull(res.resultAt(1));
+        ctx.assertNotNull(res.resultAt(2));
+      }));
+  }
+
+  @Test
+  public void testExpireInBatches(TestContext ctx) {
+    CacheImpl cache = new CacheImpl(new CacheOptions().setMaxSize(100));
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < 50; i++) {
+      String uri = "http://k" + i + ".example.com";
+      Resource resource = generateResource(uri, 1000L);
+      resource.setTimestamp(now - 10_000);
+      cache.put(uri, resource);
+    }
+    ctx.assertEquals(20, cache.expire(now + 2000, 20));
+    ctx.assertEquals(20, cache.expire(now + 2000, 20));
+    ctx.assertEquals(10, cache.expire(now + 2000, 20));
+    cache.get("http://k49.example.com").onComplete(ctx.asyncAssertSuccess(ctx::assertNull));
+  }
+
+  @Test
+  public void testStats(TestContext ctx) {
+    CacheImpl cache = new CacheImpl(new CacheOptions().setMaxSize(10));
+    for (int i = 0; i < 20; i++) {
+      String uri = "http://k" + i + ".example.com";
+      cache.put(uri, generateResourceOfSize(uri, 100));
+    }
+    CacheStats stats = cache.stats();
+    ctx.assertEquals(10L, stats.getEvictionCount());
+    ctx.assertEquals(0L, stats.getExpirationCount());
+    ctx.assertEquals(10L, stats.getSize());
+    ctx.assertTrue(stats.getContentSize() >= 10 * 100);
+    cache.expire(System.currentTimeMillis() + 2000, 1024);
+    stats = cache.stats();
+    ctx.assertEquals(10L, stats.getExpirationCount());
+    ctx.assertEquals(0L, stats.getSize());
+    ctx.assertEquals(0L, stats.getContentSize());
+  }
+
+  @Test
+  public void testRemoveByTag(TestContext ctx) {
+    CacheImpl cache = new CacheImpl(new CacheOptions());
+    Resource r1 = generateResource(URL1, 60_000L);
+    r1.setTags("product-1 catalog");
+    Resource r2 = generateResource(URL2, 60_000L);
+    r2.setTags("product-2 catalog");
+    Resource r3 = generateResource(URL2, 60_000L);
+    r3.setTags("product-2");
+    cache.put(URL1, r1)
+      .compose(v -> cache.put(URL2, r2))
+      // Replacing the resource drops its previous tags
+      .compose(v -> cache.put(URL2, r3))
+      .compose(v -> cache.removeByTag("catalog"))
+      .compose(removed -> {
+        ctx.assertEquals(Collections.singleton(URL1), removed);
+        return Future.all(cache.get(URL1), cache.get(URL2));
+      })
+      .onComplete(ctx.asyncAssertSuccess(res -> {
+        ctx.assertNull(res.resultAt(0));
+        ctx.assertNotNull(res.resultAt(1));
+      }));
+  }
+
+  @Test
+  public void testRemoveByPrefix(TestContext ctx) {
+    CacheImpl cache = new CacheImpl(new CacheOptions().setMaxSize(5000));
+    for (int i = 0; i < 3000; i++) {
+      String uri = "http://example.com/catalog/" + i;
+      cache.put(uri, generateResource(uri, 60_000L));
+    }
+    cache.put("http://example.com/home", generateResource("http://example.com/home", 60_000L));
+    cache.keys("http://example.com/catalog/", 2)
+      .compose(keys -> {
+        ctx.assertEquals(Arrays.asList("http://example.com/catalog/0", "http://example.com/catalog/1"), keys);
+        return cache.removeByPrefix("http://example.com/catalog/");
+      })
+      .compose(removed -> {
+        ctx.assertEquals(3000, removed);
+        return cache.keys("http://example.com/", 10);
+      })
+      .onComplete(ctx.asyncAssertSuccess(keys -> {
+        ctx.assertEquals(Collections.singletonList("http://example.com/home"), keys);
+      }));
+  }
 }
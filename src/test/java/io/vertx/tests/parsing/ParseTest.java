@@ -10,6 +10,7 @@
  */
 package io.vertx.tests.parsing;
 
+import io.vertx.httpproxy.impl.ByteRanges;
 import io.vertx.httpproxy.impl.CacheControl;
 import org.junit.Assert;
 import org.junit.Test;
@@ -33,6 +34,69 @@ public class ParseTest {
     Assert.assertTrue(control.parse("public").isPublic());
   }
 
+  @Test
+  public void testParseCacheControlStaleWhileRevalidate() {
+    CacheControl control = new CacheControl();
+    Assert.assertEquals(30, control.parse("max-age=1, stale-while-revalidate=30").staleWhileRevalidate());
+    Assert.assertEquals(-1, control.parse("max-age=1").staleWhileRevalidate());
+  }
+
+  @Test
+  public void testParseCacheControlStaleIfError() {
+    CacheControl control = new CacheControl();
+    Assert.assertEquals(60, control.parse("max-age=1, stale-if-error=60").staleIfError());
+    Assert.assertEquals(-1, control.parse("max-age=1").staleIfError());
+  }
+
+  @Test
+  public void testParseCacheControlDirectives() {
+    CacheControl control = new CacheControl().parse("Public, S-MAXAGE=60,max-age=10 , no-store, no-cache=\"set-cookie, foo\", private, must-revalidate, proxy-revalidate, immutable, no-transform");
+    Assert.assertTrue(control.isPublic());
+    Assert.assertEquals(60, control.sMaxAge());
+    Assert.assertEquals(10, control.maxAge());
+    Assert.assertEquals(60, control.sharedMaxAge());
+    Assert.assertTrue(control.isNoStore());
+    Assert.assertTrue(control.isNoCache());
+    Assert.assertTrue(control.isPrivate());
+    Assert.assertTrue(control.isMustRevalidate());
+    Assert.assertTrue(control.isProxyRevalidate());
+    Assert.assertTrue(control.isImmutable());
+    Assert.assertFalse(control.isStorable());
+    control.parse("max-stale, min-fresh=5, only-if-cached");
+    Assert.assertEquals(Integer.MAX_VALUE, control.maxStale());
+    Assert.assertEquals(5, control.minFresh());
+    Assert.assertTrue(control.isOnlyIfCached());
+    Assert.assertFalse(control.isPublic());
+    Assert.assertTrue(control.isStorable());
+  }
+
+  @Test
+  public void testParseCacheControlInvalidValues() {
+    CacheControl control = new CacheControl();
+    Assert.assertEquals(-1, control.parse("max-age=abc").maxAge());
+    Assert.assertEquals(-1, control.parse("max-age=").maxAge());
+    Assert.assertEquals(-1, control.parse("max-age").maxAge());
+    Assert.assertEquals(30, control.parse("max-age=\"30\"").maxAge());
+    Assert.assertEquals(Integer.MAX_VALUE, control.parse("max-age=99999999999999999999").maxAge());
+    Assert.assertEquals(-1, control.parse("max-agex=10").maxAge());
+  }
+
+  @Test
+  public void testParseByteRanges() {
+    Assert.assertArrayEquals(new long[] { 0, 9 }, ByteRanges.parse("bytes=0-9", 100));
+    Assert.assertArrayEquals(new long[] { 90, 99 }, ByteRanges.parse("bytes=90-", 100));
+    Assert.assertArrayEquals(new long[] { 80, 99 }, ByteRanges.parse("bytes=-20", 100));
+    Assert.assertArrayEquals(new long[] { 0, 99 }, ByteRanges.parse("bytes=-200", 100));
+    Assert.assertArrayEquals(new long[] { 50, 99 }, ByteRanges.parse("bytes=50-1000", 100));
+    Assert.assertArrayEquals(new long[] { 0, 0, 10, 19 }, ByteRanges.parse("bytes=0-0, 10-19, 200-300", 100));
+    Assert.assertArrayEquals(new long[0], ByteRanges.parse("bytes=100-", 100));
+    Assert.assertArrayEquals(new long[0], ByteRanges.parse("bytes=-0", 100));
+    Assert.assertNull(ByteRanges.parse("items=0-9", 100));
+    Assert.assertNull(ByteRanges.parse("bytes=9-0", 100));
+    Assert.assertNull(ByteRanges.parse("bytes=a-b", 100));
+    Assert.assertNull(ByteRanges.parse("bytes=", 100));
+  }
+
   /*
   @Test
   public void testCommaSplit() {
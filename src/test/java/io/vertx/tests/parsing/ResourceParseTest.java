@@ -17,6 +17,10 @@ public class ResourceParseTest {
     boolean same = r1.getStatusCode() == r2.getStatusCode()
       && r1.getTimestamp() == r2.getTimestamp()
       && r1.getMaxAge() == r2.getMaxAge()
+      && r1.getStaleWhileRevalidate() == r2.getStaleWhileRevalidate()
+      && r1.getStaleIfError() == r2.getStaleIfError()
+      && Objects.equals(r1.getVary(), r2.getVary())
+      && Objects.equals(r1.getTags(), r2.getTags())
       && Objects.equals(r1.getAbsoluteUri(), r2.getAbsoluteUri())
       && Objects.equals(r1.getStatusMessage(), r2.getStatusMessage())
       && Objects.equals(r1.getLastModified(), r2.getLastModified())
@@ -49,11 +53,17 @@ public class ResourceParseTest {
       "OK",
       MultiMap.caseInsensitiveMultiMap()
         .add(HttpHeaders.LAST_MODIFIED, "Fri, 12 Jul 2024 12:34:56 GMT")
-        .add(HttpHeaders.ETAG, "etag0"),
+        .add(HttpHeaders.ETAG, "etag0")
+        .add("surrogate-key", "product-1  catalog")
+        .add("cache-tag", "catalog, home"),
       System.currentTimeMillis(),
       3600
     );
     resource.getContent().appendInt(2048);
+    resource.setStaleWhileRevalidate(60_000);
+    resource.setStaleIfError(120_000);
+    resource.setVary("accept-encoding,accept-language");
+    Assert.assertEquals("product-1 catalog home", resource.getTags());
 
     Buffer buffer = Buffer.buffer();
     resource.writeToBuffer(buffer);
@@ -94,5 +104,14 @@ public class ResourceParseTest {
     Assert.assertTrue(resourceEquals(resource, recovered));
   }
 
+  @Test
+  public void testUnsupportedVersion() {
+    Resource resource = new Resource();
 
+    Buffer buffer = Buffer.buffer();
+    resource.writeToBuffer(buffer);
+    // A resource serialized without format version starts with the null marker of its URI
+    buffer.setByte(0, (byte) 1);
+    Assert.assertThrows(IllegalStateException.class, () -> new Resource().readFromBuffer(0, buffer));
+  }
 }
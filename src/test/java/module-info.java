@@ -1,4 +1,5 @@
 open module io.vertx.tests {
+  requires io.netty.buffer;
   requires io.netty.codec.http;
   requires io.vertx.httpproxy;
   requires io.vertx.testing.unit;